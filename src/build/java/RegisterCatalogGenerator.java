@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Build-time generator of the typed register catalog.
+ * <p>
+ * Reads the catalog resource (see the header of {@code solax-g4.registers} for its format) and writes
+ * {@code RegisterCatalog} with one typed {@code CatalogRegister} constant per line, plus one Java enum per
+ * {@code enum} line. Runs as a single-file source program in the generate-sources phase:
+ * <pre>
+ * java src/build/java/RegisterCatalogGenerator.java &lt;catalog file&gt; &lt;output source root&gt;
+ * </pre>
+ */
+public class RegisterCatalogGenerator {
+
+    private static final String PACKAGE = "me.firestone82.solaxautomation.service.solax.register.catalog";
+    private static final Set<String> INTEGER_FORMATS = Set.of("U16", "S16", "U32", "S32");
+
+    record Entry(int line, String name, String table, int address, int words, String format, double scale, String unit, String description) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: RegisterCatalogGenerator <catalog file> <output source root>");
+            System.exit(2);
+        }
+
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]).resolve(PACKAGE.replace('.', '/'));
+
+        Map<String, List<String>> enums = new LinkedHashMap<>();
+        List<Entry> entries = new ArrayList<>();
+
+        List<String> lines = Files.readAllLines(input, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            try {
+                if (line.startsWith("enum ")) {
+                    String[] parts = line.substring(5).split(";", 2);
+                    List<String> constants = Arrays.stream(parts[1].split(",")).map(String::strip).toList();
+                    if (enums.put(parts[0].strip(), constants) != null) {
+                        throw new IllegalArgumentException("duplicate enum " + parts[0].strip());
+                    }
+                    continue;
+                }
+
+                entries.add(parseEntry(i + 1, line));
+            } catch (RuntimeException e) {
+                fail(input, i + 1, e.getMessage());
+            }
+        }
+
+        validate(input, entries, enums);
+
+        Files.createDirectories(output);
+        for (Map.Entry<String, List<String>> e : enums.entrySet()) {
+            Files.writeString(output.resolve(e.getKey() + ".java"), enumSource(e.getKey(), e.getValue()), StandardCharsets.UTF_8);
+        }
+
+        Files.writeString(output.resolve("RegisterCatalog.java"), catalogSource(input, entries), StandardCharsets.UTF_8);
+        System.out.println("Generated register catalog: " + entries.size() + " registers, " + enums.size() + " enums");
+    }
+
+    private static Entry parseEntry(int line, String text) {
+        String[] f = text.split(";", -1);
+        if (f.length != 8) {
+            throw new IllegalArgumentException("expected 8 fields, found " + f.length);
+        }
+
+        String table = f[1].strip();
+        if (!table.equals("INPUT") && !table.equals("HOLDING")) {
+            throw new IllegalArgumentException("unknown table " + table);
+        }
+
+        String format = f[4].strip();
+        int words = Integer.parseInt(f[3].strip());
+        double scale = Double.parseDouble(f[5].strip());
+
+        if (INTEGER_FORMATS.contains(format) && words != (format.endsWith("32") ? 2 : 1)) {
+            throw new IllegalArgumentException(format + " needs " + (format.endsWith("32") ? 2 : 1) + " words");
+        }
+
+        if (!INTEGER_FORMATS.contains(format) && scale != 1) {
+            throw new IllegalArgumentException("scale is only supported for integer formats");
+        }
+
+        if (!INTEGER_FORMATS.contains(format) && !format.equals("ASCII") && !format.startsWith("enum:")) {
+            throw new IllegalArgumentException("unknown format " + format);
+        }
+
+        return new Entry(line, f[0].strip(), table, Integer.decode(f[2].strip()), words, format, scale, f[6].strip(), f[7].strip());
+    }
+
+    private static void validate(Path input, List<Entry> entries, Map<String, List<String>> enums) {
+        Set<String> names = new HashSet<>();
+        Map<String, Entry> occupied = new HashMap<>();
+
+        for (Entry entry : entries) {
+            if (!names.add(entry.name())) {
+                fail(input, entry.line(), "duplicate register " + entry.name());
+            }
+
+            for (int address = entry.address(); address < entry.address() + entry.words(); address++) {
+                Entry other = occupied.put(entry.table() + address, entry);
+                if (other != null) {
+                    fail(input, entry.line(), entry.name() + " overlaps " + other.name());
+                }
+            }
+
+            if (entry.format().startsWith("enum:")) {
+                String type = entry.format().substring(5);
+                if (!type.contains(".") && !enums.containsKey(type)) {
+                    fail(input, entry.line(), "undeclared enum " + type);
+                }
+            }
+        }
+    }
+
+    private static String enumSource(String name, List<String> constants) {
+        return "package " + PACKAGE + ";\n\n"
+                + "// Generated by RegisterCatalogGenerator, do not edit\n"
+                + "public enum " + name + " {\n"
+                + "    " + String.join(",\n    ", constants) + ";\n"
+                + "}\n";
+    }
+
+    private static String catalogSource(Path input, List<Entry> entries) {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;\n")
+                .append("import me.firestone82.solaxautomation.service.solax.register.codec.*;\n\n")
+                .append("import java.util.List;\n")
+                .append("import java.util.Map;\n")
+                .append("import java.util.Optional;\n")
+                .append("import java.util.function.Function;\n")
+                .append("import java.util.stream.Collectors;\n\n")
+                .append("/**\n")
+                .append(" * Typed registers of the Solax G4 protocol, generated from {@code ").append(input.getFileName()).append("}.\n")
+                .append(" * Generated by RegisterCatalogGenerator, do not edit.\n")
+                .append(" */\n")
+                .append("public final class RegisterCatalog {\n\n");
+
+        for (Entry entry : entries) {
+            String[] type = javaType(entry);
+
+            out.append("    /**\n     * ").append(entry.description());
+            if (!entry.unit().isEmpty()) {
+                out.append(" [").append(entry.unit()).append(']');
+            }
+            out.append("\n     */\n");
+
+            out.append("    public static final CatalogRegister<").append(type[0]).append("> ").append(entry.name())
+                    .append(" = new CatalogRegister<>(")
+                    .append(quote(camelCase(entry.name()))).append(", ")
+                    .append(String.format("0x%04X", entry.address())).append(", ")
+                    .append(entry.words()).append(", ")
+                    .append(type[1]).append(", ")
+                    .append(type[2]).append(", ")
+                    .append("ReadRegistryType.").append(entry.table()).append(", ")
+                    .append(quote(entry.unit())).append(", ")
+                    .append(quote(entry.description())).append(");\n\n");
+        }
+
+        out.append("    public static final List<CatalogRegister<?>> ALL = List.of(\n");
+        for (int i = 0; i < entries.size(); i++) {
+            out.append("            ").append(entries.get(i).name()).append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        out.append("    );\n\n");
+
+        out.append("    private static final Map<String, CatalogRegister<?>> BY_NAME = ALL.stream()\n")
+                .append("            .collect(Collectors.toUnmodifiableMap(CatalogRegister::getName, Function.identity()));\n\n")
+                .append("    private RegisterCatalog() {\n")
+                .append("    }\n\n")
+                .append("    public static Optional<CatalogRegister<?>> byName(String name) {\n")
+                .append("        return Optional.ofNullable(BY_NAME.get(name));\n")
+                .append("    }\n")
+                .append("}\n");
+
+        return out.toString();
+    }
+
+    /**
+     * @return value type, class literal and codec expression of the entry
+     */
+    private static String[] javaType(Entry entry) {
+        String format = entry.format();
+
+        if (format.equals("ASCII")) {
+            return new String[]{"String", "String.class", "new StringCodec(" + entry.words() + ")"};
+        }
+
+        if (format.startsWith("enum:")) {
+            String type = format.substring(5);
+            return new String[]{type, type + ".class", "new EnumCodec<>(" + type + ".class)"};
+        }
+
+        if (entry.scale() != 1) {
+            return new String[]{"Double", "Double.class", "new ScaledCodec(NumberFormat." + format + ", " + entry.scale() + ")"};
+        }
+
+        return new String[]{"Integer", "Integer.class", "IntegerCodec." + format};
+    }
+
+    private static String camelCase(String constant) {
+        StringBuilder result = new StringBuilder();
+        for (String part : constant.toLowerCase(Locale.ROOT).split("_")) {
+            result.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+        }
+
+        return result.toString();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static void fail(Path input, int line, String message) {
+        System.err.println(input + ":" + line + ": " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,62 @@
+package me.firestone82.solaxautomation.benchmark;
+
+import me.firestone82.solaxautomation.http.serialization.GsonService;
+import me.firestone82.solaxautomation.service.meteosource.model.MeteoDayHourly;
+import me.firestone82.solaxautomation.service.meteosource.model.WeatherForecast;
+import me.firestone82.solaxautomation.service.ote.model.PowerForecast;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of large forecast payloads and evaluation of the weather forecast as done by the checkers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastBenchmark {
+
+    /**
+     * Hourly entries of the weather forecast and prices per day (96 for quarter-hour pricing).
+     */
+    @Param({"24", "168"})
+    private int hours;
+
+    @Param({"24", "96"})
+    private int pricesPerDay;
+
+    private String weatherJson;
+    private String powerJson;
+    private WeatherForecast forecast;
+
+    @Setup
+    public void setup() {
+        weatherJson = ForecastPayloads.weatherForecast(hours);
+        powerJson = ForecastPayloads.powerForecast(pricesPerDay);
+        forecast = GsonService.gson.fromJson(weatherJson, WeatherForecast.class);
+    }
+
+    @Benchmark
+    public WeatherForecast parseWeatherForecast() {
+        return GsonService.gson.fromJson(weatherJson, WeatherForecast.class);
+    }
+
+    @Benchmark
+    public PowerForecast parsePowerForecast() {
+        return GsonService.gson.fromJson(powerJson, PowerForecast.class);
+    }
+
+    @Benchmark
+    public List<MeteoDayHourly> hourlyBetween() {
+        return forecast.getHourlyBetween(ForecastPayloads.START.plusHours(10), ForecastPayloads.START.plusHours(16));
+    }
+
+    @Benchmark
+    public double avgQualityOfDay() {
+        return MeteoDayHourly.avgQuality(forecast.getHourlyBetween(ForecastPayloads.START.plusHours(6), ForecastPayloads.START.plusHours(20)));
+    }
+}
@@ -0,0 +1,82 @@
+package me.firestone82.solaxautomation.benchmark;
+
+import me.firestone82.solaxautomation.service.meteosource.model.type.WeatherType;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Synthetic API payloads shaped like the MeteoSource and spotovaelektrina.cz responses.
+ */
+public class ForecastPayloads {
+
+    private static final String[] WIND_DIRECTIONS = {"N", "NE", "E", "SE", "S", "SW", "W", "NW"};
+
+    public static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    public static String weatherForecast(int hours) {
+        Random random = new Random(hours);
+        WeatherType[] types = WeatherType.values();
+
+        StringBuilder json = new StringBuilder(hours * 320);
+        json.append("{\"lat\":\"50.0755N\",\"lon\":\"14.4378E\",\"elevation\":235,\"timezone\":\"Europe/Prague\",\"units\":\"metric\",");
+        json.append("\"current\":{\"icon\":\"sunny\",\"icon_num\":2,\"summary\":\"Sunny\",\"temperature\":21.5,")
+                .append("\"wind\":{\"speed\":2.1,\"dir\":\"NW\",\"angel\":310},\"cloud_cover\":10,")
+                .append("\"precipitation\":{\"total\":0.0,\"type\":\"none\"}},");
+        json.append("\"hourly\":{\"data\":[");
+
+        for (int i = 0; i < hours; i++) {
+            WeatherType type = types[random.nextInt(types.length)];
+
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"date\":\"").append(START.plusHours(i)).append(":00\",")
+                    .append("\"weather\":\"").append(type.name().toLowerCase()).append("\",")
+                    .append("\"icon\":").append(type.getCode()).append(',')
+                    .append("\"summary\":\"").append(type.name()).append("\",")
+                    .append("\"temperature\":").append(10 + random.nextInt(150) / 10.0).append(',')
+                    .append("\"wind\":{\"speed\":").append(random.nextInt(100) / 10.0)
+                    .append(",\"dir\":\"").append(WIND_DIRECTIONS[random.nextInt(WIND_DIRECTIONS.length)])
+                    .append("\",\"angel\":").append(random.nextInt(360)).append("},")
+                    .append("\"cloud_cover\":{\"total\":").append(random.nextInt(101)).append("},")
+                    .append("\"precipitation\":{\"total\":").append(random.nextInt(30) / 10.0).append(",\"type\":\"rain\"}}");
+        }
+
+        return json.append("]}}").toString();
+    }
+
+    public static String powerForecast(int pricesPerDay) {
+        Random random = new Random(pricesPerDay);
+
+        StringBuilder json = new StringBuilder(pricesPerDay * 200);
+        json.append("{\"hoursToday\":");
+        appendPrices(json, random, pricesPerDay);
+        json.append(",\"hoursTomorrow\":");
+        appendPrices(json, random, pricesPerDay);
+
+        return json.append('}').toString();
+    }
+
+    private static void appendPrices(StringBuilder json, Random random, int count) {
+        json.append('[');
+
+        for (int i = 0; i < count; i++) {
+            double czk = random.nextInt(800) / 100.0 - 1;
+
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"hour\":").append(i * 24 / count)
+                    .append(",\"priceCZK\":").append(czk)
+                    .append(",\"priceEur\":").append(Math.round(czk / 25 * 1000) / 1000.0)
+                    .append(",\"level\":\"").append(czk < 2 ? "low" : czk < 5 ? "medium" : "high")
+                    .append("\",\"levelNum\":").append(czk < 2 ? 0 : czk < 5 ? 1 : 2)
+                    .append('}');
+        }
+
+        json.append(']');
+    }
+}
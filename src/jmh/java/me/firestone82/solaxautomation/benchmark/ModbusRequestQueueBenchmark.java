@@ -0,0 +1,59 @@
+package me.firestone82.solaxautomation.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequest;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submit-to-completion latency of {@link ModbusRequestQueue} under concurrent submitters.
+ * <p>
+ * The queue is created outside Spring, so all pacing delays are zero and only the queueing overhead
+ * (priority ordering, capacity accounting, worker hand-off) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModbusRequestQueueBenchmark {
+
+    private ModbusRequestQueue queue;
+
+    @Setup
+    public void setup() {
+        queue = new ModbusRequestQueue(4096, new SimpleMeterRegistry());
+        queue.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer singleSubmitter() {
+        return submit(ModbusRequestPriority.NORMAL);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer fourSubmitters() {
+        return submit(ModbusRequestPriority.NORMAL);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer fourCriticalSubmitters() {
+        return submit(ModbusRequestPriority.CRITICAL);
+    }
+
+    private Integer submit(ModbusRequestPriority priority) {
+        return queue.submit(new ModbusRequest<>(() -> 1, priority, null)).join();
+    }
+}
@@ -0,0 +1,96 @@
+package me.firestone82.solaxautomation.benchmark;
+
+import me.firestone82.solaxautomation.service.solax.client.ModbusConvertUtil;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding of register payloads for every register value type, through the
+ * {@link ModbusConvertUtil} entry points and through the codecs precompiled on the registers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterDecodeBenchmark {
+
+    private final byte[] serial = "H34A10I1234567".getBytes();
+    private final byte[] word = {0x00, 0x32};
+    private final byte[] doubleWord = {0x27, 0x10, 0x00, 0x00};
+    private final byte[] mode = {0x00, 0x01};
+
+    @Benchmark
+    public String convertString() {
+        return ModbusConvertUtil.convertResponse(serial, String.class, 7);
+    }
+
+    @Benchmark
+    public Integer convertInteger() {
+        return ModbusConvertUtil.convertResponse(word, Integer.class, 1);
+    }
+
+    @Benchmark
+    public Integer convertInteger32() {
+        return ModbusConvertUtil.convertResponse(doubleWord, Integer.class, 2);
+    }
+
+    @Benchmark
+    public int[] convertWordArray() {
+        return ModbusConvertUtil.convertResponse(doubleWord, int[].class, 2);
+    }
+
+    @Benchmark
+    public InverterMode convertEnum() {
+        return ModbusConvertUtil.convertResponse(mode, InverterMode.class, 1);
+    }
+
+    @Benchmark
+    public Byte convertByte() {
+        return ModbusConvertUtil.convertResponse(word, Byte.class, 1);
+    }
+
+    @Benchmark
+    public String codecString() {
+        return ReadRegister.INVERTER_SN.getCodec().decode(serial, 0);
+    }
+
+    @Benchmark
+    public Integer codecInteger() {
+        return ReadRegister.BATTERY_CAPACITY.getCodec().decode(word, 0);
+    }
+
+    @Benchmark
+    public Integer codecInteger32() {
+        return ReadRegister.BMS_BATTERY_CAPACITY.getCodec().decode(doubleWord, 0);
+    }
+
+    @Benchmark
+    public int[] codecWordArray() {
+        return ReadRegister.POWER_DC.getCodec().decode(doubleWord, 0);
+    }
+
+    @Benchmark
+    public InverterMode codecEnum() {
+        return ReadRegister.USE_MODE.getCodec().decode(mode, 0);
+    }
+
+    @Benchmark
+    public short[] requestInteger() {
+        return ModbusConvertUtil.convertRequest(395, 1);
+    }
+
+    @Benchmark
+    public short[] requestByte() {
+        return ModbusConvertUtil.convertRequest((byte) 1, 1);
+    }
+
+    @Benchmark
+    public short[] requestString() {
+        return ModbusConvertUtil.convertRequest("H34A10I1234567", 7);
+    }
+}
@@ -0,0 +1,136 @@
+package me.firestone82.solaxautomation.benchmark;
+
+import me.firestone82.solaxautomation.service.telemetry.gorilla.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gorilla encoding of one day of 1 Hz telemetry (timestamp, battery level, PV power) against the plain
+ * fixed-width 8 byte slots of the raw column files. The encoded size per sample is printed during setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryCodecBenchmark {
+
+    private static final int SAMPLES = 86_400;
+
+    private final long[] timestamps = new long[SAMPLES];
+    private final double[] batteryLevel = new double[SAMPLES];
+    private final double[] pvPower = new double[SAMPLES];
+
+    private ByteBuffer plain;
+    private byte[] gorillaTimestamps;
+    private byte[] gorillaBatteryLevel;
+    private byte[] gorillaPvPower;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        long timestamp = 1_760_000_000_000L;
+        double level = 20;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // Sampler runs at a fixed rate, completion jitters by a few milliseconds
+            timestamp += 1000 + random.nextInt(21) - 10;
+            timestamps[i] = timestamp;
+
+            if (i % 600 == 0) {
+                level = Math.clamp(level + random.nextInt(3) - 1, 10, 100);
+            }
+            batteryLevel[i] = level;
+
+            double sun = Math.max(0, Math.sin(Math.PI * (i - 6 * 3600) / (12 * 3600.0)));
+            pvPower[i] = Math.round(sun * 6000 + (sun > 0 ? random.nextGaussian() * 50 : 0));
+        }
+
+        plain = encodePlain();
+        gorillaTimestamps = encodeTimestamps();
+        gorillaBatteryLevel = encodeValues(batteryLevel);
+        gorillaPvPower = encodeValues(pvPower);
+
+        System.out.printf("%nplain: %.2f B/sample, gorilla: %.2f B/sample (timestamp %.2f, battery %.2f, pv %.2f)%n",
+                plain.capacity() / (double) SAMPLES,
+                (gorillaTimestamps.length + gorillaBatteryLevel.length + gorillaPvPower.length) / (double) SAMPLES,
+                gorillaTimestamps.length / (double) SAMPLES,
+                gorillaBatteryLevel.length / (double) SAMPLES,
+                gorillaPvPower.length / (double) SAMPLES
+        );
+    }
+
+    @Benchmark
+    public ByteBuffer encodePlain() {
+        ByteBuffer buffer = ByteBuffer.allocate(SAMPLES * Long.BYTES * 3);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            buffer.putLong(timestamps[i]).putDouble(batteryLevel[i]).putDouble(pvPower[i]);
+        }
+
+        return buffer.flip();
+    }
+
+    @Benchmark
+    public byte[] encodeTimestamps() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BitOutput bits = new BitOutput(out);
+        TimestampEncoder encoder = new TimestampEncoder(bits);
+
+        for (long timestamp : timestamps) {
+            encoder.add(timestamp);
+        }
+
+        bits.flush();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodePvPower() throws IOException {
+        return encodeValues(pvPower);
+    }
+
+    @Benchmark
+    public void decodePlain(Blackhole blackhole) {
+        ByteBuffer buffer = plain.duplicate();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(buffer.getLong());
+            blackhole.consume(buffer.getDouble());
+            blackhole.consume(buffer.getDouble());
+        }
+    }
+
+    @Benchmark
+    public void decodeGorilla(Blackhole blackhole) {
+        TimestampDecoder timestampDecoder = new TimestampDecoder(new BitInput(ByteBuffer.wrap(gorillaTimestamps)));
+        ValueDecoder batteryDecoder = new ValueDecoder(new BitInput(ByteBuffer.wrap(gorillaBatteryLevel)));
+        ValueDecoder pvDecoder = new ValueDecoder(new BitInput(ByteBuffer.wrap(gorillaPvPower)));
+
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(timestampDecoder.next());
+            blackhole.consume(batteryDecoder.next());
+            blackhole.consume(pvDecoder.next());
+        }
+    }
+
+    private static byte[] encodeValues(double[] values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BitOutput bits = new BitOutput(out);
+        ValueEncoder encoder = new ValueEncoder(bits);
+
+        for (double value : values) {
+            encoder.add(value);
+        }
+
+        bits.flush();
+        return out.toByteArray();
+    }
+}
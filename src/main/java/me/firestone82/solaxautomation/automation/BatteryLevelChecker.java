@@ -3,15 +3,21 @@ package me.firestone82.solaxautomation.automation;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.journal.*;
+import me.firestone82.solaxautomation.automation.policy.BatteryLevelPolicy;
+import me.firestone82.solaxautomation.automation.policy.ModeDecision;
 import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
 import me.firestone82.solaxautomation.service.solax.SolaxService;
 import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshotSampler;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.Optional;
@@ -21,31 +27,34 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "automation.battery", name = "enabled", havingValue = "true")
 public class BatteryLevelChecker {
+
+    public static final String CRON = "0 5 * * * *";
+
     private final SolaxService solaxService;
+    private final InverterSnapshotSampler snapshotSampler;
     private final BatteryAutomationProperties properties;
+    private final DecisionJournal journal;
+    private final Clock clock;
 
     @PostConstruct
     public void init() {
         log.info("BatteryLevelChecker initialized | Will check configured hours at :05.");
+        solaxService.prewarmBefore(CRON);
         logTimes();
     }
 
     /**
      * Run at minute :05 every hour; execute only if the current hour is configured.
      */
-    @Scheduled(cron = "0 5 * * * *")
+    @Scheduled(cron = CRON, zone = "${scheduling.zone:}")
     public void adjustModeFromConfig() {
-        int hour = LocalTime.now().getHour();
-        Integer base = properties.getTimes().get(hour);
+        Integer minLevel = BatteryLevelPolicy.minLevel(LocalDateTime.now(clock), properties);
 
         // Not configured for this hour
-        if (base == null) {
+        if (minLevel == null) {
             return;
         }
 
-        int weekendBonus = isWeekend() ? properties.getWeekIncrease() : 0;
-        int minLevel = Math.min(100, base + weekendBonus);
-
         log.info("==".repeat(40));
         log.info("Running scheduled battery level check");
         runCheck(minLevel);
@@ -58,62 +67,44 @@ public class BatteryLevelChecker {
      * @param minLevel minimum required battery level (%)
      */
     public void runCheck(int minLevel) {
-        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
-
-        Optional<Integer> batteryOpt = solaxService.getBatteryLevel();
-        if (batteryOpt.isEmpty()) {
-            log.warn("Battery level not available; aborting check.");
-            return;
-        }
+        LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS);
 
-        Optional<InverterMode> modeOpt = solaxService.getCurrentMode();
-        if (modeOpt.isEmpty()) {
-            log.warn("Current inverter mode not available; aborting check.");
+        Optional<InverterSnapshot> snapshotOpt = snapshotSampler.getSnapshot();
+        if (snapshotOpt.isEmpty()) {
+            log.warn("Inverter snapshot not available; aborting check.");
+            journal.record(CheckerType.BATTERY_LEVEL, DecisionInputs.NONE, DecisionAction.SKIPPED, "inverter snapshot unavailable");
             return;
         }
 
-        int batteryLevel = batteryOpt.get();
-        InverterMode currentMode = modeOpt.get();
+        DecisionInputs inputs = DecisionInputs.of(snapshotOpt.get());
+        int batteryLevel = snapshotOpt.get().batteryLevel();
+        InverterMode currentMode = snapshotOpt.get().mode();
 
         log.info("- Check at {}:", now);
         log.info("- Current battery level: {}% (required: {}%)", batteryLevel, minLevel);
         log.info("- Current inverter mode: {}", currentMode);
 
-        // Sufficient battery
-        if (batteryLevel >= minLevel) {
-            log.info("Battery level is sufficient; no action needed.");
-            return;
-        }
+        ModeDecision decision = BatteryLevelPolicy.decide(batteryLevel, currentMode, minLevel);
+        log.info("Decision {}: {}.", decision.action(), decision.reason());
 
-        // Only act in FEED_IN_PRIORITY/SELF_USE
-        if (currentMode != InverterMode.FEED_IN_PRIORITY && currentMode != InverterMode.SELF_USE) {
-            log.warn("Inverter mode is not FEED_IN_PRIORITY or SELF_USE; aborting check.");
+        if (decision.action() != DecisionAction.SET_MODE) {
+            journal.record(CheckerType.BATTERY_LEVEL, inputs, decision.action(), decision.reason());
             return;
         }
 
-        // Below threshold: switch to SELF_USE if needed
-        if (currentMode == InverterMode.FEED_IN_PRIORITY) {
-            log.info("Battery level is below {}%; switching to SELF_USE.", minLevel);
-
-            if (solaxService.changeMode(InverterMode.SELF_USE)) {
-                log.info(" - Inverter mode set to {} successfully.", InverterMode.SELF_USE);
-            } else {
-                log.error(" - Failed to set inverter mode to {}.", InverterMode.SELF_USE);
-            }
+        WriteOutcome outcome = solaxService.changeMode(decision.mode());
 
-            return;
+        switch (outcome) {
+            case WRITTEN -> log.info(" - Inverter mode set to {} successfully.", decision.mode());
+            case SKIPPED -> log.info(" - Inverter already in mode {}, write skipped.", decision.mode());
+            case FAILED -> log.error(" - Failed to set inverter mode to {}.", decision.mode());
         }
 
-        log.info("Battery level is below {}%, but inverter is already in SELF_USE; no action needed.", minLevel);
+        journal.record(CheckerType.BATTERY_LEVEL, inputs, DecisionAction.SET_MODE, decision.mode().ordinal(), WriteResult.of(outcome), decision.reason());
     }
 
     // ---- helpers ----
 
-    private static boolean isWeekend() {
-        int dow = LocalDateTime.now().getDayOfWeek().getValue(); // 1=Mon .. 7=Sun
-        return dow >= 6;
-    }
-
     private void logTimes() {
         for (Map.Entry<Integer, Integer> e : properties.getTimes().entrySet()) {
             log.info(" - Configured check at {}:05 -> {}% (weekend +{}%).", String.format("%02d", e.getKey()), e.getValue(), properties.getWeekIncrease());
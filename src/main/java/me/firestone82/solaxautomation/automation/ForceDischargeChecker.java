@@ -3,6 +3,10 @@ package me.firestone82.solaxautomation.automation;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.journal.*;
+import me.firestone82.solaxautomation.automation.policy.ForceDischargePolicy;
+import me.firestone82.solaxautomation.automation.policy.ForceDischargePolicy.ArmDecision;
+import me.firestone82.solaxautomation.automation.policy.ModeDecision;
 import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
 import me.firestone82.solaxautomation.service.ote.OTEService;
 import me.firestone82.solaxautomation.service.ote.model.PowerForecast;
@@ -10,6 +14,9 @@ import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
 import me.firestone82.solaxautomation.service.solax.SolaxService;
 import me.firestone82.solaxautomation.service.solax.model.InverterMode;
 import me.firestone82.solaxautomation.service.solax.model.ManualMode;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshotSampler;
 import me.firestone82.solaxautomation.util.StringUtils;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -18,14 +25,11 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ScheduledFuture;
 
@@ -35,12 +39,15 @@ import java.util.concurrent.ScheduledFuture;
 @ConditionalOnProperty(value = "automation.sell.enabled", havingValue = "true")
 public class ForceDischargeChecker {
 
+    public static final String GUARD_CRON = "0 */1 18-23 * * *";
+
     private final SolaxService solaxService;
+    private final InverterSnapshotSampler snapshotSampler;
     private final OTEService oteService;
     private final TaskScheduler taskScheduler;
     private final ForceDischargeProperties properties;
-
-    private final ZoneId zone = ZoneId.systemDefault();
+    private final DecisionJournal journal;
+    private final Clock clock;
 
     // scheduling state
     private volatile ScheduledFuture<?> pendingStart = null;
@@ -50,11 +57,13 @@ public class ForceDischargeChecker {
     @PostConstruct
     public void init() {
         log.info("ForceDischargeChecker initialized | Props={}", properties);
+        solaxService.prewarmBefore(properties.getArmCron());
+        solaxService.prewarmBefore(GUARD_CRON);
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void armForTodayIfBeforeWindow() {
-        LocalTime now = LocalTime.now(zone);
+        LocalTime now = LocalTime.now(clock);
 
         if (now.isAfter(LocalTime.of(properties.getWindow().getStartHour(), 0))) {
             log.info("Not arming for today: now={} is after window start {}:00", now.truncatedTo(ChronoUnit.MINUTES), properties.getWindow().getStartHour());
@@ -64,64 +73,45 @@ public class ForceDischargeChecker {
         armForToday();
     }
 
-    @Scheduled(cron = "${automation.sell.arm-cron:0 0 16 * * *}")
+    @Scheduled(cron = "${automation.sell.arm-cron:0 0 16 * * *}", zone = "${scheduling.zone:}")
     public synchronized void armForToday() {
         logSeparator("Evaluating prices for forced discharge...");
 
         Optional<PowerForecast> forecastOpt = oteService.getPrices();
         if (forecastOpt.isEmpty()) {
             log.warn("OTE forecast unavailable; aborting check.");
+            journal.record(CheckerType.FORCE_DISCHARGE, DecisionInputs.NONE, DecisionAction.SKIPPED, "OTE forecast unavailable");
             return;
         }
 
         List<PowerPriceHourly> window = forecastOpt.get().getHourlyBetween(properties.getWindow().getStartHour(), properties.getWindow().getEndHour());
-        if (window == null || window.isEmpty()) {
-            log.warn("No hourly prices in window {}–{}; aborting.", properties.getWindow().getStartHour(), properties.getWindow().getEndHour());
-            return;
-        }
-
-        PowerPriceHourly best = window.stream()
-                .filter(Objects::nonNull)
-                .max(Comparator.comparingDouble(PowerPriceHourly::getPriceCZK))
-                .orElse(null);
+        ArmDecision decision = ForceDischargePolicy.arm(window, LocalDateTime.now(clock), properties);
+        DecisionInputs inputs = Double.isNaN(decision.price()) ? DecisionInputs.NONE : DecisionInputs.NONE.withPrice(decision.price());
 
-        if (best == null) {
-            log.warn("No best hour found; aborting.");
+        if (decision.bestHour() < 0) {
+            log.warn("Not arming: {}.", decision.reason());
+            journal.record(CheckerType.FORCE_DISCHARGE, inputs, decision.action(), decision.reason());
             return;
         }
 
-        double bestPrice = toCzkPerKwh(best.getPriceCZK());
-        int bestHour = best.getHour();
+        log.info("Best hour {}:00 = {} CZK/kWh (min {} CZK/kWh).", decision.bestHour(), decision.price(), properties.getMinPrice());
 
-        if (bestPrice < properties.getMinPrice()) {
-            cancelPending("best price below threshold");
-            log.info("Not arming: best {}:00 = {} CZK/kWh < {} CZK/kWh", bestHour, bestPrice, properties.getMinPrice());
-            return;
-        }
-
-        LocalDateTime trigger = LocalDateTime.of(LocalDate.now(zone), LocalTime.of(bestHour, 0));
-        if (trigger.isBefore(LocalDateTime.now(zone))) {
-            log.info("Trigger {} already passed; skipping.", trigger);
-            return;
+        if (decision.action() == DecisionAction.DISARM) {
+            cancelPending(decision.reason());
         }
 
-        // check previous hour closeness
-        PowerPriceHourly prev = window.stream().filter(h -> h.getHour() == bestHour - 1).findFirst().orElse(null);
-        if (prev != null) {
-            double prevPrice = toCzkPerKwh(prev.getPriceCZK());
-
-            if (Math.abs(prevPrice - bestPrice) < properties.getPriceContinuityDelta()) {
-                trigger = trigger.minusMinutes(properties.getEarlyStartMinutes());
-                log.info("Prev hour {}:00 ({}) close to best; starting {}m earlier.", prev.getHour(), prevPrice, properties.getEarlyStartMinutes());
-            }
+        if (decision.action() == DecisionAction.ARM) {
+            scheduleTrigger(decision.trigger(), decision.bestHour(), decision.price());
+        } else {
+            log.info("Not arming: {}.", decision.reason());
         }
 
-        scheduleTrigger(trigger, bestHour, bestPrice);
+        journal.record(CheckerType.FORCE_DISCHARGE, inputs, decision.action(), decision.bestHour(), WriteResult.NOT_ATTEMPTED, decision.reason());
     }
 
     private synchronized void scheduleTrigger(LocalDateTime trigger, int bestHour, double bestPrice) {
         cancelPending("re-arm");
-        pendingStart = taskScheduler.schedule(this::startExportIfBatteryOk, trigger.atZone(zone).toInstant());
+        pendingStart = taskScheduler.schedule(this::startExportIfBatteryOk, trigger.atZone(clock.getZone()).toInstant());
         scheduledBestHour = bestHour;
         scheduledTrigger = trigger;
         log.info("Armed discharge at {} (best {}:00, {} CZK/kWh).", trigger, bestHour, bestPrice);
@@ -131,41 +121,37 @@ public class ForceDischargeChecker {
         logSeparator(StringUtils.parseArgs("Trigger fired at {} for best {}:00", scheduledTrigger, scheduledBestHour));
 
         try {
-            Optional<Integer> batteryOpt = solaxService.getBatteryLevel();
-            if (batteryOpt.isEmpty()) {
-                log.warn("Battery level not available; aborting check.");
-                return;
-            }
-
-            Optional<InverterMode> modeOpt = solaxService.getCurrentMode();
-            if (modeOpt.isEmpty()) {
-                log.warn("Current inverter mode not available; aborting check.");
+            Optional<InverterSnapshot> snapshotOpt = snapshotSampler.getSnapshot();
+            if (snapshotOpt.isEmpty()) {
+                log.warn("Inverter snapshot not available; aborting check.");
+                journal.record(CheckerType.FORCE_DISCHARGE, DecisionInputs.NONE, DecisionAction.SKIPPED, "inverter snapshot unavailable");
                 return;
             }
 
-            InverterMode inverterMode = modeOpt.get();
-            int batteryLevel = batteryOpt.get();
+            DecisionInputs inputs = DecisionInputs.of(snapshotOpt.get());
+            InverterMode inverterMode = snapshotOpt.get().mode();
+            int batteryLevel = snapshotOpt.get().batteryLevel();
 
             log.info(" - Current mode: {}", inverterMode);
             log.info(" - Current battery level: {}%", batteryLevel);
 
-            if (batteryLevel < properties.getMinBattery()) {
-                log.info("Battery bellow min level. ({}% < {}%); not discharging.", batteryLevel, properties.getMinBattery());
+            ModeDecision decision = ForceDischargePolicy.start(batteryLevel, inverterMode, properties);
+            if (decision.action() != DecisionAction.SET_MANUAL_MODE) {
+                log.info("Not discharging: {}.", decision.reason());
+                journal.record(CheckerType.FORCE_DISCHARGE, inputs, decision.action(), decision.reason());
                 return;
             }
 
-            if (modeOpt.get() != InverterMode.SELF_USE && modeOpt.get() != InverterMode.FEED_IN_PRIORITY) {
-                log.warn("Inverter not in SELF_USE or FORCE_CHARGE mode; aborting to avoid interference.");
-                return;
-            }
+            setModeSafe(decision.mode(), inputs, decision.reason());
 
-            setModeSafe(InverterMode.MANUAL);
-
-            if (solaxService.changeManualMode(ManualMode.FORCE_DISCHARGE)) {
-                log.info("FORCE_DISCHARGE enabled (best hour {}:00).", scheduledBestHour);
+            WriteOutcome outcome = solaxService.changeManualMode(ManualMode.FORCE_DISCHARGE);
+            if (outcome.isApplied()) {
+                log.info("FORCE_DISCHARGE enabled (best hour {}:00{}).", scheduledBestHour, outcome == WriteOutcome.SKIPPED ? ", already set" : "");
             } else {
                 log.error("Failed to set FORCE_DISCHARGE.");
             }
+
+            journal.record(CheckerType.FORCE_DISCHARGE, inputs, DecisionAction.SET_MANUAL_MODE, ManualMode.FORCE_DISCHARGE.ordinal(), WriteResult.of(outcome), decision.reason());
         } catch (Exception e) {
             log.error("Error during trigger: {}", e.getMessage(), e);
         } finally {
@@ -173,45 +159,40 @@ public class ForceDischargeChecker {
         }
     }
 
-    @Scheduled(cron = "0 */1 18-23 * * *")
+    @Scheduled(cron = GUARD_CRON, zone = "${scheduling.zone:}")
     public void batteryGuard() {
         logSeparator(StringUtils.parseArgs("Battery guard: ensuring level stays above {}%.", properties.getTargetBattery()));
 
-        Optional<Integer> batteryOpt = solaxService.getBatteryLevel();
-        if (batteryOpt.isEmpty()) {
-            log.warn("Battery level not available; aborting check.");
-            return;
-        }
-
-        Optional<InverterMode> modeOpt = solaxService.getCurrentMode();
-        if (modeOpt.isEmpty()) {
-            log.warn("Current inverter mode not available; aborting check.");
+        Optional<InverterSnapshot> snapshotOpt = snapshotSampler.getSnapshot();
+        if (snapshotOpt.isEmpty()) {
+            log.warn("Inverter snapshot not available; aborting check.");
             return;
         }
 
-        InverterMode mode = modeOpt.get();
-        int battery = batteryOpt.get();
+        InverterMode mode = snapshotOpt.get().mode();
+        int battery = snapshotOpt.get().batteryLevel();
+        DecisionInputs inputs = DecisionInputs.of(snapshotOpt.get());
 
         log.info(" - Current mode: {}", mode);
         log.info(" - Current battery level: {}%", battery);
 
-        if (mode == InverterMode.MANUAL) {
-            if (battery < properties.getTargetBattery()) {
-                log.info("Battery low, switching to SELF_USE.");
-                setModeSafe(InverterMode.SELF_USE);
-                return;
-            }
+        Optional<ModeDecision> decisionOpt = ForceDischargePolicy.guard(battery, mode, properties);
+        if (decisionOpt.isEmpty()) {
+            return;
+        }
+
+        ModeDecision decision = decisionOpt.get();
+        log.info("Decision {}: {}.", decision.action(), decision.reason());
 
-            log.info("In MANUAL mode, but battery ok; no action.");
+        if (decision.action() == DecisionAction.SET_MODE) {
+            setModeSafe(decision.mode(), inputs, decision.reason());
+        } else {
+            journal.record(CheckerType.FORCE_DISCHARGE, inputs, decision.action(), decision.reason());
         }
     }
 
     // ---- helpers ----
 
-    private double toCzkPerKwh(double priceCzkPerMwh) {
-        return priceCzkPerMwh / 1000.0;
-    }
-
     private synchronized void cancelPending(String reason) {
         if (pendingStart != null && !pendingStart.isDone()) {
             pendingStart.cancel(false);
@@ -226,12 +207,16 @@ public class ForceDischargeChecker {
         scheduledTrigger = null;
     }
 
-    private void setModeSafe(InverterMode mode) {
-        if (solaxService.changeMode(mode)) {
-            log.info(" - Mode {} set successfully.", mode);
-        } else {
-            log.error(" - Failed to set mode {}.", mode);
+    private void setModeSafe(InverterMode mode, DecisionInputs inputs, String reason) {
+        WriteOutcome outcome = solaxService.changeMode(mode);
+
+        switch (outcome) {
+            case WRITTEN -> log.info(" - Mode {} set successfully.", mode);
+            case SKIPPED -> log.info(" - Mode {} already set, write skipped.", mode);
+            case FAILED -> log.error(" - Failed to set mode {}.", mode);
         }
+
+        journal.record(CheckerType.FORCE_DISCHARGE, inputs, DecisionAction.SET_MODE, mode.ordinal(), WriteResult.of(outcome), reason);
     }
 
     private static void logSeparator(String title) {
@@ -4,6 +4,9 @@ import com.pi4j.io.gpio.digital.DigitalState;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.journal.*;
+import me.firestone82.solaxautomation.automation.policy.NegativeExportPolicy;
+import me.firestone82.solaxautomation.automation.policy.NegativeExportPolicy.ExportDecision;
 import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
 import me.firestone82.solaxautomation.service.meteosource.MeteoSourceService;
 import me.firestone82.solaxautomation.service.meteosource.model.MeteoDayHourly;
@@ -12,10 +15,14 @@ import me.firestone82.solaxautomation.service.ote.OTEService;
 import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
 import me.firestone82.solaxautomation.service.raspberry.RaspberryPiService;
 import me.firestone82.solaxautomation.service.solax.SolaxService;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshotSampler;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -26,15 +33,22 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @ConditionalOnProperty(value = "automation.export.enabled")
 public class NegativeExportChecker {
+
+    public static final String CRON = "0 4 4-20 * * *";
+
     private final SolaxService solaxService;
+    private final InverterSnapshotSampler snapshotSampler;
     private final OTEService oteService;
     private final RaspberryPiService raspberryPiService;
     private final MeteoSourceService meteoSourceService;
     private final NegativeExportProperties properties;
+    private final DecisionJournal journal;
+    private final Clock clock;
 
     @PostConstruct
     private void init() {
         log.info("NegativeExportChecker initialized | props={}", properties);
+        solaxService.prewarmBefore(CRON);
 
         raspberryPiService.getConnectionSwitch().addListener(event -> {
             logSeparator("GPIO switch event");
@@ -48,7 +62,7 @@ public class NegativeExportChecker {
             }
 
             raspberryPiService.setPreviousConnectionSwitchState(newState);
-            int hour = LocalDateTime.now().getHour();
+            int hour = LocalDateTime.now(clock).getHour();
 
             if (hour < 4 || hour > 20) {
                 log.warn("Night-time (outside 04–20h); ignoring event.");
@@ -62,7 +76,7 @@ public class NegativeExportChecker {
     /**
      * Runs hourly at HH:04 between 04:00 and 20:59.
      */
-    @Scheduled(cron = "0 4 4-20 * * *")
+    @Scheduled(cron = CRON, zone = "${scheduling.zone:}")
     public void adjustExportLimitBasedOnPrice() {
         logSeparator("Periodic negative export check");
         runCheck();
@@ -73,7 +87,7 @@ public class NegativeExportChecker {
      * If LOW between 12:00 and 15:00 and weather quality is low, apply reduced export limit.
      */
     private void runCheck() {
-        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS);
         int currentHour = now.getHour();
 
         LocalDateTime start = now.minusHours(1);
@@ -82,38 +96,47 @@ public class NegativeExportChecker {
         Optional<PowerPriceHourly> optPrice = oteService.getCurrentHourPrices();
         if (optPrice.isEmpty()) {
             log.warn("OTE price unavailable; aborting.");
+            journal.record(CheckerType.NEGATIVE_EXPORT, DecisionInputs.NONE, DecisionAction.SKIPPED, "OTE price unavailable");
             return;
         }
 
-        Optional<Integer> optLimit = solaxService.getCurrentExportLimit();
-        if (optLimit.isEmpty()) {
-            log.warn("Current export limit unavailable; aborting.");
+        DecisionInputs inputs = DecisionInputs.NONE.withPrice(optPrice.get().getPriceCZK() / 1000.0);
+
+        Optional<InverterSnapshot> snapshotOpt = snapshotSampler.getSnapshot();
+        if (snapshotOpt.isEmpty()) {
+            log.warn("Inverter snapshot unavailable; aborting.");
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.SKIPPED, "inverter snapshot unavailable");
             return;
         }
 
+        inputs = DecisionInputs.of(snapshotOpt.get()).withPrice(inputs.price());
+
         Optional<WeatherForecast> forecastOpt = meteoSourceService.getCurrentWeather();
         if (forecastOpt.isEmpty()) {
             log.warn("Weather forecast unavailable; aborting.");
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.SKIPPED, "weather forecast unavailable");
             return;
         }
 
         WeatherForecast forecast = forecastOpt.get();
         if (forecast.getHourly().isEmpty()) {
             log.warn("Weather forecast has no hourly data; aborting.");
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.SKIPPED, "weather forecast has no hourly data");
             return;
         }
 
         List<MeteoDayHourly> hours = forecast.getHourlyBetween(start, end);
         if (hours == null || hours.isEmpty()) {
             log.info("- No forecast hours in window {}–{}; aborting check.", start, end);
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.SKIPPED, "no forecast hours in window");
             return;
         }
 
         DigitalState connectionState = raspberryPiService.getConnectionSwitch().state();
-        boolean isOverrideWindow = connectionState.isLow() && currentHour >= properties.getReducedWindow().getStartHour() && currentHour <= properties.getReducedWindow().getEndHour();
         double currentPriceCZKPerKWh = optPrice.get().getPriceCZK() / 1000.0;
-        int currentExportLimitW = optLimit.get();
+        int currentExportLimitW = snapshotOpt.get().exportLimit();
         double avgQuality = MeteoDayHourly.avgQuality(hours);
+        inputs = inputs.withAvgQuality(avgQuality).withSwitchHigh(connectionState.isHigh());
 
         log.info("- Window: {}–{} ({}–{}h)", start, end, start.getHour(), end.getHour());
         hours.forEach(h -> log.info("  | {}", h));
@@ -122,39 +145,25 @@ public class NegativeExportChecker {
         log.info(" - Current export limit: {} W", currentExportLimitW);
         log.info(" - Avg weather quality (next ~hour): {}", avgQuality);
 
-        int newExportLimitW;
-
-        if (currentPriceCZKPerKWh < properties.getMinPrice()) {
-            if (connectionState.isHigh()) {
-                // Price low & grid connected -> disable export
-                newExportLimitW = properties.getPower().getMin();
-                log.info("Price below threshold AND state HIGH -> disabling export.");
-            } else {
-                // Price low & grid disconnected -> enable export
-                newExportLimitW = properties.getPower().getMax();
-                log.info("Price below threshold AND state LOW -> enabling export.");
-            }
-        } else {
-            // Price sufficient -> enable export
-            newExportLimitW = properties.getPower().getMax();
-            log.info("Price at/above threshold -> enabling export.");
-        }
-
-        // Optional override reduction (hours + enabling export + low quality)
-        if (isOverrideWindow && newExportLimitW > properties.getPower().getMin() && avgQuality <= 3.0) {
-            log.info("Override hours (12–15, LOW) & quality {} -> reducing export to {} W.", avgQuality, properties.getPower().getReduced());
-            newExportLimitW = properties.getPower().getReduced();
-        }
+        ExportDecision decision = NegativeExportPolicy.decide(currentPriceCZKPerKWh, connectionState.isHigh(), currentHour, avgQuality, properties);
+        int newExportLimitW = decision.exportLimit();
+        String reason = decision.reason();
+        log.info("Decided export limit {} W: {}.", newExportLimitW, reason);
 
         // Apply new limit if changed
         if (currentExportLimitW != newExportLimitW) {
-            if (solaxService.setExportLimit(newExportLimitW)) {
-                log.info(" - Export limit set to {} W successfully.", newExportLimitW);
-            } else {
-                log.error(" - Failed to set export limit to {} W.", newExportLimitW);
+            WriteOutcome outcome = solaxService.setExportLimit(newExportLimitW);
+
+            switch (outcome) {
+                case WRITTEN -> log.info(" - Export limit set to {} W successfully.", newExportLimitW);
+                case SKIPPED -> log.info(" - Export limit already {} W, write skipped.", newExportLimitW);
+                case FAILED -> log.error(" - Failed to set export limit to {} W.", newExportLimitW);
             }
+
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.SET_EXPORT_LIMIT, newExportLimitW, WriteResult.of(outcome), reason);
         } else {
             log.info("No change required; export limit already {} W.", currentExportLimitW);
+            journal.record(CheckerType.NEGATIVE_EXPORT, inputs, DecisionAction.NO_CHANGE, newExportLimitW, WriteResult.NOT_ATTEMPTED, reason);
         }
     }
 
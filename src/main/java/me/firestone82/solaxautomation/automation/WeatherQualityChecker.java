@@ -3,16 +3,24 @@ package me.firestone82.solaxautomation.automation;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.journal.*;
+import me.firestone82.solaxautomation.automation.policy.ModeDecision;
+import me.firestone82.solaxautomation.automation.policy.WeatherQualityPolicy;
+import me.firestone82.solaxautomation.automation.policy.WeatherQualityPolicy.CheckWindow;
 import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
 import me.firestone82.solaxautomation.service.meteosource.MeteoSourceService;
 import me.firestone82.solaxautomation.service.meteosource.model.MeteoDayHourly;
 import me.firestone82.solaxautomation.service.meteosource.model.WeatherForecast;
 import me.firestone82.solaxautomation.service.solax.SolaxService;
 import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshotSampler;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,9 +32,15 @@ import java.util.function.Consumer;
 @RequiredArgsConstructor
 @ConditionalOnProperty(value = "automation.weather.enabled")
 public class WeatherQualityChecker {
+
+    public static final String CRON = "0 2 * * * *";
+
     private final SolaxService solaxService;
+    private final InverterSnapshotSampler snapshotSampler;
     private final MeteoSourceService meteoSourceService;
     private final WeatherQualityProperties properties;
+    private final DecisionJournal journal;
+    private final Clock clock;
 
     // Tracks if BACKUP was set by this component (vs. manual)
     private final AtomicBoolean systemChangedToBackup = new AtomicBoolean(false);
@@ -34,26 +48,15 @@ public class WeatherQualityChecker {
     @PostConstruct
     public void init() {
         log.info("WeatherQualityChecker initialized | props={}", properties);
+        solaxService.prewarmBefore(CRON);
     }
 
-    @Scheduled(cron = "0 2 * * * *")
+    @Scheduled(cron = CRON, zone = "${scheduling.zone:}")
     public void adjustModeBasedOnWeather() {
-        final LocalDateTime now = LocalDateTime.now();
-
-        if (now.getHour() == 7) {
-            logSeparator("Morning weather forecast check");
-            runCheck(now.withHour(9), now.withHour(14), properties.getThreshold().getCloudy(), 10, weatherCheck());
-            return;
-        }
-
-        if (now.getHour() == 11) {
-            logSeparator("Noon weather forecast check");
-            runCheck(now.withHour(12), now.withHour(16), properties.getThreshold().getCloudy() - 0.5, 50, weatherCheck());
-            return;
-        }
+        CheckWindow window = WeatherQualityPolicy.window(LocalDateTime.now(clock), properties);
 
-        logSeparator("Outage/thunderstorm forecast check");
-        runCheck(now, now.plusHours(properties.getThunderstormHourWindow()), properties.getThreshold().getThunderstorm(), 0, outageCheck());
+        logSeparator(window.title());
+        runCheck(window.start(), window.end(), window.minQuality(), window.minBattery(), window.outage() ? outageCheck() : weatherCheck());
     }
 
     /**
@@ -69,35 +72,39 @@ public class WeatherQualityChecker {
         Optional<WeatherForecast> forecastOpt = meteoSourceService.getCurrentWeather();
         if (forecastOpt.isEmpty()) {
             log.warn("Weather forecast not available; aborting check.");
+            journal.record(CheckerType.WEATHER_QUALITY, DecisionInputs.NONE, DecisionAction.SKIPPED, "weather forecast unavailable");
             return;
         }
 
-        Optional<Integer> batteryOpt = solaxService.getBatteryLevel();
-        if (batteryOpt.isEmpty()) {
-            log.warn("Battery level not available; aborting check.");
+        Optional<InverterSnapshot> snapshotOpt = snapshotSampler.getSnapshot();
+        if (snapshotOpt.isEmpty()) {
+            log.warn("Inverter snapshot not available; aborting check.");
+            journal.record(CheckerType.WEATHER_QUALITY, DecisionInputs.NONE, DecisionAction.SKIPPED, "inverter snapshot unavailable");
             return;
         }
 
-        Optional<InverterMode> modeOpt = solaxService.getCurrentMode();
-        if (modeOpt.isEmpty()) {
-            log.warn("Current inverter mode not available; aborting check.");
-            return;
-        }
+        runCheck(forecastOpt.get(), snapshotOpt.get(), start, end, minQuality, minBattery, decision);
+    }
 
-        WeatherForecast forecast = forecastOpt.get();
+    /**
+     * Runs the check on an already fetched forecast and snapshot.
+     */
+    private void runCheck(WeatherForecast forecast, InverterSnapshot snapshot, LocalDateTime start, LocalDateTime end, double minQuality, int minBattery, Consumer<Ctx> decision) {
         if (forecast.getHourly().isEmpty()) {
             log.warn("Weather forecast has no hourly data; aborting check.");
+            journal.record(CheckerType.WEATHER_QUALITY, DecisionInputs.of(snapshot), DecisionAction.SKIPPED, "weather forecast has no hourly data");
             return;
         }
 
         List<MeteoDayHourly> hours = forecast.getHourlyBetween(start, end);
         if (hours == null || hours.isEmpty()) {
             log.info("- No forecast hours in window {}–{}; aborting check.", start, end);
+            journal.record(CheckerType.WEATHER_QUALITY, DecisionInputs.of(snapshot), DecisionAction.SKIPPED, "no forecast hours in window");
             return;
         }
 
-        InverterMode currentMode = modeOpt.get();
-        int batteryLevel = batteryOpt.get();
+        InverterMode currentMode = snapshot.mode();
+        int batteryLevel = snapshot.batteryLevel();
         double avgQuality = MeteoDayHourly.avgQuality(hours);
 
         log.info("- Window: {}–{} ({}–{}h)", start, end, start.getHour(), end.getHour());
@@ -106,7 +113,7 @@ public class WeatherQualityChecker {
         log.info("- Battery: {}% (min for FEED_IN_PRIORITY: {}%)", batteryLevel, minBattery);
         log.info("- Current inverter mode: {}", currentMode);
 
-        Ctx ctx = new Ctx(currentMode, hours, avgQuality, minQuality, batteryLevel, minBattery);
+        Ctx ctx = new Ctx(forecast, snapshot, currentMode, hours, avgQuality, minQuality, batteryLevel, minBattery);
         decision.accept(ctx);
     }
 
@@ -115,41 +122,16 @@ public class WeatherQualityChecker {
      */
     private Consumer<Ctx> weatherCheck() {
         return ctx -> {
-            InverterMode mode = ctx.mode();
-
             // If severe weather, immediately branch to outage check for the near-term window
-            if (ctx.avgQuality() >= properties.getThreshold().getThunderstorm()) {
+            if (WeatherQualityPolicy.isThunderstorm(ctx.avgQuality(), properties)) {
                 log.debug("Thunderstorm-quality detected in weather check; delegating to outage check.");
-                LocalDateTime now = LocalDateTime.now();
-                runCheck(now, now.plusHours(properties.getThunderstormHourWindow()), properties.getThreshold().getThunderstorm(), ctx.minBattery(), outageCheck());
-                return;
-            }
-
-            if (mode != InverterMode.FEED_IN_PRIORITY && mode != InverterMode.SELF_USE) {
-                log.warn("Unsupported mode for weather check: {}; no action.", mode);
+                CheckWindow window = WeatherQualityPolicy.outageWindow(LocalDateTime.now(clock), ctx.minBattery(), properties);
+                // Same forecast and snapshot, without fetching them again
+                runCheck(ctx.forecast(), ctx.snapshot(), window.start(), window.end(), window.minQuality(), window.minBattery(), outageCheck());
                 return;
             }
 
-            // Cloudy (quality above min) -> prefer SELF_USE
-            if (ctx.avgQuality() > ctx.minQuality() && mode == InverterMode.FEED_IN_PRIORITY) {
-                log.info("Cloudy conditions detected -> switching to SELF_USE.");
-                setModeSafe(InverterMode.SELF_USE);
-                return;
-            }
-
-            // Sunny (quality below/equal min) -> prefer FEED_IN_PRIORITY if battery is healthy
-            if (ctx.avgQuality() <= ctx.minQuality() && mode == InverterMode.SELF_USE) {
-                if (ctx.currentBattery() >= ctx.minBattery()) {
-                    log.info("Sunny & battery >= {}% -> switching to FEED_IN_PRIORITY.", ctx.minBattery());
-                    setModeSafe(InverterMode.FEED_IN_PRIORITY);
-                } else {
-                    log.info("Sunny but battery {}% < {}% -> staying in SELF_USE.", ctx.currentBattery(), ctx.minBattery());
-                }
-
-                return;
-            }
-
-            log.info("No change needed.");
+            apply(WeatherQualityPolicy.weather(ctx.mode(), ctx.avgQuality(), ctx.minQuality(), ctx.currentBattery(), ctx.minBattery()), ctx);
         };
     }
 
@@ -158,56 +140,45 @@ public class WeatherQualityChecker {
      */
     private Consumer<Ctx> outageCheck() {
         return ctx -> {
-            InverterMode mode = ctx.mode();
+            double firstHourQ = ctx.hours().getFirst().getQuality();
+            ModeDecision decision = WeatherQualityPolicy.outage(ctx.mode(), ctx.avgQuality(), ctx.minQuality(), firstHourQ, systemChangedToBackup.get(), properties);
 
-            // If user manually switched to BACKUP while our flag is false, respect it and stop.
-            if (!systemChangedToBackup.get() && mode == InverterMode.BACKUP) {
-                log.warn("Detected BACKUP mode set manually; skipping automation this cycle.");
-                return;
-            }
-
-            // Thunderstorm likely -> go BACKUP
-            if (ctx.avgQuality() > ctx.minQuality() && mode != InverterMode.BACKUP) {
-                log.info("Thunderstorm-quality detected -> switching to BACKUP.");
-
-                if (setModeSafe(InverterMode.BACKUP)) {
-                    systemChangedToBackup.set(true);
-                }
-
-                return;
+            if (apply(decision, ctx)) {
+                // Remember whether BACKUP was set by this component
+                systemChangedToBackup.set(decision.mode() == InverterMode.BACKUP);
             }
+        };
+    }
 
-            // Thunderstorm ended -> leave BACKUP
-            if (ctx.avgQuality() <= ctx.minQuality() && mode == InverterMode.BACKUP) {
-                // Small hysteresis to avoid flapping if the *first* hour is still high
-                double firstHourQ = ctx.hours().getFirst().getQuality();
+    // ---- helpers ----
 
-                if (firstHourQ > (properties.getThreshold().getThunderstorm() - 1.5)) {
-                    log.info("Quality trending down but still elevated ({}). Waiting for next hour.", firstHourQ);
-                    return;
-                }
+    /**
+     * Log and journal the decision, writing the mode if it is a switch.
+     *
+     * @return true if the inverter holds the new mode, written now or already before
+     */
+    private boolean apply(ModeDecision decision, Ctx ctx) {
+        log.info("Decision {}: {}.", decision.action(), decision.reason());
 
-                log.info("No thunderstorm detected -> switching to SELF_USE.");
-                if (setModeSafe(InverterMode.SELF_USE)) {
-                    systemChangedToBackup.set(false);
-                }
-                return;
-            }
+        if (decision.action() != DecisionAction.SET_MODE) {
+            journal.record(CheckerType.WEATHER_QUALITY, ctx.inputs(), decision.action(), decision.reason());
+            return false;
+        }
 
-            log.info("No change needed.");
-        };
+        return setModeSafe(decision.mode(), ctx, decision.reason());
     }
 
-    // ---- helpers ----
+    private boolean setModeSafe(InverterMode mode, Ctx ctx, String reason) {
+        WriteOutcome outcome = solaxService.changeMode(mode);
 
-    private boolean setModeSafe(InverterMode mode) {
-        if (solaxService.changeMode(mode)) {
-            log.info(" - Inverter mode set to {} successfully.", mode);
-            return true;
-        } else {
-            log.error(" - Failed to set inverter mode to {}.", mode);
-            return false;
+        switch (outcome) {
+            case WRITTEN -> log.info(" - Inverter mode set to {} successfully.", mode);
+            case SKIPPED -> log.info(" - Inverter already in mode {}, write skipped.", mode);
+            case FAILED -> log.error(" - Failed to set inverter mode to {}.", mode);
         }
+
+        journal.record(CheckerType.WEATHER_QUALITY, ctx.inputs(), DecisionAction.SET_MODE, mode.ordinal(), WriteResult.of(outcome), reason);
+        return outcome.isApplied();
     }
 
     private static void logSeparator(String title) {
@@ -219,6 +190,8 @@ public class WeatherQualityChecker {
      * Immutable context passed to decision functions.
      */
     public record Ctx(
+            WeatherForecast forecast,
+            InverterSnapshot snapshot,
             InverterMode mode,
             List<MeteoDayHourly> hours,
             double avgQuality,
@@ -226,5 +199,8 @@ public class WeatherQualityChecker {
             int currentBattery,
             int minBattery
     ) {
+        DecisionInputs inputs() {
+            return new DecisionInputs(Double.NaN, currentBattery, mode, avgQuality, null, -1);
+        }
     }
 }
@@ -0,0 +1,11 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+/**
+ * Automation checker that made a decision. New values must be appended, the ordinal is stored in the journal.
+ */
+public enum CheckerType {
+    NEGATIVE_EXPORT,
+    WEATHER_QUALITY,
+    BATTERY_LEVEL,
+    FORCE_DISCHARGE
+}
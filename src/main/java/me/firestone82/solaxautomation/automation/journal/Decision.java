@@ -0,0 +1,20 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import java.time.Instant;
+
+/**
+ * One journaled checker decision.
+ *
+ * @param target value the action applied, see {@link DecisionAction}; -1 when the action has none
+ * @param reason short human-readable explanation
+ */
+public record Decision(
+        Instant timestamp,
+        CheckerType checker,
+        DecisionInputs inputs,
+        DecisionAction action,
+        int target,
+        WriteResult result,
+        String reason
+) {
+}
@@ -0,0 +1,29 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+/**
+ * Action chosen by a checker. New values must be appended, the ordinal is stored in the journal.
+ */
+public enum DecisionAction {
+    /**
+     * Inputs were unavailable or out of scope, nothing was evaluated.
+     */
+    SKIPPED,
+    NO_CHANGE,
+    /**
+     * Target is the {@link me.firestone82.solaxautomation.service.solax.model.InverterMode} ordinal.
+     */
+    SET_MODE,
+    /**
+     * Target is the {@link me.firestone82.solaxautomation.service.solax.model.ManualMode} ordinal.
+     */
+    SET_MANUAL_MODE,
+    /**
+     * Target is the export limit in W.
+     */
+    SET_EXPORT_LIMIT,
+    /**
+     * Target is the hour a forced discharge was scheduled for.
+     */
+    ARM,
+    DISARM
+}
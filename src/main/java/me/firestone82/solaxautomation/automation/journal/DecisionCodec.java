@@ -0,0 +1,128 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of a {@link Decision}: a length prefix, the fixed-width fields, the UTF-8 reason and a CRC32C
+ * of everything after the prefix. A record failing the length or checksum test marks the torn end of the journal.
+ */
+final class DecisionCodec {
+    static final int MAX_REASON = 255;
+
+    // timestamp, checker, action, result, mode, switch, battery, target, export limit, price, quality, reason length
+    private static final int FIXED = Long.BYTES + 5 + Short.BYTES + Integer.BYTES * 2 + Double.BYTES * 2 + 1;
+    static final int MAX_RECORD = Integer.BYTES + FIXED + MAX_REASON + Integer.BYTES;
+
+    private static final InverterMode[] MODES = InverterMode.values();
+    private static final CheckerType[] CHECKERS = CheckerType.values();
+    private static final DecisionAction[] ACTIONS = DecisionAction.values();
+    private static final WriteResult[] RESULTS = WriteResult.values();
+
+    private DecisionCodec() {
+    }
+
+    static void encode(Decision decision, ByteBuffer out) {
+        DecisionInputs inputs = decision.inputs();
+        byte[] reason = truncate(decision.reason());
+
+        int start = out.position();
+        out.putInt(FIXED + reason.length)
+                .putLong(decision.timestamp().toEpochMilli())
+                .put((byte) decision.checker().ordinal())
+                .put((byte) decision.action().ordinal())
+                .put((byte) decision.result().ordinal())
+                .put((byte) (inputs.mode() == null ? -1 : inputs.mode().ordinal()))
+                .put((byte) (inputs.switchHigh() == null ? -1 : inputs.switchHigh() ? 1 : 0))
+                .putShort((short) inputs.batteryLevel())
+                .putInt(decision.target())
+                .putInt(inputs.exportLimit())
+                .putDouble(inputs.price())
+                .putDouble(inputs.avgQuality())
+                .put((byte) reason.length)
+                .put(reason);
+
+        CRC32C crc = new CRC32C();
+        crc.update(out.duplicate().position(start + Integer.BYTES).limit(out.position()));
+        out.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Decode the record at the buffer position and advance past it.
+     *
+     * @return null when the buffer does not hold a complete, intact record
+     */
+    static Decision decode(ByteBuffer in) {
+        if (in.remaining() < Integer.BYTES) {
+            return null;
+        }
+
+        int start = in.position();
+        int length = in.getInt(start);
+
+        if (length < FIXED || length > FIXED + MAX_REASON || in.remaining() < Integer.BYTES + length + Integer.BYTES) {
+            return null;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().position(start + Integer.BYTES).limit(start + Integer.BYTES + length));
+        if ((int) crc.getValue() != in.getInt(start + Integer.BYTES + length)) {
+            return null;
+        }
+
+        in.position(start + Integer.BYTES);
+        Instant timestamp = Instant.ofEpochMilli(in.getLong());
+        int checker = in.get();
+        int action = in.get();
+        int result = in.get();
+        int mode = in.get();
+        int switchState = in.get();
+        int battery = in.getShort();
+        int target = in.getInt();
+        int exportLimit = in.getInt();
+        double price = in.getDouble();
+        double avgQuality = in.getDouble();
+        byte[] reason = new byte[in.get() & 0xFF];
+        in.get(reason);
+        in.getInt();
+
+        DecisionInputs inputs = new DecisionInputs(
+                price,
+                battery,
+                mode >= 0 && mode < MODES.length ? MODES[mode] : null,
+                avgQuality,
+                switchState < 0 ? null : switchState == 1,
+                exportLimit
+        );
+
+        return new Decision(
+                timestamp,
+                CHECKERS[checker],
+                inputs,
+                ACTIONS[action],
+                target,
+                RESULTS[result],
+                new String(reason, StandardCharsets.UTF_8)
+        );
+    }
+
+    private static byte[] truncate(String reason) {
+        byte[] bytes = reason == null ? new byte[0] : reason.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_REASON) {
+            return bytes;
+        }
+
+        // Cut on a character boundary
+        int end = MAX_REASON;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+
+        return Arrays.copyOf(bytes, end);
+    }
+}
@@ -0,0 +1,40 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+
+/**
+ * Inputs a checker based its decision on. Inputs the checker did not have or does not use are NaN, -1 or null.
+ *
+ * @param price        current or best electricity price (CZK/kWh)
+ * @param batteryLevel battery state of charge (%)
+ * @param avgQuality   average weather quality of the forecast window
+ * @param switchHigh   state of the grid connection switch, HIGH meaning connected
+ * @param exportLimit  export limit in effect (W)
+ */
+public record DecisionInputs(
+        double price,
+        int batteryLevel,
+        InverterMode mode,
+        double avgQuality,
+        Boolean switchHigh,
+        int exportLimit
+) {
+    public static final DecisionInputs NONE = new DecisionInputs(Double.NaN, -1, null, Double.NaN, null, -1);
+
+    public static DecisionInputs of(InverterSnapshot snapshot) {
+        return new DecisionInputs(Double.NaN, snapshot.batteryLevel(), snapshot.mode(), Double.NaN, null, snapshot.exportLimit());
+    }
+
+    public DecisionInputs withPrice(double price) {
+        return new DecisionInputs(price, batteryLevel, mode, avgQuality, switchHigh, exportLimit);
+    }
+
+    public DecisionInputs withAvgQuality(double avgQuality) {
+        return new DecisionInputs(price, batteryLevel, mode, avgQuality, switchHigh, exportLimit);
+    }
+
+    public DecisionInputs withSwitchHigh(boolean switchHigh) {
+        return new DecisionInputs(price, batteryLevel, mode, avgQuality, switchHigh, exportLimit);
+    }
+}
@@ -0,0 +1,223 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary journal of every checker decision with the inputs it was based on.
+ * <p>
+ * Decisions are encoded into an in-memory batch and written with a single fsync once {@code automation.journal.batchSize}
+ * decisions are pending or every {@code automation.journal.syncInterval} ms. A full batch is handed to a writer thread
+ * and swapped for an empty one, so a checker never waits for the SD card. A failed write is rewound and the batch kept
+ * for the next sync; on startup a record torn by a crash is cut off. The file can be read offline with
+ * {@link DecisionJournalReader}.
+ */
+@Slf4j
+@Component
+public class DecisionJournal {
+
+    // Batches the buffer holds while a write is pending or being retried
+    private static final int BUFFERED_BATCHES = 4;
+
+    @Getter
+    private final Path file;
+    private final FileChannel channel;
+    private final int batchSize;
+    private final Clock clock;
+    private final ExecutorService writer;
+
+    // Guarded by this
+    private ByteBuffer batch;
+    private ByteBuffer spare;
+    private int pending;
+    private boolean syncQueued;
+
+    // Guarded by writeLock
+    private final Object writeLock = new Object();
+    private long end;
+    private boolean torn;
+
+    public DecisionJournal(
+            @Value("${automation.journal.path:data/journal/decisions.bin}") String path,
+            @Value("${automation.journal.batchSize:32}") int batchSize,
+            @Autowired Clock clock
+    ) throws IOException {
+        this.file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.batch = ByteBuffer.allocate(BUFFERED_BATCHES * batchSize * DecisionCodec.MAX_RECORD);
+        this.spare = ByteBuffer.allocate(batch.capacity());
+
+        long[] count = {0};
+        long valid = new DecisionJournalReader(file).forEach(decision -> count[0]++);
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            log.warn("Cutting {} bytes of a torn record off the decision journal", channel.size() - valid);
+            channel.truncate(valid);
+        }
+        this.end = valid;
+
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "DecisionJournal");
+            t.setDaemon(true);
+            return t;
+        });
+
+        log.info("Decision journal at {} ({} decisions)", file.toAbsolutePath(), count[0]);
+    }
+
+    public void record(CheckerType checker, DecisionInputs inputs, DecisionAction action, int target, WriteResult result, String reason) {
+        record(new Decision(clock.instant(), checker, inputs, action, target, result, reason));
+    }
+
+    /**
+     * Record a decision that did not touch the inverter.
+     */
+    public void record(CheckerType checker, DecisionInputs inputs, DecisionAction action, String reason) {
+        record(checker, inputs, action, -1, WriteResult.NOT_ATTEMPTED, reason);
+    }
+
+    public synchronized void record(Decision decision) {
+        if (batch.remaining() < DecisionCodec.MAX_RECORD) {
+            log.error("Decision journal is {} decisions behind, dropping decision of {}", pending, decision.checker());
+            return;
+        }
+
+        DecisionCodec.encode(decision, batch);
+        pending++;
+
+        if (pending >= batchSize && !syncQueued && !writer.isShutdown()) {
+            syncQueued = true;
+            writer.execute(this::sync);
+        }
+    }
+
+    /**
+     * Write and fsync the pending decisions.
+     */
+    @Scheduled(fixedDelayString = "${automation.journal.syncInterval:10000}")
+    public void sync() {
+        synchronized (writeLock) {
+            ByteBuffer writing;
+            int count;
+
+            synchronized (this) {
+                syncQueued = false;
+                if (pending == 0) {
+                    return;
+                }
+
+                writing = batch;
+                count = pending;
+                batch = spare;
+                spare = null;
+                pending = 0;
+            }
+
+            boolean written = write(writing, count);
+
+            synchronized (this) {
+                if (written) {
+                    writing.clear();
+                    spare = writing;
+                    return;
+                }
+
+                // Keep the failed decisions ahead of the ones recorded meanwhile
+                writing.position(writing.limit());
+                writing.limit(writing.capacity());
+                batch.flip();
+
+                if (batch.remaining() <= writing.remaining()) {
+                    writing.put(batch);
+                    pending += count;
+                } else {
+                    log.error("Decision journal buffer is full, dropping {} decisions", pending);
+                    pending = count;
+                }
+
+                batch.clear();
+                spare = batch;
+                batch = writing;
+            }
+        }
+    }
+
+    /**
+     * Write the batch at the end of the valid journal; on failure the end stays where it was, so the next write
+     * replaces whatever part of the batch reached the file.
+     */
+    private boolean write(ByteBuffer writing, int count) {
+        writing.flip();
+
+        try {
+            if (torn) {
+                channel.truncate(end);
+                torn = false;
+            }
+
+            long position = end;
+            while (writing.hasRemaining()) {
+                position += channel.write(writing, position);
+            }
+
+            channel.force(false);
+            end = position;
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to write {} decisions to the journal, keeping them for the next sync: {}", count, e.getMessage());
+            torn = true;
+            writing.rewind();
+            return false;
+        }
+    }
+
+    /**
+     * Decisions with {@code from <= timestamp < to}, optionally of a single checker, including pending ones.
+     */
+    public List<Decision> query(Instant from, Instant to, CheckerType checker) throws IOException {
+        sync();
+        return new DecisionJournalReader(file).query(from, to, checker);
+    }
+
+    /**
+     * Replay every journaled decision in order, including pending ones.
+     */
+    public void replay(Consumer<Decision> visitor) throws IOException {
+        sync();
+        new DecisionJournalReader(file).forEach(visitor);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.shutdown();
+        sync();
+
+        synchronized (writeLock) {
+            channel.close();
+        }
+    }
+}
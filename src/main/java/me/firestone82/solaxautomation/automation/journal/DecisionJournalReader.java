@@ -0,0 +1,77 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sequential reader of a decision journal file, usable without the application context (e.g. offline analysis
+ * or replaying recorded decisions against changed checker logic).
+ */
+public class DecisionJournalReader {
+
+    private final Path file;
+
+    public DecisionJournalReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Visit every intact decision in journal order, stopping at a torn tail.
+     *
+     * @return file position after the last intact record
+     */
+    public long forEach(Consumer<Decision> visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                buffer.clear();
+                channel.read(buffer, position);
+                buffer.flip();
+
+                Decision decision;
+                while ((decision = DecisionCodec.decode(buffer)) != null) {
+                    visitor.accept(decision);
+                }
+
+                // A whole record always fits the buffer, so nothing decoded means a torn or corrupt record
+                if (buffer.position() == 0) {
+                    break;
+                }
+
+                position += buffer.position();
+            }
+
+            return position;
+        }
+    }
+
+    /**
+     * Decisions with {@code from <= timestamp < to}, optionally of a single checker.
+     */
+    public List<Decision> query(Instant from, Instant to, CheckerType checker) throws IOException {
+        List<Decision> decisions = new ArrayList<>();
+
+        forEach(decision -> {
+            if (!decision.timestamp().isBefore(from) && decision.timestamp().isBefore(to) && (checker == null || decision.checker() == checker)) {
+                decisions.add(decision);
+            }
+        });
+
+        return decisions;
+    }
+}
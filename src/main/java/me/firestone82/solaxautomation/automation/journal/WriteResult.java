@@ -0,0 +1,22 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+
+/**
+ * Outcome of the inverter write of a decision. New values must be appended, the ordinal is stored in the journal.
+ */
+public enum WriteResult {
+    NOT_ATTEMPTED,
+    SUCCESS,
+    FAILURE,
+    // Not sent, the inverter already held the value
+    SKIPPED;
+
+    public static WriteResult of(WriteOutcome outcome) {
+        return switch (outcome) {
+            case WRITTEN -> SUCCESS;
+            case SKIPPED -> SKIPPED;
+            case FAILED -> FAILURE;
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package me.firestone82.solaxautomation.automation.policy;
+
+import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mode decision of the {@link me.firestone82.solaxautomation.automation.BatteryLevelChecker}, free of any I/O so
+ * it can be replayed by the backtest.
+ */
+public class BatteryLevelPolicy {
+
+    /**
+     * Minimum battery level required at the hour of {@code now}, or null if the hour is not configured.
+     */
+    public static Integer minLevel(LocalDateTime now, BatteryAutomationProperties properties) {
+        Integer base = properties.getTimes().get(now.getHour());
+        if (base == null) {
+            return null;
+        }
+
+        boolean weekend = now.getDayOfWeek().getValue() >= 6; // 1=Mon .. 7=Sun
+        return Math.min(100, base + (weekend ? properties.getWeekIncrease() : 0));
+    }
+
+    /**
+     * If battery level is under {@code minLevel}, stop prioritizing export by switching from FEED_IN_PRIORITY to SELF_USE.
+     */
+    public static ModeDecision decide(int batteryLevel, InverterMode mode, int minLevel) {
+        // Sufficient battery
+        if (batteryLevel >= minLevel) {
+            return ModeDecision.keep("battery at or above " + minLevel + "%");
+        }
+
+        // Only act in FEED_IN_PRIORITY/SELF_USE
+        if (mode != InverterMode.FEED_IN_PRIORITY && mode != InverterMode.SELF_USE) {
+            return ModeDecision.skip("unsupported mode " + mode);
+        }
+
+        // Below threshold: switch to SELF_USE if needed
+        if (mode == InverterMode.FEED_IN_PRIORITY) {
+            return ModeDecision.switchTo(InverterMode.SELF_USE, "battery below " + minLevel + "%");
+        }
+
+        return ModeDecision.keep("battery below " + minLevel + "%, already SELF_USE");
+    }
+}
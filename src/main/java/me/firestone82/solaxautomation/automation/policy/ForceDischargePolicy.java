@@ -0,0 +1,108 @@
+package me.firestone82.solaxautomation.automation.policy;
+
+import me.firestone82.solaxautomation.automation.journal.DecisionAction;
+import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
+import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Arming, start and battery guard decisions of the {@link me.firestone82.solaxautomation.automation.ForceDischargeChecker},
+ * free of any I/O so they can be replayed by the backtest.
+ */
+public class ForceDischargePolicy {
+
+    /**
+     * Outcome of arming for the day.
+     *
+     * @param action   {@link DecisionAction#ARM}, {@link DecisionAction#DISARM} or {@link DecisionAction#SKIPPED}
+     * @param trigger  time to start discharging when armed
+     * @param bestHour most expensive hour in the window, -1 if none
+     * @param price    price of the best hour (CZK/kWh), NaN if none
+     */
+    public record ArmDecision(DecisionAction action, LocalDateTime trigger, int bestHour, double price, String reason) {
+    }
+
+    /**
+     * Pick the most expensive hour of the window and arm a discharge at its start, or earlier if the previous
+     * hour is almost as expensive.
+     *
+     * @param window hourly prices of the discharge window of today
+     * @param now    time of the evaluation
+     */
+    public static ArmDecision arm(List<PowerPriceHourly> window, LocalDateTime now, ForceDischargeProperties properties) {
+        if (window == null || window.isEmpty()) {
+            return new ArmDecision(DecisionAction.SKIPPED, null, -1, Double.NaN, "no hourly prices in window");
+        }
+
+        PowerPriceHourly best = window.stream()
+                .filter(Objects::nonNull)
+                .max(Comparator.comparingDouble(PowerPriceHourly::getPriceCZK))
+                .orElse(null);
+
+        if (best == null) {
+            return new ArmDecision(DecisionAction.SKIPPED, null, -1, Double.NaN, "no best hour found");
+        }
+
+        double bestPrice = toCzkPerKwh(best.getPriceCZK());
+        int bestHour = best.getHour();
+
+        if (bestPrice < properties.getMinPrice()) {
+            return new ArmDecision(DecisionAction.DISARM, null, bestHour, bestPrice, "best price below threshold");
+        }
+
+        LocalDateTime trigger = LocalDateTime.of(now.toLocalDate(), LocalTime.of(bestHour, 0));
+        if (trigger.isBefore(now)) {
+            return new ArmDecision(DecisionAction.SKIPPED, trigger, bestHour, bestPrice, "trigger already passed");
+        }
+
+        // check previous hour closeness
+        Optional<PowerPriceHourly> previous = window.stream().filter(h -> h.getHour() == bestHour - 1).findFirst();
+        if (previous.isPresent() && Math.abs(toCzkPerKwh(previous.get().getPriceCZK()) - bestPrice) < properties.getPriceContinuityDelta()) {
+            trigger = trigger.minusMinutes(properties.getEarlyStartMinutes());
+        }
+
+        return new ArmDecision(DecisionAction.ARM, trigger, bestHour, bestPrice, "armed at " + trigger.toLocalTime());
+    }
+
+    /**
+     * Whether the armed discharge may start; {@link DecisionAction#SET_MANUAL_MODE} means switching to MANUAL
+     * mode with forced discharge.
+     */
+    public static ModeDecision start(int batteryLevel, InverterMode mode, ForceDischargeProperties properties) {
+        if (batteryLevel < properties.getMinBattery()) {
+            return ModeDecision.keep("battery below " + properties.getMinBattery() + "%");
+        }
+
+        if (mode != InverterMode.SELF_USE && mode != InverterMode.FEED_IN_PRIORITY) {
+            return ModeDecision.skip("unsupported mode " + mode);
+        }
+
+        return new ModeDecision(DecisionAction.SET_MANUAL_MODE, InverterMode.MANUAL, "discharge trigger");
+    }
+
+    /**
+     * Keep the battery above the target level while discharging; empty when not in MANUAL mode.
+     */
+    public static Optional<ModeDecision> guard(int batteryLevel, InverterMode mode, ForceDischargeProperties properties) {
+        if (mode != InverterMode.MANUAL) {
+            return Optional.empty();
+        }
+
+        if (batteryLevel < properties.getTargetBattery()) {
+            return Optional.of(ModeDecision.switchTo(InverterMode.SELF_USE, "battery guard below " + properties.getTargetBattery() + "%"));
+        }
+
+        return Optional.of(ModeDecision.keep("battery guard ok"));
+    }
+
+    public static double toCzkPerKwh(double priceCzkPerMwh) {
+        return priceCzkPerMwh / 1000.0;
+    }
+}
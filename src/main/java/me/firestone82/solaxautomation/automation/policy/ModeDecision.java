@@ -0,0 +1,26 @@
+package me.firestone82.solaxautomation.automation.policy;
+
+import me.firestone82.solaxautomation.automation.journal.DecisionAction;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+/**
+ * Outcome of a mode decision.
+ *
+ * @param mode   mode to switch to for {@link DecisionAction#SET_MODE}, {@link InverterMode#MANUAL} for
+ *               {@link DecisionAction#SET_MANUAL_MODE}, otherwise null
+ * @param reason short explanation, as recorded in the decision journal
+ */
+public record ModeDecision(DecisionAction action, InverterMode mode, String reason) {
+
+    static ModeDecision skip(String reason) {
+        return new ModeDecision(DecisionAction.SKIPPED, null, reason);
+    }
+
+    static ModeDecision keep(String reason) {
+        return new ModeDecision(DecisionAction.NO_CHANGE, null, reason);
+    }
+
+    static ModeDecision switchTo(InverterMode mode, String reason) {
+        return new ModeDecision(DecisionAction.SET_MODE, mode, reason);
+    }
+}
@@ -0,0 +1,55 @@
+package me.firestone82.solaxautomation.automation.policy;
+
+import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
+
+/**
+ * Export limit decision of the {@link me.firestone82.solaxautomation.automation.NegativeExportChecker}, free of
+ * any I/O so it can be replayed by the backtest.
+ */
+public class NegativeExportPolicy {
+
+    // Average weather quality up to which the export is reduced in the override window
+    private static final double OVERRIDE_MAX_QUALITY = 3.0;
+
+    public record ExportDecision(int exportLimit, String reason) {
+    }
+
+    /**
+     * Disable export if the price is not worth selling, unless the physical switch is LOW (disconnected).
+     * If LOW within the reduced window and the weather quality is low, apply the reduced export limit.
+     *
+     * @param priceCzkPerKwh current price
+     * @param switchHigh     connection switch state, HIGH meaning grid connected
+     * @param hour           current hour of day
+     * @param avgQuality     average weather quality around the current hour
+     */
+    public static ExportDecision decide(double priceCzkPerKwh, boolean switchHigh, int hour, double avgQuality, NegativeExportProperties properties) {
+        int exportLimit;
+        String reason;
+
+        if (priceCzkPerKwh < properties.getMinPrice()) {
+            if (switchHigh) {
+                // Price low & grid connected -> disable export
+                exportLimit = properties.getPower().getMin();
+                reason = "price below threshold, switch HIGH";
+            } else {
+                // Price low & grid disconnected -> enable export
+                exportLimit = properties.getPower().getMax();
+                reason = "price below threshold, switch LOW";
+            }
+        } else {
+            // Price sufficient -> enable export
+            exportLimit = properties.getPower().getMax();
+            reason = "price at/above threshold";
+        }
+
+        // Optional override reduction (hours + enabling export + low quality)
+        boolean overrideWindow = !switchHigh && hour >= properties.getReducedWindow().getStartHour() && hour <= properties.getReducedWindow().getEndHour();
+        if (overrideWindow && exportLimit > properties.getPower().getMin() && avgQuality <= OVERRIDE_MAX_QUALITY) {
+            exportLimit = properties.getPower().getReduced();
+            reason += ", reduced for low quality in override window";
+        }
+
+        return new ExportDecision(exportLimit, reason);
+    }
+}
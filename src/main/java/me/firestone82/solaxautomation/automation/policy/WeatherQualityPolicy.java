@@ -0,0 +1,105 @@
+package me.firestone82.solaxautomation.automation.policy;
+
+import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mode decisions of the {@link me.firestone82.solaxautomation.automation.WeatherQualityChecker}, free of any I/O
+ * so they can be replayed by the backtest.
+ */
+public class WeatherQualityPolicy {
+
+    // Hysteresis below the thunderstorm threshold the first forecast hour must reach before leaving BACKUP
+    private static final double BACKUP_EXIT_HYSTERESIS = 1.5;
+
+    /**
+     * Forecast window and thresholds of one check.
+     *
+     * @param outage true for the outage/thunderstorm check, false for the regular weather check
+     */
+    public record CheckWindow(String title, LocalDateTime start, LocalDateTime end, double minQuality, int minBattery, boolean outage) {
+    }
+
+    /**
+     * Check to run at {@code now}: the morning and noon weather checks at 7 and 11 o'clock, the outage check otherwise.
+     */
+    public static CheckWindow window(LocalDateTime now, WeatherQualityProperties properties) {
+        if (now.getHour() == 7) {
+            return new CheckWindow("Morning weather forecast check", now.withHour(9), now.withHour(14), properties.getThreshold().getCloudy(), 10, false);
+        }
+
+        if (now.getHour() == 11) {
+            return new CheckWindow("Noon weather forecast check", now.withHour(12), now.withHour(16), properties.getThreshold().getCloudy() - 0.5, 50, false);
+        }
+
+        return outageWindow(now, 0, properties);
+    }
+
+    public static CheckWindow outageWindow(LocalDateTime now, int minBattery, WeatherQualityProperties properties) {
+        return new CheckWindow("Outage/thunderstorm forecast check", now, now.plusHours(properties.getThunderstormHourWindow()), properties.getThreshold().getThunderstorm(), minBattery, true);
+    }
+
+    /**
+     * Severe weather found by the regular check hands over to the outage check for the near-term window.
+     */
+    public static boolean isThunderstorm(double avgQuality, WeatherQualityProperties properties) {
+        return avgQuality >= properties.getThreshold().getThunderstorm();
+    }
+
+    /**
+     * Decision for regular weather (cloudy vs. sunny); call only when not {@link #isThunderstorm}.
+     */
+    public static ModeDecision weather(InverterMode mode, double avgQuality, double minQuality, int batteryLevel, int minBattery) {
+        if (mode != InverterMode.FEED_IN_PRIORITY && mode != InverterMode.SELF_USE) {
+            return ModeDecision.skip("unsupported mode " + mode);
+        }
+
+        // Cloudy (quality above min) -> prefer SELF_USE
+        if (avgQuality > minQuality && mode == InverterMode.FEED_IN_PRIORITY) {
+            return ModeDecision.switchTo(InverterMode.SELF_USE, "cloudy");
+        }
+
+        // Sunny (quality below/equal min) -> prefer FEED_IN_PRIORITY if battery is healthy
+        if (avgQuality <= minQuality && mode == InverterMode.SELF_USE) {
+            if (batteryLevel >= minBattery) {
+                return ModeDecision.switchTo(InverterMode.FEED_IN_PRIORITY, "sunny and battery healthy");
+            }
+
+            return ModeDecision.keep("sunny but battery below " + minBattery + "%");
+        }
+
+        return ModeDecision.keep("no change needed");
+    }
+
+    /**
+     * Decision for outage/thunderstorm handling.
+     *
+     * @param firstHourQuality      quality of the first forecast hour in the window
+     * @param systemChangedToBackup whether BACKUP was set by the automation rather than manually
+     */
+    public static ModeDecision outage(InverterMode mode, double avgQuality, double minQuality, double firstHourQuality, boolean systemChangedToBackup, WeatherQualityProperties properties) {
+        // If user manually switched to BACKUP, respect it and stop
+        if (!systemChangedToBackup && mode == InverterMode.BACKUP) {
+            return ModeDecision.skip("BACKUP set manually");
+        }
+
+        // Thunderstorm likely -> go BACKUP
+        if (avgQuality > minQuality && mode != InverterMode.BACKUP) {
+            return ModeDecision.switchTo(InverterMode.BACKUP, "thunderstorm likely");
+        }
+
+        // Thunderstorm ended -> leave BACKUP
+        if (avgQuality <= minQuality && mode == InverterMode.BACKUP) {
+            // Small hysteresis to avoid flapping if the *first* hour is still high
+            if (firstHourQuality > properties.getThreshold().getThunderstorm() - BACKUP_EXIT_HYSTERESIS) {
+                return ModeDecision.keep("first hour quality still elevated");
+            }
+
+            return ModeDecision.switchTo(InverterMode.SELF_USE, "thunderstorm ended");
+        }
+
+        return ModeDecision.keep("no change needed");
+    }
+}
@@ -0,0 +1,177 @@
+package me.firestone82.solaxautomation.backtest;
+
+import me.firestone82.solaxautomation.service.meteosource.archive.ArchivedForecast;
+import me.firestone82.solaxautomation.service.meteosource.archive.ForecastArchive;
+import me.firestone82.solaxautomation.service.ote.archive.OTEPriceArchive;
+import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.telemetry.TelemetryChannel;
+import me.firestone82.solaxautomation.service.telemetry.TelemetryStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Backtest inputs taken from the local archives: prices from the {@link OTEPriceArchive}, forecasts from the
+ * {@link ForecastArchive} and PV power, load and the initial inverter state from the {@link TelemetryStore}.
+ * <p>
+ * The load is the inverter output minus the grid feed-in, which needs bulk telemetry scans; minutes without them
+ * use {@code backtest.baseLoad}. Minutes without any sample repeat the previous one. Days are indexed by the time
+ * elapsed since midnight, so on DST change days the later hours are shifted by one.
+ */
+@Component
+public class ArchiveDataSource implements BacktestDataSource {
+
+    private final OTEPriceArchive priceArchive;
+    private final ForecastArchive forecastArchive;
+    private final TelemetryStore store;
+    private final BacktestProperties properties;
+    private final ZoneId zone;
+
+    public ArchiveDataSource(
+            @Autowired OTEPriceArchive priceArchive,
+            @Autowired ForecastArchive forecastArchive,
+            @Autowired TelemetryStore store,
+            @Autowired BacktestProperties properties,
+            @Autowired Clock clock
+    ) {
+        this.priceArchive = priceArchive;
+        this.forecastArchive = forecastArchive;
+        this.store = store;
+        this.properties = properties;
+        this.zone = clock.getZone();
+    }
+
+    @Override
+    public Optional<DayInputs> load(LocalDate day) {
+        Optional<List<PowerPriceHourly>> prices = priceArchive.getDay(day);
+        if (prices.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Instant start = day.atStartOfDay(zone).toInstant();
+        Instant end = day.plusDays(1).atStartOfDay(zone).toInstant();
+        MinuteSeries telemetry = new MinuteSeries(start.toEpochMilli());
+
+        if (store.scan(start, end, telemetry::add) == 0 || Double.isNaN(telemetry.batteryLevel)) {
+            return Optional.empty();
+        }
+
+        List<ArchivedForecast> forecasts = forecastArchive.read(start.minusSeconds(24 * 3600), end);
+        List<Instant> issued = new ArrayList<>();
+        List<double[]> quality = new ArrayList<>();
+
+        for (ArchivedForecast forecast : forecasts) {
+            if (issued.isEmpty() || !issued.getLast().equals(forecast.issued())) {
+                double[] hours = new double[DayInputs.FORECAST_HOURS];
+                Arrays.fill(hours, Double.NaN);
+
+                issued.add(forecast.issued());
+                quality.add(hours);
+            }
+
+            long hour = Math.floorDiv(forecast.target().getEpochSecond() - start.getEpochSecond(), 3600);
+            if (hour >= 0 && hour < DayInputs.FORECAST_HOURS) {
+                quality.getLast()[(int) hour] = forecast.getQuality();
+            }
+        }
+
+        return Optional.of(new DayInputs(
+                day,
+                prices.get(),
+                telemetry.pvPower(),
+                telemetry.loadPower(properties.getBaseLoad()),
+                telemetry.batteryLevel,
+                telemetry.mode == null ? InverterMode.SELF_USE : telemetry.mode,
+                telemetry.exportLimit,
+                issued.stream().mapToInt(instant -> (int) Math.floorDiv(instant.getEpochSecond() - start.getEpochSecond(), 60)).toArray(),
+                quality.toArray(double[][]::new)
+        ));
+    }
+
+    /**
+     * Per-minute averages of one day of telemetry rows, and the first known inverter state.
+     */
+    private static class MinuteSeries {
+        private final long startMillis;
+        private final double[] pvSum = new double[DayInputs.MINUTES];
+        private final int[] pvCount = new int[DayInputs.MINUTES];
+        private final double[] loadSum = new double[DayInputs.MINUTES];
+        private final int[] loadCount = new int[DayInputs.MINUTES];
+
+        private double batteryLevel = Double.NaN;
+        private InverterMode mode = null;
+        private int exportLimit = -1;
+
+        private MinuteSeries(long startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        private void add(long epochMillis, double[] values) {
+            int minute = (int) Math.min(DayInputs.MINUTES - 1, (epochMillis - startMillis) / 60_000);
+
+            double pv1 = values[TelemetryChannel.PV1_POWER.ordinal()];
+            double pv2 = values[TelemetryChannel.PV2_POWER.ordinal()];
+            if (!Double.isNaN(pv1)) {
+                pvSum[minute] += pv1 + (Double.isNaN(pv2) ? 0 : pv2);
+                pvCount[minute]++;
+            }
+
+            double inverter = values[TelemetryChannel.INVERTER_POWER.ordinal()];
+            double grid = values[TelemetryChannel.GRID_POWER.ordinal()];
+            if (!Double.isNaN(inverter) && !Double.isNaN(grid)) {
+                loadSum[minute] += Math.max(0, inverter - grid);
+                loadCount[minute]++;
+            }
+
+            if (Double.isNaN(batteryLevel) && !Double.isNaN(values[TelemetryChannel.BATTERY_LEVEL.ordinal()])) {
+                batteryLevel = values[TelemetryChannel.BATTERY_LEVEL.ordinal()];
+            }
+
+            double modeValue = values[TelemetryChannel.INVERTER_MODE.ordinal()];
+            if (mode == null && !Double.isNaN(modeValue) && modeValue >= 0 && modeValue < InverterMode.values().length) {
+                mode = InverterMode.values()[(int) modeValue];
+            }
+
+            if (exportLimit < 0 && !Double.isNaN(values[TelemetryChannel.EXPORT_LIMIT.ordinal()])) {
+                exportLimit = (int) values[TelemetryChannel.EXPORT_LIMIT.ordinal()];
+            }
+        }
+
+        private double[] pvPower() {
+            return average(pvSum, pvCount, 0);
+        }
+
+        private double[] loadPower(double baseLoad) {
+            double[] load = average(loadSum, loadCount, Double.NaN);
+
+            for (int minute = 0; minute < load.length; minute++) {
+                if (Double.isNaN(load[minute])) {
+                    load[minute] = baseLoad;
+                }
+            }
+
+            return load;
+        }
+
+        private static double[] average(double[] sum, int[] count, double initial) {
+            double[] average = new double[sum.length];
+            double previous = initial;
+
+            for (int minute = 0; minute < sum.length; minute++) {
+                previous = count[minute] > 0 ? sum[minute] / count[minute] : previous;
+                average[minute] = previous;
+            }
+
+            return average;
+        }
+    }
+}
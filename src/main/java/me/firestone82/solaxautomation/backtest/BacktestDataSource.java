@@ -0,0 +1,15 @@
+package me.firestone82.solaxautomation.backtest;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Source of the recorded inputs replayed by the {@link BacktestEngine}.
+ */
+public interface BacktestDataSource {
+
+    /**
+     * Inputs of the day, or empty if prices or telemetry of the day are missing. Called concurrently for different days.
+     */
+    Optional<DayInputs> load(LocalDate day);
+}
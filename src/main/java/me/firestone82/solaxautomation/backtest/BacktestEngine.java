@@ -0,0 +1,132 @@
+package me.firestone82.solaxautomation.backtest;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Replays the checker decisions over recorded days, much faster than real time.
+ * <p>
+ * Every day starts from the battery level and inverter state recorded at its midnight, so days are independent and
+ * are loaded and simulated in parallel on a dedicated fork-join pool of {@code backtest.parallelism} workers.
+ * Loaded inputs can be replayed repeatedly with different {@link BacktestParameters}, also many at once with
+ * {@link #run(List, List)}.
+ */
+@Slf4j
+@Component
+public class BacktestEngine {
+
+    // Days handled by one task without splitting it further
+    private static final int DAYS_PER_TASK = 4;
+    // Candidates of a parameter sweep handled by one task, each replays every day
+    private static final int CANDIDATES_PER_TASK = 1;
+
+    private final BacktestDataSource dataSource;
+    private final BacktestProperties properties;
+    private final ForkJoinPool pool;
+
+    public BacktestEngine(
+            @Autowired BacktestDataSource dataSource,
+            @Autowired BacktestProperties properties
+    ) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.pool = new ForkJoinPool(properties.getParallelism());
+    }
+
+    /**
+     * Load the inputs of the days within {@code from..to} (inclusive), skipping days without prices or telemetry.
+     */
+    public List<DayInputs> load(LocalDate from, LocalDate to) {
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        List<DayInputs> inputs = pool.invoke(new SliceTask<>(days, DAYS_PER_TASK, day -> dataSource.load(day).orElse(null)));
+
+        log.debug("Loaded backtest inputs of {} out of {} days", inputs.size(), days.size());
+        return inputs;
+    }
+
+    public BacktestReport run(LocalDate from, LocalDate to, BacktestParameters parameters) {
+        return run(load(from, to), parameters);
+    }
+
+    public BacktestReport run(List<DayInputs> days, BacktestParameters parameters) {
+        long start = System.nanoTime();
+        List<DayResult> results = pool.invoke(new SliceTask<>(days, DAYS_PER_TASK, day -> new DaySimulation(day, parameters, properties).run()));
+
+        return new BacktestReport(results, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Replay the same days with every candidate, candidates in parallel and the days of one candidate in order.
+     * The inputs are only read, so all workers share them.
+     *
+     * @return one report per candidate, in the order of {@code candidates}
+     */
+    public List<BacktestReport> run(List<DayInputs> days, List<BacktestParameters> candidates) {
+        return pool.invoke(new SliceTask<>(candidates, CANDIDATES_PER_TASK, parameters -> {
+            long start = System.nanoTime();
+            List<DayResult> results = new ArrayList<>(days.size());
+
+            for (DayInputs day : days) {
+                results.add(new DaySimulation(day, parameters, properties).run());
+            }
+
+            return new BacktestReport(results, Duration.ofNanos(System.nanoTime() - start));
+        }));
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Maps a slice of a list, splitting it in halves down to {@code threshold} elements. Null results are dropped,
+     * the others keep their order.
+     */
+    private static class SliceTask<T, R> extends RecursiveTask<List<R>> {
+        private final List<T> items;
+        private final int threshold;
+        private final Function<T, R> mapper;
+
+        private SliceTask(List<T> items, int threshold, Function<T, R> mapper) {
+            this.items = items;
+            this.threshold = threshold;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (items.size() <= threshold) {
+                List<R> results = new ArrayList<>(items.size());
+
+                for (T item : items) {
+                    R result = mapper.apply(item);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                }
+
+                return results;
+            }
+
+            int middle = items.size() / 2;
+            SliceTask<T, R> left = new SliceTask<>(items.subList(0, middle), threshold, mapper);
+            SliceTask<T, R> right = new SliceTask<>(items.subList(middle, items.size()), threshold, mapper);
+
+            left.fork();
+            List<R> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.firestone82.solaxautomation.backtest;
+
+import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
+import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
+import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
+import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
+
+/**
+ * Checker configuration replayed by a backtest; checkers whose properties are not enabled do not run.
+ */
+public record BacktestParameters(
+        NegativeExportProperties export,
+        BatteryAutomationProperties battery,
+        ForceDischargeProperties sell,
+        WeatherQualityProperties weather
+) {
+}
@@ -0,0 +1,49 @@
+package me.firestone82.solaxautomation.backtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "backtest")
+public class BacktestProperties {
+
+    private boolean enabled = false;
+    private LocalDate from;
+    private LocalDate to;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private double importFee = 2.0;
+    private double exportFee = 0.0;
+    private boolean switchHigh = true;
+    private double baseLoad = 400;
+    private Battery battery = new Battery();
+    private Sweep sweep = new Sweep();
+
+    @Data
+    public static class Battery {
+        private double capacity = 10.0;
+        private double maxCharge = 5000;
+        private double maxDischarge = 5000;
+        private double efficiency = 0.95;
+        private int minLevel = 10;
+        private int backupLevel = 30;
+    }
+
+    @Data
+    public static class Sweep {
+        private boolean enabled = false;
+        private List<Double> exportMinPrice = List.of(0.5);
+        private List<Double> sellMinPrice = List.of(2.5);
+        private List<Integer> sellMinBattery = List.of(80);
+        private List<Integer> sellTargetBattery = List.of(40);
+        private List<Integer> weatherCloudy = List.of(5);
+        private List<Integer> weatherThunderstorm = List.of(10);
+        private List<Integer> batteryOffset = List.of(0);
+        private int maxCandidates = 2000;
+        private long seed = 1;
+    }
+}
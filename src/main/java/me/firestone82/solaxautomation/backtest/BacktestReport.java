@@ -0,0 +1,32 @@
+package me.firestone82.solaxautomation.backtest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Results of a backtest, one entry per replayed day in date order.
+ *
+ * @param elapsed wall-clock time of the simulation
+ */
+public record BacktestReport(List<DayResult> days, Duration elapsed) {
+
+    public double getRevenue() {
+        return days.stream().mapToDouble(DayResult::revenue).sum();
+    }
+
+    public double getExported() {
+        return days.stream().mapToDouble(DayResult::exported).sum();
+    }
+
+    public double getImported() {
+        return days.stream().mapToDouble(DayResult::imported).sum();
+    }
+
+    public int getWrites() {
+        return days.stream().mapToInt(DayResult::writes).sum();
+    }
+
+    public double getCycles() {
+        return days.stream().mapToDouble(DayResult::cycles).sum();
+    }
+}
@@ -0,0 +1,59 @@
+package me.firestone82.solaxautomation.backtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
+import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
+import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
+import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Backtests the configured checker properties over {@code backtest.from..backtest.to} (the last 30 days by default)
+ * once the application is ready, and logs the report.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "backtest.enabled", havingValue = "true")
+public class BacktestRunner {
+    private final BacktestEngine engine;
+    private final BacktestProperties properties;
+    private final NegativeExportProperties exportProperties;
+    private final BatteryAutomationProperties batteryProperties;
+    private final ForceDischargeProperties sellProperties;
+    private final WeatherQualityProperties weatherProperties;
+    private final Clock clock;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        LocalDate to = properties.getTo() != null ? properties.getTo() : LocalDate.now(clock).minusDays(1);
+        LocalDate from = properties.getFrom() != null ? properties.getFrom() : to.minusDays(29);
+
+        log.info("==".repeat(40));
+        log.info("Backtesting configured automation over {} – {}", from, to);
+
+        BacktestParameters parameters = new BacktestParameters(exportProperties, batteryProperties, sellProperties, weatherProperties);
+        BacktestReport report = engine.run(from, to, parameters);
+
+        for (DayResult day : report.days()) {
+            log.info(" - {}: revenue {} CZK, exported {} kWh, imported {} kWh, {} writes, battery {}% -> {}%",
+                    day.date(), round(day.revenue()), round(day.exported()), round(day.imported()), day.writes(),
+                    Math.round(day.startLevel()), Math.round(day.batteryLevel()[day.batteryLevel().length - 1]));
+        }
+
+        log.info("Backtest of {} days took {} ms: revenue {} CZK, exported {} kWh, imported {} kWh, {} writes",
+                report.days().size(), report.elapsed().toMillis(), round(report.getRevenue()), round(report.getExported()),
+                round(report.getImported()), report.getWrites());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
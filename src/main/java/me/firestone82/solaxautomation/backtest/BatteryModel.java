@@ -0,0 +1,83 @@
+package me.firestone82.solaxautomation.backtest;
+
+import lombok.Getter;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+/**
+ * Energy balance of the inverter and battery over one simulation step.
+ * <p>
+ * PV power first covers the house load. In SELF_USE and BACKUP the surplus charges the battery and the rest is
+ * exported, in FEED_IN_PRIORITY it is exported first and the rest charges the battery; anything above the export
+ * limit is curtailed. A deficit is covered by the battery down to its minimum level (the backup level in BACKUP)
+ * and imported otherwise. MANUAL mode is forced discharge at full power, reduced only to keep within the export limit.
+ * The battery is never charged from the grid.
+ */
+public class BatteryModel {
+
+    private final BacktestProperties.Battery battery;
+    private final double capacityWh;
+
+    // State of charge (%)
+    @Getter
+    private double level;
+
+    public BatteryModel(BacktestProperties.Battery battery, double level) {
+        this.battery = battery;
+        this.capacityWh = battery.getCapacity() * 1000;
+        this.level = Math.clamp(level, 0, 100);
+    }
+
+    /**
+     * Advance the model by {@code hours}.
+     *
+     * @param pv          PV power (W)
+     * @param load        house load (W)
+     * @param exportLimit maximum grid export (W)
+     * @return grid power (W), positive when exporting
+     */
+    public double step(double pv, double load, InverterMode mode, int exportLimit, double hours) {
+        double surplus = pv - load;
+
+        if (mode == InverterMode.MANUAL) {
+            double discharge = maxDischarge(battery.getMinLevel(), hours);
+            double excess = surplus + discharge - exportLimit;
+
+            if (excess > 0) {
+                discharge -= Math.min(excess, discharge);
+            }
+
+            discharge(discharge, hours);
+            return Math.min(surplus + discharge, exportLimit);
+        }
+
+        if (surplus >= 0) {
+            double exported = mode == InverterMode.FEED_IN_PRIORITY ? Math.min(surplus, exportLimit) : 0;
+            double charge = Math.min(surplus - exported, maxCharge(hours));
+            charge(charge, hours);
+
+            return Math.min(surplus - charge, exportLimit);
+        }
+
+        double discharge = Math.min(-surplus, maxDischarge(mode == InverterMode.BACKUP ? battery.getBackupLevel() : battery.getMinLevel(), hours));
+        discharge(discharge, hours);
+        return surplus + discharge;
+    }
+
+    private double maxCharge(double hours) {
+        double room = (100 - level) / 100 * capacityWh;
+        return Math.min(battery.getMaxCharge(), room / battery.getEfficiency() / hours);
+    }
+
+    private double maxDischarge(int minLevel, double hours) {
+        double available = Math.max(0, level - minLevel) / 100 * capacityWh;
+        return Math.min(battery.getMaxDischarge(), available * battery.getEfficiency() / hours);
+    }
+
+    private void charge(double power, double hours) {
+        level = Math.min(100, level + power * hours * battery.getEfficiency() / capacityWh * 100);
+    }
+
+    private void discharge(double power, double hours) {
+        level = Math.max(0, level - power * hours / battery.getEfficiency() / capacityWh * 100);
+    }
+}
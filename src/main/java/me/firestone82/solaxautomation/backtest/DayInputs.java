@@ -0,0 +1,62 @@
+package me.firestone82.solaxautomation.backtest;
+
+import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recorded inputs of one day to replay, indexed by local wall-clock time.
+ *
+ * @param prices          day-ahead prices of the day, by hour
+ * @param pvPower         average PV power (W) of every minute of the day
+ * @param loadPower       average house load (W) of every minute of the day
+ * @param batteryLevel    battery level (%) at the start of the day
+ * @param mode            inverter mode at the start of the day
+ * @param exportLimit     export limit (W) at the start of the day, -1 if unknown
+ * @param forecastIssued  minute of the day each forecast snapshot was issued at, ascending, negative for the day before
+ * @param forecastQuality weather quality of each snapshot by hour since the start of the day
+ *                        ({@value #FORECAST_HOURS} hours), NaN where the snapshot has no forecast
+ */
+public record DayInputs(
+        LocalDate date,
+        List<PowerPriceHourly> prices,
+        double[] pvPower,
+        double[] loadPower,
+        double batteryLevel,
+        InverterMode mode,
+        int exportLimit,
+        int[] forecastIssued,
+        double[][] forecastQuality
+) {
+
+    public static final int MINUTES = 24 * 60;
+    public static final int FORECAST_HOURS = 48;
+
+    /**
+     * Price (CZK/kWh) of the hour, NaN if unknown.
+     */
+    public double price(int hour) {
+        for (PowerPriceHourly price : prices) {
+            if (price.getHour() == hour) {
+                return price.getPriceCZK() / 1000.0;
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Hourly weather quality of the latest forecast snapshot issued at or before {@code minute}, or null if none was.
+     */
+    public double[] forecastAt(int minute) {
+        double[] latest = null;
+
+        for (int i = 0; i < forecastIssued.length && forecastIssued[i] <= minute; i++) {
+            latest = forecastQuality[i];
+        }
+
+        return latest;
+    }
+}
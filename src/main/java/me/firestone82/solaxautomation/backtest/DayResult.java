@@ -0,0 +1,41 @@
+package me.firestone82.solaxautomation.backtest;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of replaying one day.
+ *
+ * @param revenue      grid export income minus import cost (CZK), fees included
+ * @param exported     energy exported to the grid (kWh)
+ * @param imported     energy imported from the grid (kWh)
+ * @param writes       Modbus writes the checkers would have made
+ * @param startLevel   battery level (%) at the start of the day
+ * @param batteryLevel battery level (%) at the end of every minute of the day
+ */
+public record DayResult(
+        LocalDate date,
+        double revenue,
+        double exported,
+        double imported,
+        int writes,
+        float startLevel,
+        float[] batteryLevel
+) {
+
+    /**
+     * Equivalent full battery cycles: every percent charged and discharged counts half a percent of a cycle.
+     */
+    public double cycles() {
+        if (batteryLevel.length == 0) {
+            return 0;
+        }
+
+        double moved = Math.abs(batteryLevel[0] - startLevel);
+
+        for (int i = 1; i < batteryLevel.length; i++) {
+            moved += Math.abs(batteryLevel[i] - batteryLevel[i - 1]);
+        }
+
+        return moved / 200;
+    }
+}
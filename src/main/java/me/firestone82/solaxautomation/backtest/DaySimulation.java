@@ -0,0 +1,296 @@
+package me.firestone82.solaxautomation.backtest;
+
+import me.firestone82.solaxautomation.automation.BatteryLevelChecker;
+import me.firestone82.solaxautomation.automation.ForceDischargeChecker;
+import me.firestone82.solaxautomation.automation.NegativeExportChecker;
+import me.firestone82.solaxautomation.automation.WeatherQualityChecker;
+import me.firestone82.solaxautomation.automation.journal.DecisionAction;
+import me.firestone82.solaxautomation.automation.policy.*;
+import me.firestone82.solaxautomation.automation.policy.ForceDischargePolicy.ArmDecision;
+import me.firestone82.solaxautomation.automation.policy.NegativeExportPolicy.ExportDecision;
+import me.firestone82.solaxautomation.automation.policy.WeatherQualityPolicy.CheckWindow;
+import me.firestone82.solaxautomation.service.ote.model.PowerForecast;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Replays one day minute by minute under a simulated clock: the checker schedules fire at the minutes their cron
+ * expressions match, decide through the same policies as the live checkers, and the {@link BatteryModel} turns the
+ * resulting inverter state into grid flows. Writes always succeed and the inverter state is known exactly.
+ */
+class DaySimulation {
+
+    private static final double STEP_HOURS = 1 / 60.0;
+
+    private static final CronExpression WEATHER_CRON = CronExpression.parse(WeatherQualityChecker.CRON);
+    private static final CronExpression EXPORT_CRON = CronExpression.parse(NegativeExportChecker.CRON);
+    private static final CronExpression BATTERY_CRON = CronExpression.parse(BatteryLevelChecker.CRON);
+    private static final CronExpression GUARD_CRON = CronExpression.parse(ForceDischargeChecker.GUARD_CRON);
+
+    private final DayInputs inputs;
+    private final BacktestParameters parameters;
+    private final BacktestProperties properties;
+    private final LocalDateTime dayStart;
+    private final BatteryModel battery;
+    private final double[] prices = new double[24];
+
+    private InverterMode mode;
+    private int exportLimit;
+    private int triggerMinute = -1;
+    private boolean systemChangedToBackup;
+
+    private int writes;
+    private double revenue;
+    private double exported;
+    private double imported;
+
+    DaySimulation(DayInputs inputs, BacktestParameters parameters, BacktestProperties properties) {
+        this.inputs = inputs;
+        this.parameters = parameters;
+        this.properties = properties;
+        this.dayStart = inputs.date().atStartOfDay();
+        this.battery = new BatteryModel(properties.getBattery(), inputs.batteryLevel());
+        this.mode = inputs.mode();
+        this.exportLimit = inputs.exportLimit() < 0 ? parameters.export().getPower().getMax() : inputs.exportLimit();
+
+        // A BACKUP mode carried over from the day before is assumed to be set by the automation
+        this.systemChangedToBackup = mode == InverterMode.BACKUP;
+
+        for (int hour = 0; hour < prices.length; hour++) {
+            prices[hour] = inputs.price(hour);
+        }
+    }
+
+    DayResult run() {
+        boolean weatherEnabled = parameters.weather().isEnabled();
+        boolean exportEnabled = parameters.export().isEnabled();
+        boolean batteryEnabled = parameters.battery().isEnabled();
+        boolean sellEnabled = parameters.sell().isEnabled();
+
+        boolean[] weatherDue = schedule(WEATHER_CRON, weatherEnabled);
+        boolean[] exportDue = schedule(EXPORT_CRON, exportEnabled);
+        boolean[] batteryDue = schedule(BATTERY_CRON, batteryEnabled);
+        boolean[] armDue = schedule(sellEnabled ? CronExpression.parse(parameters.sell().getArmCron()) : null, sellEnabled);
+        boolean[] guardDue = schedule(GUARD_CRON, sellEnabled);
+
+        float startLevel = (float) battery.getLevel();
+        float[] levels = new float[DayInputs.MINUTES];
+
+        for (int minute = 0; minute < DayInputs.MINUTES; minute++) {
+            LocalDateTime now = dayStart.plusMinutes(minute);
+
+            if (weatherDue[minute]) {
+                weatherCheck(now, minute);
+            }
+
+            if (exportDue[minute]) {
+                exportCheck(now, minute);
+            }
+
+            if (batteryDue[minute]) {
+                batteryCheck(now);
+            }
+
+            if (armDue[minute]) {
+                arm(now, minute);
+            }
+
+            if (triggerMinute == minute) {
+                startDischarge();
+            }
+
+            if (guardDue[minute]) {
+                guard();
+            }
+
+            step(minute);
+            levels[minute] = (float) battery.getLevel();
+        }
+
+        return new DayResult(inputs.date(), revenue, exported, imported, writes, startLevel, levels);
+    }
+
+    private void step(int minute) {
+        double grid = battery.step(inputs.pvPower()[minute], inputs.loadPower()[minute], mode, exportLimit, STEP_HOURS);
+        double energy = Math.abs(grid) * STEP_HOURS / 1000;
+        double price = Double.isNaN(prices[minute / 60]) ? 0 : prices[minute / 60];
+
+        if (grid > 0) {
+            exported += energy;
+            revenue += energy * (price - properties.getExportFee());
+        } else {
+            imported += energy;
+            revenue -= energy * (price + properties.getImportFee());
+        }
+    }
+
+    // ---- checkers ----
+
+    private void exportCheck(LocalDateTime now, int minute) {
+        int hour = now.getHour();
+        double price = prices[hour];
+        if (Double.isNaN(price)) {
+            return;
+        }
+
+        LocalDateTime start = now.truncatedTo(ChronoUnit.HOURS);
+        double avgQuality = avgQuality(minute, start.minusHours(1), start.plusHours(2));
+        if (Double.isNaN(avgQuality)) {
+            return;
+        }
+
+        ExportDecision decision = NegativeExportPolicy.decide(price, properties.isSwitchHigh(), hour, avgQuality, parameters.export());
+        if (decision.exportLimit() != exportLimit) {
+            exportLimit = decision.exportLimit();
+            writes++;
+        }
+    }
+
+    private void weatherCheck(LocalDateTime now, int minute) {
+        runWeatherWindow(WeatherQualityPolicy.window(now, parameters.weather()), now, minute);
+    }
+
+    private void runWeatherWindow(CheckWindow window, LocalDateTime now, int minute) {
+        double avgQuality = avgQuality(minute, window.start(), window.end());
+        if (Double.isNaN(avgQuality)) {
+            return;
+        }
+
+        int level = batteryLevel();
+
+        if (!window.outage()) {
+            if (WeatherQualityPolicy.isThunderstorm(avgQuality, parameters.weather())) {
+                runWeatherWindow(WeatherQualityPolicy.outageWindow(now, window.minBattery(), parameters.weather()), now, minute);
+                return;
+            }
+
+            apply(WeatherQualityPolicy.weather(mode, avgQuality, window.minQuality(), level, window.minBattery()));
+            return;
+        }
+
+        double firstHourQuality = firstQuality(minute, window.start(), window.end());
+        ModeDecision decision = WeatherQualityPolicy.outage(mode, avgQuality, window.minQuality(), firstHourQuality, systemChangedToBackup, parameters.weather());
+
+        if (apply(decision)) {
+            systemChangedToBackup = decision.mode() == InverterMode.BACKUP;
+        }
+    }
+
+    private void batteryCheck(LocalDateTime now) {
+        Integer minLevel = BatteryLevelPolicy.minLevel(now, parameters.battery());
+        if (minLevel != null) {
+            apply(BatteryLevelPolicy.decide(batteryLevel(), mode, minLevel));
+        }
+    }
+
+    private void arm(LocalDateTime now, int currentMinute) {
+        PowerForecast forecast = new PowerForecast(inputs.prices(), List.of());
+        ArmDecision decision = ForceDischargePolicy.arm(
+                forecast.getHourlyBetween(parameters.sell().getWindow().getStartHour(), parameters.sell().getWindow().getEndHour()),
+                now,
+                parameters.sell()
+        );
+
+        if (decision.action() == DecisionAction.ARM) {
+            // A trigger already passed by the early start fires right away, as the live checker would
+            long minute = Math.max(Duration.between(dayStart, decision.trigger()).toMinutes(), currentMinute);
+            triggerMinute = minute < DayInputs.MINUTES ? (int) minute : -1;
+        } else if (decision.action() == DecisionAction.DISARM) {
+            triggerMinute = -1;
+        }
+    }
+
+    private void startDischarge() {
+        triggerMinute = -1;
+
+        ModeDecision decision = ForceDischargePolicy.start(batteryLevel(), mode, parameters.sell());
+        if (decision.action() == DecisionAction.SET_MANUAL_MODE) {
+            // Mode and manual mode register
+            mode = decision.mode();
+            writes += 2;
+        }
+    }
+
+    private void guard() {
+        Optional<ModeDecision> decision = ForceDischargePolicy.guard(batteryLevel(), mode, parameters.sell());
+        decision.ifPresent(this::apply);
+    }
+
+    // ---- helpers ----
+
+    private boolean apply(ModeDecision decision) {
+        if (decision.action() != DecisionAction.SET_MODE) {
+            return false;
+        }
+
+        mode = decision.mode();
+        writes++;
+        return true;
+    }
+
+    private int batteryLevel() {
+        return (int) Math.round(battery.getLevel());
+    }
+
+    /**
+     * Average quality of the forecast hours within {@code start..end} (inclusive, whole hours) of the latest snapshot
+     * issued by {@code minute}, NaN if there are none.
+     */
+    private double avgQuality(int minute, LocalDateTime start, LocalDateTime end) {
+        double[] quality = inputs.forecastAt(minute);
+        if (quality == null) {
+            return Double.NaN;
+        }
+
+        double sum = 0;
+        int count = 0;
+
+        for (int hour = hourIndex(start); hour <= hourIndex(end); hour++) {
+            if (hour >= 0 && hour < quality.length && !Double.isNaN(quality[hour])) {
+                sum += quality[hour];
+                count++;
+            }
+        }
+
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private double firstQuality(int minute, LocalDateTime start, LocalDateTime end) {
+        double[] quality = inputs.forecastAt(minute);
+
+        for (int hour = hourIndex(start); hour <= hourIndex(end); hour++) {
+            if (hour >= 0 && hour < quality.length && !Double.isNaN(quality[hour])) {
+                return quality[hour];
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    private int hourIndex(LocalDateTime time) {
+        return (int) ChronoUnit.HOURS.between(dayStart, time.truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /**
+     * Minutes of the day at which the cron expression fires.
+     */
+    private boolean[] schedule(CronExpression cron, boolean enabled) {
+        boolean[] due = new boolean[DayInputs.MINUTES];
+        if (!enabled) {
+            return due;
+        }
+
+        LocalDateTime end = dayStart.plusDays(1);
+        for (LocalDateTime time = cron.next(dayStart.minusNanos(1)); time != null && time.isBefore(end); time = cron.next(time)) {
+            due[(int) Duration.between(dayStart, time).toMinutes()] = true;
+        }
+
+        return due;
+    }
+}
@@ -0,0 +1,114 @@
+package me.firestone82.solaxautomation.backtest.sweep;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.backtest.BacktestEngine;
+import me.firestone82.solaxautomation.backtest.BacktestParameters;
+import me.firestone82.solaxautomation.backtest.BacktestProperties;
+import me.firestone82.solaxautomation.backtest.BacktestReport;
+import me.firestone82.solaxautomation.backtest.DayInputs;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Searches the checker thresholds for the best trade-offs between revenue, inverter writes and battery cycling.
+ * <p>
+ * Candidates are the combinations of the values listed under {@code backtest.sweep}, skipping ones where the sell
+ * target is not below its minimum battery or the cloudy threshold is not below the thunderstorm one. When there are
+ * more than {@code backtest.sweep.maxCandidates}, a seeded random sample of them is searched instead. All candidates
+ * replay the same loaded days on the {@link BacktestEngine} pool.
+ */
+@Slf4j
+@Component
+public class ParameterSweep {
+
+    private final BacktestEngine engine;
+    private final BacktestProperties.Sweep properties;
+
+    public ParameterSweep(
+            @Autowired BacktestEngine engine,
+            @Autowired BacktestProperties properties
+    ) {
+        this.engine = engine;
+        this.properties = properties.getSweep();
+    }
+
+    public List<SweepCandidate> candidates() {
+        List<SweepCandidate> candidates = new ArrayList<>();
+
+        for (double exportMinPrice : properties.getExportMinPrice()) {
+            for (double sellMinPrice : properties.getSellMinPrice()) {
+                for (int sellMinBattery : properties.getSellMinBattery()) {
+                    for (int sellTargetBattery : properties.getSellTargetBattery()) {
+                        if (sellTargetBattery >= sellMinBattery) {
+                            continue;
+                        }
+
+                        for (int cloudy : properties.getWeatherCloudy()) {
+                            for (int thunderstorm : properties.getWeatherThunderstorm()) {
+                                if (cloudy >= thunderstorm) {
+                                    continue;
+                                }
+
+                                for (int batteryOffset : properties.getBatteryOffset()) {
+                                    candidates.add(new SweepCandidate(exportMinPrice, sellMinPrice, sellMinBattery, sellTargetBattery, cloudy, thunderstorm, batteryOffset));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        if (candidates.size() > properties.getMaxCandidates()) {
+            log.info("Sampling {} out of {} sweep candidates", properties.getMaxCandidates(), candidates.size());
+            Collections.shuffle(candidates, new Random(properties.getSeed()));
+            return List.copyOf(candidates.subList(0, properties.getMaxCandidates()));
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Replay {@code days} with every candidate applied on top of {@code base}.
+     *
+     * @return one result per candidate, in the order of {@code candidates}
+     */
+    public List<SweepResult> run(List<DayInputs> days, BacktestParameters base, List<SweepCandidate> candidates) {
+        List<BacktestParameters> parameters = candidates.stream()
+                .map(candidate -> candidate.apply(base))
+                .toList();
+
+        List<BacktestReport> reports = engine.run(days, parameters);
+        List<SweepResult> results = new ArrayList<>(candidates.size());
+
+        for (int i = 0; i < candidates.size(); i++) {
+            BacktestReport report = reports.get(i);
+            results.add(new SweepResult(candidates.get(i), report.getRevenue(), report.getWrites(), report.getCycles()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Results no other result dominates, by revenue descending. Of candidates with the same outcome only the first
+     * one is kept.
+     */
+    public static List<SweepResult> paretoFront(List<SweepResult> results) {
+        List<SweepResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(SweepResult::revenue).reversed()
+                .thenComparingInt(SweepResult::writes)
+                .thenComparingDouble(SweepResult::cycles));
+
+        // A result can only be dominated by one sorted before it
+        List<SweepResult> front = new ArrayList<>();
+        for (SweepResult result : sorted) {
+            if (front.stream().noneMatch(better -> better.dominates(result) || better.sameOutcome(result))) {
+                front.add(result);
+            }
+        }
+
+        return front;
+    }
+}
@@ -0,0 +1,75 @@
+package me.firestone82.solaxautomation.backtest.sweep;
+
+import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
+import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
+import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
+import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
+import me.firestone82.solaxautomation.backtest.BacktestParameters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One point of a parameter sweep, applied on top of the configured checker properties.
+ *
+ * @param batteryOffset percent added to every configured {@code automation.battery.times} level
+ */
+public record SweepCandidate(
+        double exportMinPrice,
+        double sellMinPrice,
+        int sellMinBattery,
+        int sellTargetBattery,
+        int weatherCloudy,
+        int weatherThunderstorm,
+        int batteryOffset
+) {
+
+    /**
+     * Copies of the {@code base} properties with the swept values, leaving {@code base} untouched.
+     */
+    public BacktestParameters apply(BacktestParameters base) {
+        NegativeExportProperties export = new NegativeExportProperties();
+        export.setEnabled(base.export().isEnabled());
+        export.setPower(base.export().getPower());
+        export.setReducedWindow(base.export().getReducedWindow());
+        export.setMinPrice(exportMinPrice);
+
+        BatteryAutomationProperties battery = new BatteryAutomationProperties();
+        Map<Integer, Integer> times = new HashMap<>();
+        base.battery().getTimes().forEach((hour, level) -> times.put(hour, Math.clamp(level + batteryOffset, 0, 100)));
+        battery.setEnabled(base.battery().isEnabled());
+        battery.setTimes(times);
+        battery.setWeekIncrease(base.battery().getWeekIncrease());
+
+        ForceDischargeProperties sell = new ForceDischargeProperties();
+        sell.setEnabled(base.sell().isEnabled());
+        sell.setWindow(base.sell().getWindow());
+        sell.setArmCron(base.sell().getArmCron());
+        sell.setEarlyStartMinutes(base.sell().getEarlyStartMinutes());
+        sell.setPriceContinuityDelta(base.sell().getPriceContinuityDelta());
+        sell.setMinPrice(sellMinPrice);
+        sell.setMinBattery(sellMinBattery);
+        sell.setTargetBattery(sellTargetBattery);
+
+        WeatherQualityProperties weather = new WeatherQualityProperties();
+        WeatherQualityProperties.Threshold threshold = new WeatherQualityProperties.Threshold();
+        threshold.setCloudy(weatherCloudy);
+        threshold.setThunderstorm(weatherThunderstorm);
+        weather.setEnabled(base.weather().isEnabled());
+        weather.setThunderstormHourWindow(base.weather().getThunderstormHourWindow());
+        weather.setThreshold(threshold);
+
+        return new BacktestParameters(export, battery, sell, weather);
+    }
+
+    @Override
+    public String toString() {
+        return "export.minPrice=" + exportMinPrice +
+                ", sell.minPrice=" + sellMinPrice +
+                ", sell.minBattery=" + sellMinBattery +
+                ", sell.targetBattery=" + sellTargetBattery +
+                ", weather.cloudy=" + weatherCloudy +
+                ", weather.thunderstorm=" + weatherThunderstorm +
+                ", battery.times" + (batteryOffset < 0 ? "" : "+") + batteryOffset;
+    }
+}
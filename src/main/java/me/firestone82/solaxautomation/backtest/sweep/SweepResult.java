@@ -0,0 +1,25 @@
+package me.firestone82.solaxautomation.backtest.sweep;
+
+/**
+ * Backtest outcome of a sweep candidate over all replayed days.
+ *
+ * @param revenue grid export income minus import cost (CZK)
+ * @param writes  Modbus writes the checkers would have made
+ * @param cycles  equivalent full battery cycles
+ */
+public record SweepResult(SweepCandidate candidate, double revenue, int writes, double cycles) {
+
+    /**
+     * Whether this result is at least as good as {@code other} in revenue, writes and cycling, and better in one.
+     */
+    public boolean dominates(SweepResult other) {
+        boolean notWorse = revenue >= other.revenue && writes <= other.writes && cycles <= other.cycles;
+        boolean better = revenue > other.revenue || writes < other.writes || cycles < other.cycles;
+
+        return notWorse && better;
+    }
+
+    public boolean sameOutcome(SweepResult other) {
+        return revenue == other.revenue && writes == other.writes && cycles == other.cycles;
+    }
+}
@@ -0,0 +1,65 @@
+package me.firestone82.solaxautomation.backtest.sweep;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.automation.properties.BatteryAutomationProperties;
+import me.firestone82.solaxautomation.automation.properties.ForceDischargeProperties;
+import me.firestone82.solaxautomation.automation.properties.NegativeExportProperties;
+import me.firestone82.solaxautomation.automation.properties.WeatherQualityProperties;
+import me.firestone82.solaxautomation.backtest.BacktestEngine;
+import me.firestone82.solaxautomation.backtest.BacktestParameters;
+import me.firestone82.solaxautomation.backtest.BacktestProperties;
+import me.firestone82.solaxautomation.backtest.DayInputs;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sweeps the checker thresholds over {@code backtest.from..backtest.to} (the last 30 days by default) once the
+ * application is ready, and logs the Pareto front of revenue against inverter writes and battery cycling.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "backtest.sweep.enabled", havingValue = "true")
+public class SweepRunner {
+    private final BacktestEngine engine;
+    private final ParameterSweep sweep;
+    private final BacktestProperties properties;
+    private final NegativeExportProperties exportProperties;
+    private final BatteryAutomationProperties batteryProperties;
+    private final ForceDischargeProperties sellProperties;
+    private final WeatherQualityProperties weatherProperties;
+    private final Clock clock;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        LocalDate to = properties.getTo() != null ? properties.getTo() : LocalDate.now(clock).minusDays(1);
+        LocalDate from = properties.getFrom() != null ? properties.getFrom() : to.minusDays(29);
+
+        BacktestParameters base = new BacktestParameters(exportProperties, batteryProperties, sellProperties, weatherProperties);
+        List<SweepCandidate> candidates = sweep.candidates();
+        List<DayInputs> days = engine.load(from, to);
+
+        log.info("==".repeat(40));
+        log.info("Sweeping {} parameter candidates over {} days of {} – {}", candidates.size(), days.size(), from, to);
+
+        long start = System.nanoTime();
+        List<SweepResult> results = sweep.run(days, base, candidates);
+        List<SweepResult> front = ParameterSweep.paretoFront(results);
+
+        log.info("Sweep took {} ms, {} candidates on the Pareto front:", (System.nanoTime() - start) / 1_000_000, front.size());
+        for (SweepResult result : front) {
+            log.info(" - revenue {} CZK, {} writes, {} cycles: {}", round(result.revenue()), result.writes(), round(result.cycles()), result.candidate());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,31 @@
+package me.firestone82.solaxautomation.scheduling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/**
+ * Clock of the application. Components read the current time only through the injected {@link Clock}, so it can be
+ * replaced by the {@link VirtualClock} of {@link VirtualTimeConfiguration}. Both run in {@code scheduling.zone}, and
+ * components take their zone from the clock.
+ */
+@Configuration
+public class ClockConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(value = "scheduling.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    public Clock clock(@Value("${scheduling.zone:}") String zoneId) {
+        return Clock.system(zone(zoneId));
+    }
+
+    /**
+     * The configured zone, or the system default when not set.
+     */
+    static ZoneId zone(String zoneId) {
+        return zoneId == null || zoneId.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+    }
+}
@@ -0,0 +1,61 @@
+package me.firestone82.solaxautomation.scheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clock that only moves when told to, driven by the {@link VirtualTimeScheduler}. Clocks derived with
+ * {@link #withZone(ZoneId)} share the same time.
+ */
+public class VirtualClock extends Clock {
+
+    private final AtomicReference<Instant> now;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this(new AtomicReference<>(start), zone);
+    }
+
+    private VirtualClock(AtomicReference<Instant> now, ZoneId zone) {
+        this.now = now;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new VirtualClock(now, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return now.get();
+    }
+
+    /**
+     * Move the clock forward to {@code time}; the clock never goes back.
+     */
+    public void set(Instant time) {
+        now.accumulateAndGet(time, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Virtual time cannot go back");
+        }
+
+        now.updateAndGet(current -> current.plus(duration));
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualClock[" + now.get() + "," + zone + "]";
+    }
+}
@@ -0,0 +1,61 @@
+package me.firestone82.solaxautomation.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.*;
+
+/**
+ * Runs the application in virtual time, e.g. against the built-in inverter simulator.
+ * <p>
+ * The {@link VirtualClock} replaces the system clock and the {@link VirtualTimeScheduler} replaces the task scheduler
+ * of {@code @Scheduled} methods. Once the application is ready, a driver thread fast-forwards through
+ * {@code scheduling.virtual.duration} of scheduled tasks, starting at {@code scheduling.virtual.start}. The
+ * MeteoSource and OTE services replay their archives instead of calling the APIs, whose data is of the real now.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(value = "scheduling.virtual.enabled", havingValue = "true")
+public class VirtualTimeConfiguration {
+
+    @Value("${scheduling.virtual.duration:P1D}")
+    private Duration duration;
+
+    @Bean
+    public VirtualClock clock(
+            @Value("${scheduling.zone:}") String zoneId,
+            @Value("${scheduling.virtual.start:}") String start
+    ) {
+        ZoneId zone = ClockConfiguration.zone(zoneId);
+        Instant startTime = start.isBlank() ? Instant.now() : LocalDateTime.parse(start).atZone(zone).toInstant();
+
+        return new VirtualClock(startTime, zone);
+    }
+
+    @Bean
+    public VirtualTimeScheduler taskScheduler(VirtualClock clock) {
+        return new VirtualTimeScheduler(clock);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(ApplicationReadyEvent event) {
+        VirtualTimeScheduler scheduler = event.getApplicationContext().getBean(VirtualTimeScheduler.class);
+        Instant until = scheduler.getClock().instant().plus(duration);
+
+        Thread driver = new Thread(() -> {
+            long startNanos = System.nanoTime();
+            log.info("Running scheduled tasks in virtual time from {} until {}", scheduler.getClock().instant(), until);
+
+            int executed = scheduler.runUntil(until);
+            log.info("Virtual time reached {}: {} tasks in {} ms", until, executed, Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        }, "VirtualTime-Driver");
+
+        driver.setDaemon(true);
+        driver.start();
+    }
+}
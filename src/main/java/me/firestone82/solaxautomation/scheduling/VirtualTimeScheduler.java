@@ -0,0 +1,227 @@
+package me.firestone82.solaxautomation.scheduling;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * {@link TaskScheduler} running in virtual time.
+ * <p>
+ * Scheduled tasks wait in a queue ordered by execution time until {@link #runUntil(Instant)} or
+ * {@link #advance(Duration)} is called. These run every due task on the calling thread, in time order, moving the
+ * {@link VirtualClock} to the execution time of each, so cron triggers fire in simulated time as fast as the tasks
+ * run. Tasks of the same time run in the order they were scheduled. Time does not pass while a task runs, so fixed
+ * rate and fixed delay behave the same. Exceptions of a task are logged and do not stop it from being rescheduled.
+ */
+@Slf4j
+public class VirtualTimeScheduler implements TaskScheduler {
+
+    private final VirtualClock clock;
+    private final PriorityQueue<VirtualTask> queue = new PriorityQueue<>(Comparator
+            .comparing((VirtualTask task) -> task.time)
+            .thenComparingLong(task -> task.sequence)
+    );
+    private long sequence;
+
+    @Getter
+    private volatile long executedTasks;
+
+    public VirtualTimeScheduler(VirtualClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Run every task due at or before {@code until}, then leave the clock at {@code until}.
+     *
+     * @return number of executed tasks
+     */
+    public int runUntil(Instant until) {
+        int executed = 0;
+
+        for (VirtualTask task = poll(until); task != null; task = poll(until)) {
+            clock.set(task.time);
+            task.run();
+            executed++;
+        }
+
+        clock.set(until);
+        executedTasks += executed;
+        return executed;
+    }
+
+    public int advance(Duration duration) {
+        return runUntil(clock.instant().plus(duration));
+    }
+
+    /**
+     * Execution time of the next waiting task.
+     */
+    public synchronized Optional<Instant> nextExecution() {
+        return Optional.ofNullable(queue.peek()).map(task -> task.time);
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    @Override
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        SimpleTriggerContext context = new SimpleTriggerContext(clock);
+        Instant first = trigger.nextExecution(context);
+
+        if (first == null) {
+            return null;
+        }
+
+        return submit(task, first, (VirtualTask executed) -> {
+            context.update(executed.time, executed.started, clock.instant());
+            return trigger.nextExecution(context);
+        });
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+        return submit(task, startTime, null);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+        return submit(task, startTime, executed -> executed.time.plus(period));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        return scheduleAtFixedRate(task, clock.instant(), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+        return submit(task, startTime, executed -> clock.instant().plus(delay));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        return scheduleWithFixedDelay(task, clock.instant(), delay);
+    }
+
+    private synchronized VirtualTask submit(Runnable runnable, Instant time, Function<VirtualTask, Instant> next) {
+        VirtualTask task = new VirtualTask(runnable, next);
+        enqueue(task, time);
+        return task;
+    }
+
+    private synchronized void enqueue(VirtualTask task, Instant time) {
+        task.time = time.isBefore(clock.instant()) ? clock.instant() : time;
+        task.sequence = sequence++;
+        queue.add(task);
+    }
+
+    private synchronized VirtualTask poll(Instant until) {
+        VirtualTask task = queue.peek();
+        if (task == null || task.time.isAfter(until)) {
+            return null;
+        }
+
+        return queue.poll();
+    }
+
+    private synchronized void remove(VirtualTask task) {
+        queue.remove(task);
+    }
+
+    /**
+     * Scheduled task, rescheduled after each run while {@code next} gives another execution time.
+     */
+    private class VirtualTask implements ScheduledFuture<Object> {
+        private final Runnable runnable;
+        private final Function<VirtualTask, Instant> next;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Instant time;
+        private Instant started;
+        private long sequence;
+
+        private VirtualTask(Runnable runnable, Function<VirtualTask, Instant> next) {
+            this.runnable = runnable;
+            this.next = next;
+        }
+
+        private void run() {
+            if (future.isDone()) {
+                return;
+            }
+
+            started = clock.instant();
+
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                log.error("Unexpected error in virtual time task at {}", started, e);
+
+                if (next == null) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+            }
+
+            Instant nextTime = next == null ? null : next.apply(this);
+            if (nextTime == null) {
+                future.complete(null);
+            } else if (!future.isDone()) {
+                enqueue(this, nextTime);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(clock.instant(), time));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = future.cancel(mayInterruptIfRunning);
+            remove(this);
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            return future.get();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return future.get(timeout, unit);
+        }
+    }
+}
@@ -3,9 +3,12 @@ package me.firestone82.solaxautomation.service.meteosource;
 import lombok.extern.slf4j.Slf4j;
 import me.firestone82.solaxautomation.http.HeaderInterceptor;
 import me.firestone82.solaxautomation.http.serialization.GsonService;
+import me.firestone82.solaxautomation.service.meteosource.archive.ForecastArchive;
+import me.firestone82.solaxautomation.service.meteosource.cache.ForecastCache;
 import me.firestone82.solaxautomation.service.meteosource.model.WeatherForecast;
 import okhttp3.OkHttpClient;
 import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import retrofit2.Response;
@@ -13,6 +16,7 @@ import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 import java.io.IOException;
+import java.time.Clock;
 import java.util.Optional;
 
 @Slf4j
@@ -29,10 +33,18 @@ public class MeteoSourceService {
     public String lon;
 
     private final MeteoSourceAPI api;
+    private final ForecastArchive archive;
+    private final ForecastCache cache;
+    private final Clock clock;
+    private final boolean replay;
 
     public MeteoSourceService(
             @Value("${meteosource.api.url}") String apiUrl,
-            @Value("${meteosource.api.key}") String apiKey
+            @Value("${meteosource.api.key}") String apiKey,
+            @Autowired ForecastArchive archive,
+            @Autowired ForecastCache cache,
+            @Autowired Clock clock,
+            @Value("${scheduling.virtual.enabled:false}") boolean replay
     ) {
         log.info("Initializing MeteoSource service with API url: {}", apiUrl);
 
@@ -47,11 +59,28 @@ public class MeteoSourceService {
                 .build();
 
         this.api = retrofit.create(MeteoSourceAPI.class);
+        this.archive = archive;
+        this.cache = cache;
+        this.clock = clock;
+        this.replay = replay;
 
-        log.info("MeteoSource service initialized successfully");
+        log.info("MeteoSource service initialized successfully{}", replay ? ", replaying archived forecasts in virtual time" : "");
     }
 
+    /**
+     * Current weather and hourly forecast, served from the {@link ForecastCache} while it is fresh. In virtual time
+     * the API is not called, the latest forecast of the {@link ForecastArchive} issued before the virtual now is
+     * replayed instead.
+     */
     public Optional<WeatherForecast> getCurrentWeather() {
+        if (replay) {
+            return archive.replay(clock.instant());
+        }
+
+        return cache.get(this::fetchCurrentWeather);
+    }
+
+    private Optional<WeatherForecast> fetchCurrentWeather() {
         log.debug("Request to get current weather");
 
         try {
@@ -74,6 +103,7 @@ public class MeteoSourceService {
                     return Optional.empty();
                 }
 
+                archive.record(response.body(), clock.instant());
                 return Optional.of(response.body());
             } else {
                 try (ResponseBody errorBody = response.errorBody()) {
@@ -0,0 +1,29 @@
+package me.firestone82.solaxautomation.service.meteosource.archive;
+
+import me.firestone82.solaxautomation.service.meteosource.model.type.WeatherType;
+
+import java.time.Instant;
+
+/**
+ * One archived hourly forecast.
+ *
+ * @param issued     time the forecast snapshot was fetched
+ * @param target     start of the forecast hour
+ * @param cloudCover forecast total cloud cover (%)
+ * @param weather    forecast weather, {@link WeatherType#NOT_AVAILABLE} if none was given
+ */
+public record ArchivedForecast(
+        Instant issued,
+        Instant target,
+        double cloudCover,
+        WeatherType weather,
+        double temperature
+) {
+
+    /**
+     * Weather quality as computed by {@link me.firestone82.solaxautomation.service.meteosource.model.MeteoDayHourly#getQuality()}.
+     */
+    public double getQuality() {
+        return weather.getLevel() + (cloudCover / 100);
+    }
+}
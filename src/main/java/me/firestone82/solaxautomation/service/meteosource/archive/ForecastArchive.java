@@ -0,0 +1,457 @@
+package me.firestone82.solaxautomation.service.meteosource.archive;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.http.data.DataWrapper;
+import me.firestone82.solaxautomation.service.meteosource.model.MeteoDayHourly;
+import me.firestone82.solaxautomation.service.meteosource.model.WeatherForecast;
+import me.firestone82.solaxautomation.service.meteosource.model.type.Cloud;
+import me.firestone82.solaxautomation.service.meteosource.model.type.WeatherType;
+import me.firestone82.solaxautomation.service.telemetry.TelemetryChannel;
+import me.firestone82.solaxautomation.service.telemetry.rollup.Aggregate;
+import me.firestone82.solaxautomation.service.telemetry.rollup.TelemetryRollups;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Archive of MeteoSource hourly forecasts joined against the measured PV output.
+ * <p>
+ * Every forecast snapshot (at most one per issue hour) is appended to a log of fixed 16 byte records holding the
+ * issue time, the target hour and the forecast cloud cover, weather and temperature. The weather is stored as its
+ * MeteoSource icon code, so reordering {@link WeatherType} does not change archived records. The horizon is the
+ * number of whole hours between issue and target.
+ * <p>
+ * Once an hour has passed, the records targeting it are joined with the PV power measured in that hour
+ * ({@code POWER_DC}, taken from the telemetry rollups). The forecast cloud cover is turned into expected power with
+ * the Kasten-Czeplak cloud model, scaled by the best hourly PV power of the same hour over the previous
+ * {@value #REFERENCE_DAYS} days as clear-sky reference. The errors are accumulated per horizon. Only records not yet
+ * joined are kept in memory; the accumulators and the log position they cover are persisted after each join, so
+ * history is never reprocessed.
+ */
+@Slf4j
+@Component
+public class ForecastArchive {
+
+    public static final int MAX_HORIZON = 7 * 24;
+
+    private static final int RECORD = 16;
+    private static final int REFERENCE_DAYS = 30;
+    private static final int STATE_MAGIC = 0x46435354; // "FCST"
+    // Format of the last record field; older records have 0 there and store the weather as its ordinal
+    private static final short FORMAT_WEATHER_CODE = 1;
+    private static final WeatherType[] LEGACY_WEATHER_TYPES = WeatherType.values();
+    private static final Map<Integer, WeatherType> WEATHER_BY_CODE = new HashMap<>();
+
+    static {
+        for (WeatherType type : WeatherType.values()) {
+            WEATHER_BY_CODE.put(type.getCode(), type);
+        }
+    }
+
+    private final Path logFile;
+    private final Path stateFile;
+    private final FileChannel file;
+    private final TelemetryRollups rollups;
+    private final Clock clock;
+    private final ZoneId zone;
+
+    // Records whose target hour was not joined yet, in log order
+    private final List<PendingRecord> pending = new ArrayList<>();
+    private int lastIssuedHour = Integer.MIN_VALUE;
+
+    // Join state, persisted
+    private int joinedUntilHour = Integer.MIN_VALUE;
+    private final long[] count = new long[MAX_HORIZON + 1];
+    private final double[] sumError = new double[MAX_HORIZON + 1];
+    private final double[] sumAbsError = new double[MAX_HORIZON + 1];
+    private final double[] sumSquaredError = new double[MAX_HORIZON + 1];
+
+    private record PendingRecord(long offset, int issuedHour, int targetHour, double cloudCover) {
+    }
+
+    public ForecastArchive(
+            @Value("${meteosource.archive.path:data/meteosource}") String path,
+            @Autowired TelemetryRollups rollups,
+            @Autowired Clock clock
+    ) throws IOException {
+        Path root = Path.of(path);
+        Files.createDirectories(root);
+
+        this.logFile = root.resolve("forecasts.log");
+        this.stateFile = root.resolve("accuracy.bin");
+        this.rollups = rollups;
+        this.clock = clock;
+        this.zone = clock.getZone();
+        this.file = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long cursor = readState();
+        loadPending(cursor);
+
+        log.info("Forecast archive at {} ({} records, {} awaiting join)", root.toAbsolutePath(), file.size() / RECORD, pending.size());
+    }
+
+    /**
+     * Archive the hourly forecast of a snapshot fetched at {@code issued}; later snapshots of the same hour are skipped.
+     */
+    public synchronized void record(WeatherForecast forecast, Instant issued) {
+        int issuedHour = epochHour(issued);
+        if (issuedHour <= lastIssuedHour || forecast.getHourly() == null) {
+            return;
+        }
+
+        int issuedMinute = (int) (issued.getEpochSecond() / 60);
+        ByteBuffer records = ByteBuffer.allocate(forecast.getHourly().size() * RECORD);
+        List<PendingRecord> added = new ArrayList<>();
+
+        try {
+            long offset = file.size();
+
+            for (MeteoDayHourly hour : forecast.getHourly()) {
+                if (hour.getDate() == null || hour.getCloud_cover() == null) {
+                    continue;
+                }
+
+                int targetHour = epochHour(hour.getDate().atZone(zone).toInstant());
+                if (targetHour < issuedHour || targetHour - issuedHour > MAX_HORIZON) {
+                    continue;
+                }
+
+                records.putInt(issuedMinute)
+                        .putInt(targetHour)
+                        .putShort((short) Math.round(hour.getCloud_cover().getTotal() * 10))
+                        .putShort((short) (hour.getWeather() == null ? -1 : hour.getWeather().getCode()))
+                        .putShort((short) Math.round(hour.getTemperature() * 10))
+                        .putShort(FORMAT_WEATHER_CODE);
+
+                added.add(new PendingRecord(offset + records.position() - RECORD, issuedHour, targetHour, hour.getCloud_cover().getTotal()));
+            }
+
+            records.flip();
+            while (records.hasRemaining()) {
+                file.write(records, offset + records.position());
+            }
+
+            file.force(false);
+            pending.addAll(added);
+            lastIssuedHour = issuedHour;
+        } catch (IOException e) {
+            log.error("Failed to archive weather forecast: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Join the records of every hour that passed since the last join with the measured PV power.
+     */
+    @Scheduled(cron = "${meteosource.archive.join-cron:0 5 * * * *}", zone = "${scheduling.zone:}")
+    public synchronized void join() {
+        int currentHour = epochHour(clock.instant());
+        Map<Integer, OptionalDouble> actual = new HashMap<>();
+        Map<Integer, OptionalDouble> predictedClearSky = new HashMap<>();
+        int joined = 0;
+
+        Iterator<PendingRecord> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            PendingRecord record = iterator.next();
+            if (record.targetHour() >= currentHour) {
+                continue;
+            }
+
+            iterator.remove();
+
+            OptionalDouble measured = actual.computeIfAbsent(record.targetHour(), this::measuredPower);
+            OptionalDouble clearSky = predictedClearSky.computeIfAbsent(record.targetHour(), this::clearSkyPower);
+
+            // No telemetry for the hour, or night
+            if (measured.isEmpty() || clearSky.isEmpty()) {
+                continue;
+            }
+
+            double predicted = clearSky.getAsDouble() * (1 - 0.75 * Math.pow(record.cloudCover() / 100, 3.4));
+            double error = predicted - measured.getAsDouble();
+            int horizon = record.targetHour() - record.issuedHour();
+
+            count[horizon]++;
+            sumError[horizon] += error;
+            sumAbsError[horizon] += Math.abs(error);
+            sumSquaredError[horizon] += error * error;
+            joined++;
+        }
+
+        joinedUntilHour = currentHour - 1;
+
+        try {
+            writeState(pending.isEmpty() ? file.size() : pending.getFirst().offset());
+        } catch (IOException e) {
+            log.error("Failed to save forecast accuracy: {}", e.getMessage());
+        }
+
+        log.debug("Joined {} forecast records with measured PV power, {} awaiting", joined, pending.size());
+    }
+
+    /**
+     * Error statistics of every horizon with at least one joined forecast.
+     */
+    public synchronized List<HorizonError> getErrors() {
+        List<HorizonError> errors = new ArrayList<>();
+
+        for (int horizon = 0; horizon <= MAX_HORIZON; horizon++) {
+            long n = count[horizon];
+            if (n == 0) {
+                continue;
+            }
+
+            errors.add(new HorizonError(horizon, n, sumError[horizon] / n, sumAbsError[horizon] / n, Math.sqrt(sumSquaredError[horizon] / n)));
+        }
+
+        return errors;
+    }
+
+    public synchronized Optional<HorizonError> getError(int horizonHours) {
+        return getErrors().stream().filter(error -> error.horizonHours() == horizonHours).findFirst();
+    }
+
+    /**
+     * Archived forecasts issued within {@code from <= issued < to}, in issue order.
+     */
+    public synchronized List<ArchivedForecast> read(Instant from, Instant to) {
+        List<ArchivedForecast> forecasts = new ArrayList<>();
+
+        try {
+            long records = file.size() / RECORD;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD * 1024);
+
+            for (long position = firstIssuedAtOrAfter(from, records) * RECORD; position < records * RECORD; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), records * RECORD - position));
+                file.read(buffer, position);
+                buffer.flip();
+
+                while (buffer.remaining() >= RECORD) {
+                    Instant issued = Instant.ofEpochSecond(buffer.getInt() * 60L);
+                    if (!issued.isBefore(to)) {
+                        return forecasts;
+                    }
+
+                    Instant target = Instant.ofEpochSecond(buffer.getInt() * 3600L);
+                    double cloudCover = buffer.getShort() / 10.0;
+                    int weather = buffer.getShort();
+                    double temperature = buffer.getShort() / 10.0;
+                    short format = buffer.getShort();
+
+                    forecasts.add(new ArchivedForecast(issued, target, cloudCover, weatherType(weather, format), temperature));
+                    position += RECORD;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read archived forecasts: {}", e.getMessage());
+        }
+
+        return forecasts;
+    }
+
+    /**
+     * The latest forecast issued within a day before {@code at}, rebuilt from its archived hours. Only the fields
+     * kept by the archive are set: date, weather, cloud cover and temperature of each hour.
+     */
+    public synchronized Optional<WeatherForecast> replay(Instant at) {
+        List<ArchivedForecast> forecasts = read(at.minusSeconds(24 * 3600), at.plusMillis(1));
+        if (forecasts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Instant issued = forecasts.getLast().issued();
+        List<MeteoDayHourly> hours = new ArrayList<>();
+
+        for (ArchivedForecast archived : forecasts) {
+            if (!archived.issued().equals(issued)) {
+                continue;
+            }
+
+            MeteoDayHourly hour = new MeteoDayHourly();
+            hour.setDate(LocalDateTime.ofInstant(archived.target(), zone));
+            hour.setWeather(archived.weather());
+            hour.setCloud_cover(new Cloud(archived.cloudCover()));
+            hour.setTemperature((float) archived.temperature());
+            hours.add(hour);
+        }
+
+        WeatherForecast forecast = new WeatherForecast();
+        forecast.setHourly(new DataWrapper<>(hours));
+        return Optional.of(forecast);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Average PV power (W) measured in the hour, if telemetry covers it.
+     */
+    private OptionalDouble measuredPower(int epochHour) {
+        Instant start = Instant.ofEpochSecond(epochHour * 3600L);
+        Aggregate pv1 = rollups.aggregate(TelemetryChannel.PV1_POWER, start, start.plusSeconds(3600));
+        Aggregate pv2 = rollups.aggregate(TelemetryChannel.PV2_POWER, start, start.plusSeconds(3600));
+
+        if (pv1.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+
+        return OptionalDouble.of(pv1.getAverage() + (pv2.isEmpty() ? 0 : pv2.getAverage()));
+    }
+
+    /**
+     * Best measured PV power of the same hour over the previous days, or empty when no sun was ever seen then.
+     */
+    private OptionalDouble clearSkyPower(int epochHour) {
+        double best = 0;
+
+        for (int day = 1; day <= REFERENCE_DAYS; day++) {
+            OptionalDouble power = measuredPower(epochHour - day * 24);
+            if (power.isPresent()) {
+                best = Math.max(best, power.getAsDouble());
+            }
+        }
+
+        return best > 0 ? OptionalDouble.of(best) : OptionalDouble.empty();
+    }
+
+    /**
+     * Binary search of the first record issued at or after {@code from}; records are appended in issue order.
+     */
+    private long firstIssuedAtOrAfter(Instant from, long records) throws IOException {
+        long fromMinute = Math.ceilDiv(from.getEpochSecond(), 60);
+        ByteBuffer issued = ByteBuffer.allocate(Integer.BYTES);
+        long low = 0;
+        long high = records;
+
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            file.read(issued.clear(), middle * RECORD);
+
+            if (issued.getInt(0) < fromMinute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static WeatherType weatherType(int weather, short format) {
+        if (weather < 0) {
+            return WeatherType.NOT_AVAILABLE;
+        }
+
+        if (format == FORMAT_WEATHER_CODE) {
+            return WEATHER_BY_CODE.getOrDefault(weather, WeatherType.NOT_AVAILABLE);
+        }
+
+        return weather < LEGACY_WEATHER_TYPES.length ? LEGACY_WEATHER_TYPES[weather] : WeatherType.NOT_AVAILABLE;
+    }
+
+    private static int epochHour(Instant instant) {
+        return (int) Math.floorDiv(instant.getEpochSecond(), 3600);
+    }
+
+    /**
+     * @return log position from which records may still be pending
+     */
+    private long readState() throws IOException {
+        if (!Files.exists(stateFile)) {
+            return 0;
+        }
+
+        ByteBuffer state = ByteBuffer.wrap(Files.readAllBytes(stateFile));
+        if (state.remaining() < Integer.BYTES * 3 + Long.BYTES || state.getInt() != STATE_MAGIC) {
+            log.warn("Ignoring invalid forecast accuracy state {}", stateFile);
+            return 0;
+        }
+
+        joinedUntilHour = state.getInt();
+        long cursor = state.getLong();
+        int horizons = Math.min(state.getInt(), MAX_HORIZON + 1);
+
+        for (int horizon = 0; horizon < horizons; horizon++) {
+            count[horizon] = state.getLong();
+            sumError[horizon] = state.getDouble();
+            sumAbsError[horizon] = state.getDouble();
+            sumSquaredError[horizon] = state.getDouble();
+        }
+
+        return cursor;
+    }
+
+    private void writeState(long cursor) throws IOException {
+        ByteBuffer state = ByteBuffer.allocate(Integer.BYTES * 3 + Long.BYTES + (MAX_HORIZON + 1) * (Long.BYTES + Double.BYTES * 3))
+                .putInt(STATE_MAGIC)
+                .putInt(joinedUntilHour)
+                .putLong(cursor)
+                .putInt(MAX_HORIZON + 1);
+
+        for (int horizon = 0; horizon <= MAX_HORIZON; horizon++) {
+            state.putLong(count[horizon])
+                    .putDouble(sumError[horizon])
+                    .putDouble(sumAbsError[horizon])
+                    .putDouble(sumSquaredError[horizon]);
+        }
+
+        Path temporary = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.write(temporary, state.array());
+        Files.move(temporary, stateFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read the log from the cursor, keeping the records whose target hour was not joined yet, and restore the last
+     * issue hour from the last record.
+     */
+    private void loadPending(long cursor) throws IOException {
+        long size = file.size() - file.size() % RECORD;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD * 1024);
+
+        // Records are appended in issue order, and the cursor may already be past all of them
+        if (size >= RECORD) {
+            file.read(buffer.limit(Integer.BYTES), size - RECORD);
+            lastIssuedHour = buffer.getInt(0) / 60;
+        }
+
+        for (long position = cursor; position < size; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+            file.read(buffer, position);
+            buffer.flip();
+
+            while (buffer.remaining() >= RECORD) {
+                int issuedHour = buffer.getInt() / 60;
+                int targetHour = buffer.getInt();
+                double cloudCover = buffer.getShort() / 10.0;
+                buffer.position(buffer.position() + 6);
+
+                if (targetHour > joinedUntilHour) {
+                    pending.add(new PendingRecord(position, issuedHour, targetHour, cloudCover));
+                }
+
+                position += RECORD;
+            }
+        }
+
+        // A torn record from a crash during append
+        if (size != file.size()) {
+            file.truncate(size);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package me.firestone82.solaxautomation.service.meteosource.archive;
+
+/**
+ * Accuracy of the PV power predicted from forecasts issued {@code horizonHours} before the target hour.
+ *
+ * @param bias mean of predicted minus measured power (W); positive when the forecast is too optimistic
+ */
+public record HorizonError(
+        int horizonHours,
+        long count,
+        double bias,
+        double meanAbsoluteError,
+        double rootMeanSquareError
+) {
+}
@@ -0,0 +1,165 @@
+package me.firestone82.solaxautomation.service.meteosource.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.http.serialization.GsonService;
+import me.firestone82.solaxautomation.service.meteosource.model.WeatherForecast;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the latest MeteoSource forecast for {@code meteosource.cache.maxAge} ms, so the checkers running in the same
+ * hour share one API call of the quota-limited free tier.
+ * <p>
+ * Callers arriving while a fetch is in progress wait for it instead of starting their own. Every fetched forecast is
+ * written to {@code meteosource.cache.path} and read back on startup, so a restart within the max age does not fetch
+ * again. A failed fetch is not cached, the next caller tries again.
+ */
+@Slf4j
+@Component
+public class ForecastCache {
+
+    private final Path file;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private volatile Entry current;
+    private CompletableFuture<Optional<WeatherForecast>> inFlight;
+
+    public ForecastCache(
+            @Value("${meteosource.cache.path:data/meteosource/current.json}") String path,
+            @Value("${meteosource.cache.maxAge:1800000}") long maxAgeMillis,
+            @Autowired Clock clock
+    ) throws IOException {
+        this.file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+        this.clock = clock;
+        this.current = load();
+
+        if (current != null) {
+            log.info("Loaded cached weather forecast fetched at {} from {}", Instant.ofEpochMilli(current.fetched()), file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * The cached forecast if it is fresh, otherwise the result of {@code fetch}, shared with concurrent callers.
+     */
+    public Optional<WeatherForecast> get(Supplier<Optional<WeatherForecast>> fetch) {
+        Optional<WeatherForecast> cached = fresh();
+        if (cached.isPresent()) {
+            log.debug("Using cached weather forecast");
+            return cached;
+        }
+
+        CompletableFuture<Optional<WeatherForecast>> flight;
+        boolean owner = false;
+
+        synchronized (this) {
+            // Fetched while waiting for the lock
+            cached = fresh();
+            if (cached.isPresent()) {
+                return cached;
+            }
+
+            if (inFlight == null) {
+                inFlight = new CompletableFuture<>();
+                owner = true;
+            }
+
+            flight = inFlight;
+        }
+
+        if (!owner) {
+            log.debug("Waiting for weather forecast fetch in progress");
+
+            try {
+                return flight.join();
+            } catch (CompletionException e) {
+                // Fail the same way as the caller that fetched
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+
+                throw e;
+            }
+        }
+
+        try {
+            Optional<WeatherForecast> forecast = fetch.get();
+            forecast.ifPresent(this::store);
+            flight.complete(forecast);
+            return forecast;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                inFlight = null;
+            }
+        }
+    }
+
+    private Optional<WeatherForecast> fresh() {
+        Entry entry = current;
+
+        if (entry == null || clock.millis() - entry.fetched() > maxAge.toMillis()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.forecast());
+    }
+
+    private void store(WeatherForecast forecast) {
+        Entry entry = new Entry(clock.millis(), forecast);
+        current = entry;
+
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, GsonService.gson.toJson(entry), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to write cached weather forecast to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Entry load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            Entry entry = GsonService.gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            return entry != null && entry.forecast() != null && entry.forecast().getHourly() != null ? entry : null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable cached weather forecast {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param fetched epoch millis of the fetch
+     */
+    private record Entry(long fetched, WeatherForecast forecast) {
+    }
+}
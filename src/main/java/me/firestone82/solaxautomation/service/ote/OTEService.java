@@ -2,9 +2,11 @@ package me.firestone82.solaxautomation.service.ote;
 
 import lombok.extern.slf4j.Slf4j;
 import me.firestone82.solaxautomation.http.serialization.GsonService;
+import me.firestone82.solaxautomation.service.ote.archive.OTEPriceArchive;
 import me.firestone82.solaxautomation.service.ote.model.PowerForecast;
 import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
 import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import retrofit2.Response;
@@ -12,16 +14,37 @@ import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Day-ahead electricity prices of OTE.
+ * <p>
+ * Published prices do not change, so they are kept in memory per delivery day and the API is only asked again on a
+ * day rollover, or while the prices of tomorrow are not published yet. Days already in the {@link OTEPriceArchive},
+ * e.g. after a restart, are not fetched at all. In virtual time the API is never called and only archived days are
+ * served.
+ */
 @Slf4j
 @Component
 public class OTEService {
 
     private final OTEApi api;
+    private final OTEPriceArchive archive;
+    private final Clock clock;
+    private final boolean replay;
+    private final Map<LocalDate, List<PowerPriceHourly>> days = new HashMap<>();
 
     public OTEService(
-            @Value("${ote.baseUrl}") String baseUrl
+            @Value("${ote.baseUrl}") String baseUrl,
+            @Autowired OTEPriceArchive archive,
+            @Autowired Clock clock,
+            @Value("${scheduling.virtual.enabled:false}") boolean replay
     ) {
         String apiUrl = baseUrl + "/api/";
         log.info("Initializing OTE service with API url: {}", apiUrl);
@@ -33,11 +56,32 @@ public class OTEService {
                 .build();
 
         this.api = retrofit.create(OTEApi.class);
+        this.archive = archive;
+        this.clock = clock;
+        this.replay = replay;
 
-        log.info("OTE service initialized successfully");
+        log.info("OTE service initialized successfully{}", replay ? ", serving archived prices in virtual time" : "");
     }
 
+    /**
+     * Price of the current hour, answered from the cached prices of today.
+     */
     public Optional<PowerPriceHourly> getCurrentHourPrices() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Optional<PowerPriceHourly> cached = getPrices(now.toLocalDate(), false)
+                .flatMap(forecast -> forecast.getPricesToday().stream()
+                        .filter(price -> price.getHour() == now.getHour())
+                        .findFirst());
+
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        log.debug("Price of hour {} not cached", now.getHour());
+        return replay ? Optional.empty() : fetchCurrentHourPrices();
+    }
+
+    private Optional<PowerPriceHourly> fetchCurrentHourPrices() {
         log.debug("Requesting to get current hour prices");
 
         try {
@@ -55,7 +99,43 @@ public class OTEService {
         }
     }
 
+    /**
+     * Prices of today and tomorrow, tomorrow empty until published.
+     */
     public Optional<PowerForecast> getPrices() {
+        return getPrices(LocalDate.now(clock), true);
+    }
+
+    private synchronized Optional<PowerForecast> getPrices(LocalDate today, boolean withTomorrow) {
+        LocalDate tomorrow = today.plusDays(1);
+        days.keySet().removeIf(date -> date.isBefore(today));
+
+        for (LocalDate date : List.of(today, tomorrow)) {
+            if (!days.containsKey(date)) {
+                archive.getDay(date).filter(prices -> !prices.isEmpty()).ifPresent(prices -> days.put(date, prices));
+            }
+        }
+
+        if (!replay && (!days.containsKey(today) || (withTomorrow && !days.containsKey(tomorrow)))) {
+            fetchPrices(today).ifPresent(forecast -> {
+                if (forecast.getPricesToday() != null && !forecast.getPricesToday().isEmpty()) {
+                    days.put(today, forecast.getPricesToday());
+                }
+
+                if (forecast.getPricesTomorrow() != null && !forecast.getPricesTomorrow().isEmpty()) {
+                    days.put(tomorrow, forecast.getPricesTomorrow());
+                }
+            });
+        }
+
+        if (!days.containsKey(today)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new PowerForecast(days.get(today), days.getOrDefault(tomorrow, List.of())));
+    }
+
+    private Optional<PowerForecast> fetchPrices(LocalDate today) {
         log.debug("Requesting to get today and tomorrow prices");
 
         try {
@@ -63,6 +143,7 @@ public class OTEService {
 
             if (response.isSuccessful()) {
                 assert response.body() != null;
+                archive.archive(response.body(), today);
                 return Optional.of(response.body());
             } else {
                 throw new IllegalArgumentException("Error: " + response.code() + " " + response.message());
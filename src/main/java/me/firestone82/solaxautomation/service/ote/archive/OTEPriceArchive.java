@@ -0,0 +1,293 @@
+package me.firestone82.solaxautomation.service.ote.archive;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.ote.model.PowerForecast;
+import me.firestone82.solaxautomation.service.ote.model.PowerPriceHourly;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local archive of every fetched OTE day-ahead price, indexed by date.
+ * <p>
+ * A single file holds one fixed-size record per day, located at {@code (date - first date) * record size}, so
+ * the price of a (date, hour) is a single positional read. A record holds the number of archived hours followed
+ * by one slot per hour with the CZK and EUR price, a presence flag and the level. Level names are few and kept once in a small
+ * dictionary in the file header. Days never fetched read as missing; re-fetched days are only rewritten when
+ * their prices changed.
+ */
+@Slf4j
+@Component
+public class OTEPriceArchive {
+
+    public static final int HOURS = 24;
+
+    private static final int MAGIC = 0x4F544550; // "OTEP"
+    private static final int MAX_LEVELS = 16;
+    private static final int LEVEL_NAME = 24;
+    // magic, first epoch day, level count, level dictionary
+    private static final int HEADER = 512;
+    private static final int SLOT = 24;
+    private static final int RECORD = Long.BYTES + HOURS * SLOT;
+
+    private final Path path;
+    private final FileChannel file;
+    private final List<String> levels = new ArrayList<>();
+    private long firstEpochDay;
+
+    public OTEPriceArchive(@Value("${ote.archive.path:data/ote/prices.bin}") String path) throws IOException {
+        this.path = Path.of(path);
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+
+        this.file = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (file.size() >= HEADER) {
+            readHeader();
+            log.info("OTE price archive at {} ({} days from {})", this.path.toAbsolutePath(), dayCount(), getFirstDay().orElse(null));
+        } else {
+            firstEpochDay = Long.MIN_VALUE;
+            log.info("OTE price archive at {} is empty", this.path.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Archive a forecast fetched on {@code today}: its today prices under {@code today}, its tomorrow prices
+     * (once published) under the next day.
+     */
+    public synchronized void archive(PowerForecast forecast, LocalDate today) {
+        try {
+            boolean changed = writeDay(today, forecast.getPricesToday());
+            changed |= writeDay(today.plusDays(1), forecast.getPricesTomorrow());
+
+            if (changed) {
+                file.force(false);
+            }
+        } catch (IOException e) {
+            log.error("Failed to archive OTE prices of {}: {}", today, e.getMessage());
+        }
+    }
+
+    /**
+     * Archived price of one hour.
+     */
+    public synchronized Optional<PowerPriceHourly> get(LocalDate date, int hour) {
+        if (hour < 0 || hour >= HOURS) {
+            throw new IllegalArgumentException("Hour must be between 0 and " + (HOURS - 1));
+        }
+
+        ByteBuffer slot = read(date, Long.BYTES + hour * SLOT, SLOT);
+        return slot == null ? Optional.empty() : decode(hour, slot);
+    }
+
+    /**
+     * Archived prices of a day, ordered by hour, or empty if the day was never fetched.
+     */
+    public synchronized Optional<List<PowerPriceHourly>> getDay(LocalDate date) {
+        ByteBuffer record = read(date, 0, RECORD);
+        if (record == null || record.getLong() == 0) {
+            return Optional.empty();
+        }
+
+        List<PowerPriceHourly> prices = new ArrayList<>(HOURS);
+        for (int hour = 0; hour < HOURS; hour++) {
+            decode(hour, record.slice(Long.BYTES + hour * SLOT, SLOT)).ifPresent(prices::add);
+        }
+
+        return Optional.of(prices);
+    }
+
+    /**
+     * Forecast as it looked on {@code date}, with the archived next day as tomorrow prices.
+     */
+    public Optional<PowerForecast> getForecast(LocalDate date) {
+        return getDay(date).map(today -> new PowerForecast(today, getDay(date.plusDays(1)).orElse(List.of())));
+    }
+
+    public synchronized Optional<LocalDate> getFirstDay() {
+        return firstEpochDay == Long.MIN_VALUE ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(firstEpochDay));
+    }
+
+    public synchronized Optional<LocalDate> getLastDay() {
+        return getFirstDay().map(first -> first.plusDays(dayCount() - 1));
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    private long dayCount() {
+        try {
+            return Math.max(0, (file.size() - HEADER) / RECORD);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return false when the archived day already held the same prices
+     */
+    private boolean writeDay(LocalDate date, List<PowerPriceHourly> prices) throws IOException {
+        if (prices == null || prices.isEmpty()) {
+            return false;
+        }
+
+        if (firstEpochDay == Long.MIN_VALUE) {
+            firstEpochDay = date.toEpochDay();
+            writeHeader();
+        }
+
+        if (date.toEpochDay() < firstEpochDay) {
+            log.warn("Not archiving OTE prices of {}, archive starts at {}", date, LocalDate.ofEpochDay(firstEpochDay));
+            return false;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD);
+        BitSet stored = new BitSet(HOURS);
+
+        for (PowerPriceHourly price : prices) {
+            if (price == null || price.getHour() < 0 || price.getHour() >= HOURS) {
+                continue;
+            }
+
+            stored.set(price.getHour());
+            record.position(Long.BYTES + price.getHour() * SLOT)
+                    .putDouble(price.getPriceCZK())
+                    .putDouble(price.getPriceEUR())
+                    .putInt(price.getLevelNum())
+                    .putShort((short) 1)
+                    .putShort((short) levelId(price.getLevel()));
+        }
+
+        // Hours actually stored, without skipped entries and with repeated hours counted once
+        if (stored.isEmpty()) {
+            log.warn("Not archiving OTE prices of {}, none of the {} entries has a valid hour", date, prices.size());
+            return false;
+        }
+
+        record.putLong(0, stored.cardinality());
+
+        long position = offset(date);
+        ByteBuffer existing = ByteBuffer.allocate(RECORD);
+        file.read(existing, position);
+
+        if (Arrays.equals(existing.array(), record.array())) {
+            return false;
+        }
+
+        file.write(record.clear(), position);
+        log.debug("Archived {} OTE prices of {}", stored.cardinality(), date);
+
+        return true;
+    }
+
+    private Optional<PowerPriceHourly> decode(int hour, ByteBuffer slot) {
+        double priceCZK = slot.getDouble();
+        double priceEUR = slot.getDouble();
+        int levelNum = slot.getInt();
+        boolean present = slot.getShort() != 0;
+        int level = slot.getShort();
+
+        // Unused slots are zero filled
+        if (!present) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new PowerPriceHourly(hour, priceCZK, priceEUR, level >= 0 && level < levels.size() ? levels.get(level) : null, levelNum));
+    }
+
+    private ByteBuffer read(LocalDate date, int offset, int length) {
+        if (firstEpochDay == Long.MIN_VALUE || date.toEpochDay() < firstEpochDay) {
+            return null;
+        }
+
+        try {
+            long position = offset(date) + offset;
+            if (position + length > file.size()) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            file.read(buffer, position);
+            return buffer.flip();
+        } catch (IOException e) {
+            log.error("Failed to read archived OTE prices of {}: {}", date, e.getMessage());
+            return null;
+        }
+    }
+
+    private long offset(LocalDate date) {
+        return HEADER + (date.toEpochDay() - firstEpochDay) * RECORD;
+    }
+
+    /**
+     * Dictionary id of a level name, or -1 for a missing level or one that does not fit the dictionary.
+     */
+    private int levelId(String level) throws IOException {
+        if (level == null) {
+            return -1;
+        }
+
+        int id = levels.indexOf(level);
+        if (id >= 0) {
+            return id;
+        }
+
+        if (levels.size() >= MAX_LEVELS || level.getBytes(StandardCharsets.UTF_8).length > LEVEL_NAME) {
+            log.warn("OTE price level '{}' does not fit the archive dictionary, storing without level", level);
+            return -1;
+        }
+
+        levels.add(level);
+        writeHeader();
+        return levels.size() - 1;
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        file.read(header, 0);
+        header.flip();
+
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not an OTE price archive: " + path);
+        }
+
+        firstEpochDay = header.getLong();
+        int count = header.getInt();
+
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[LEVEL_NAME];
+            header.get(name);
+            levels.add(new String(name, StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER)
+                .putInt(MAGIC)
+                .putLong(firstEpochDay)
+                .putInt(levels.size());
+
+        for (String level : levels) {
+            header.put(Arrays.copyOf(level.getBytes(StandardCharsets.UTF_8), LEVEL_NAME));
+        }
+
+        file.write(header.clear(), 0);
+    }
+}
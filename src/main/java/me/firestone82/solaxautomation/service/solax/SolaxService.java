@@ -1,17 +1,32 @@
 package me.firestone82.solaxautomation.service.solax;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import me.firestone82.solaxautomation.service.solax.client.SolaxClient;
+import me.firestone82.solaxautomation.service.solax.client.plan.RegisterValues;
+import me.firestone82.solaxautomation.service.solax.connection.ConnectionState;
+import me.firestone82.solaxautomation.service.solax.connection.SolaxConnectionManager;
+import me.firestone82.solaxautomation.service.solax.model.InverterConnectionEvent;
 import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.model.InverterWriteEvent;
 import me.firestone82.solaxautomation.service.solax.model.ManualMode;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
 import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
 import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Getter
@@ -19,75 +34,171 @@ import java.util.Optional;
 public class SolaxService {
 
     private final SolaxClient solaxClient;
+    private final ApplicationEventPublisher eventPublisher;
     private final int unitId;
+    @Getter(AccessLevel.NONE)
+    private final Integer password;
+    private final AtomicBoolean preparing = new AtomicBoolean(false);
 
     public SolaxService(
             @Autowired SolaxClient solaxClient,
+            @Autowired ApplicationEventPublisher eventPublisher,
             @Value("${solax.unitId}") int unitId,
             @Value("${solax.password}") Integer password
     ) {
         log.info("Initializing Solax service");
 
         this.solaxClient = solaxClient;
+        this.eventPublisher = eventPublisher;
         this.unitId = unitId;
+        this.password = password;
 
+        // A failed attempt is retried by the connection manager with backoff
         if (solaxClient.connect()) {
             log.info("Successfully connected to Solax inverter (unit ID: {})", unitId);
-
-            log.debug("Requesting to read inverter serial number (unit ID: {})", unitId);
-            Optional<String> optInverterSn = solaxClient.read(ReadRegister.INVERTER_SN, unitId);
-            if (optInverterSn.isPresent()) {
-                log.info("- Inverter serial number: {}", optInverterSn.get());
-            } else {
-                log.error("Unable to read inverter serial number (unit ID: {}). Exiting.", unitId);
-                System.exit(1);
-            }
-
-            // Unlock the inverter if found locked
-            unlock(password);
         } else {
-            log.error("Failed to connect to Solax inverter (unit ID: {}). Exiting.", unitId);
-            System.exit(1);
+            log.warn("Failed to connect to Solax inverter (unit ID: {}), retrying in the background", unitId);
         }
 
         log.info("SolaxService initialized successfully");
     }
 
-    private void unlock(Integer password) {
+    /**
+     * Open the connection ahead of every firing of {@code cron}, see {@link SolaxConnectionManager#prewarmBefore(String)}.
+     */
+    public void prewarmBefore(String cron) {
+        solaxClient.getConnectionManager().prewarmBefore(cron);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        // Connected before this listener was registered
+        if (solaxClient.isConnected()) {
+            prepareSession();
+        }
+    }
+
+    @EventListener
+    public void onConnection(InverterConnectionEvent event) {
+        if (event.state() == ConnectionState.CONNECTED) {
+            prepareSession();
+        }
+    }
+
+    /**
+     * Identify the inverter and unlock it if found locked. Runs on every new session, as the inverter may come
+     * back locked after the link dropped.
+     */
+    private void prepareSession() {
+        if (!preparing.compareAndSet(false, true)) {
+            return;
+        }
+
+        log.debug("Requesting to read inverter serial number (unit ID: {})", unitId);
+        solaxClient.readAsync(ReadRegister.INVERTER_SN, unitId)
+                .thenCompose(optInverterSn -> {
+                    if (optInverterSn.isPresent()) {
+                        log.info("- Inverter serial number: {}", optInverterSn.get());
+                    } else {
+                        log.error("Unable to read inverter serial number (unit ID: {})", unitId);
+                    }
+
+                    return unlockAsync();
+                })
+                .whenComplete((ignored, e) -> {
+                    preparing.set(false);
+
+                    if (e != null) {
+                        log.error("Failed to prepare Solax inverter session (unit ID: {}): {}", unitId, e.getMessage());
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> unlockAsync() {
         log.debug("Unlocking Solax inverter (unit ID: {})", unitId);
         log.trace(" - Password: {}", password);
 
-        Optional<Integer> optLock = solaxClient.read(ReadRegister.LOCK_STATE, unitId);
-        if (optLock.isPresent()) {
-            if (optLock.get() == 0) {
-                log.info("Inverter is locked, unlocking...");
-                solaxClient.write(WriteRegister.UNLOCK_PASSWORD, unitId, password);
-                log.info("Inverter unlocked successfully.");
-            } else {
-                log.warn("Inverter is already unlocked, ignoring...");
+        return solaxClient.readAsync(ReadRegister.LOCK_STATE, unitId).thenCompose(optLock -> {
+            if (optLock.isEmpty()) {
+                log.error("Unable to read inverter lock state (unit ID: {})", unitId);
+                return CompletableFuture.completedFuture(null);
             }
-        } else {
-            log.error("Unable to read inverter lock state (unit ID: {}). Exiting.", unitId);
-            System.exit(1);
-        }
+
+            if (optLock.get() != 0) {
+                log.info("Inverter is already unlocked, ignoring...");
+                return CompletableFuture.completedFuture(null);
+            }
+
+            log.info("Inverter is locked, unlocking...");
+            return solaxClient.writeAsync(WriteRegister.UNLOCK_PASSWORD, unitId, password).thenAccept(outcome -> {
+                if (outcome == WriteOutcome.FAILED) {
+                    log.error("Failed to unlock inverter (unit ID: {})", unitId);
+                } else {
+                    log.info("Inverter unlocked successfully.");
+                }
+            });
+        });
+    }
+
+    public WriteOutcome changeMode(InverterMode mode) {
+        return solaxClient.await(changeModeAsync(mode, solaxClient.syncDeadline()), WriteOutcome.FAILED, "inverter mode change to " + mode);
+    }
+
+    public CompletableFuture<WriteOutcome> changeModeAsync(InverterMode mode) {
+        return changeModeAsync(mode, null);
     }
 
-    public boolean changeMode(InverterMode mode) {
+    private CompletableFuture<WriteOutcome> changeModeAsync(InverterMode mode, Duration maxWait) {
         log.debug("Requesting to set inverter mode to {} (unit ID: {})", mode, unitId);
-        return solaxClient.write(WriteRegister.USE_MODE, unitId, mode);
+        return solaxClient
+                .writeAsync(WriteRegister.USE_MODE, unitId, mode, maxWait)
+                .thenApply(outcome -> publishIfWritten(outcome, WriteRegister.USE_MODE, mode));
+    }
+
+    public WriteOutcome changeManualMode(ManualMode mode) {
+        return solaxClient.await(changeManualModeAsync(mode, solaxClient.syncDeadline()), WriteOutcome.FAILED, "manual mode change to " + mode);
+    }
+
+    public CompletableFuture<WriteOutcome> changeManualModeAsync(ManualMode mode) {
+        return changeManualModeAsync(mode, null);
     }
 
-    public boolean changeManualMode(ManualMode mode) {
+    private CompletableFuture<WriteOutcome> changeManualModeAsync(ManualMode mode, Duration maxWait) {
         log.debug("Requesting to set inverter manual mode to {} (unit ID: {})", mode, unitId);
-        return solaxClient.write(WriteRegister.MANUAL_MODE, unitId, mode);
+        return solaxClient
+                .writeAsync(WriteRegister.MANUAL_MODE, unitId, mode, maxWait)
+                .thenApply(outcome -> publishIfWritten(outcome, WriteRegister.MANUAL_MODE, mode));
     }
 
     public Optional<InverterMode> getCurrentMode() {
+        return solaxClient.await(getCurrentModeAsync(solaxClient.syncDeadline()), Optional.empty(), "inverter mode read");
+    }
+
+    public CompletableFuture<Optional<InverterMode>> getCurrentModeAsync() {
+        return getCurrentModeAsync(null);
+    }
+
+    private CompletableFuture<Optional<InverterMode>> getCurrentModeAsync(Duration maxWait) {
         log.debug("Requesting to read current inverter mode (unit ID: {})", unitId);
-        return solaxClient.read(ReadRegister.USE_MODE, unitId);
+        return solaxClient.readAsync(ReadRegister.USE_MODE, unitId, ModbusRequestPriority.NORMAL, maxWait);
     }
 
-    public boolean setExportLimit(int limit) {
+    /**
+     * Inverter mode known from recent reads or writes, without a Modbus round trip.
+     */
+    public Optional<InverterMode> getCachedMode() {
+        return solaxClient.getHoldingCache().get(WriteRegister.USE_MODE, unitId);
+    }
+
+    public WriteOutcome setExportLimit(int limit) {
+        return solaxClient.await(setExportLimitAsync(limit, solaxClient.syncDeadline()), WriteOutcome.FAILED, "export limit change to " + limit + " W");
+    }
+
+    public CompletableFuture<WriteOutcome> setExportLimitAsync(int limit) {
+        return setExportLimitAsync(limit, null);
+    }
+
+    private CompletableFuture<WriteOutcome> setExportLimitAsync(int limit, Duration maxWait) {
         log.debug("Requesting to set export limit to {} W (unit ID: {})", limit, unitId);
 
         if (limit < 0 || limit > 10000) {
@@ -95,23 +206,80 @@ public class SolaxService {
             throw new IllegalArgumentException("Export limit must be between 0 and 10000");
         }
 
-        return solaxClient.write(WriteRegister.EXPORT_LIMIT, unitId, limit / 10);
+        return solaxClient
+                .writeAsync(WriteRegister.EXPORT_LIMIT, unitId, limit / 10, maxWait)
+                .thenApply(outcome -> publishIfWritten(outcome, WriteRegister.EXPORT_LIMIT, limit));
     }
 
     public Optional<Integer> getCurrentExportLimit() {
+        return solaxClient.await(getCurrentExportLimitAsync(solaxClient.syncDeadline()), Optional.empty(), "export limit read");
+    }
+
+    public CompletableFuture<Optional<Integer>> getCurrentExportLimitAsync() {
+        return getCurrentExportLimitAsync(null);
+    }
+
+    private CompletableFuture<Optional<Integer>> getCurrentExportLimitAsync(Duration maxWait) {
         log.debug("Requesting to read current export limit (unit ID: {})", unitId);
         return solaxClient
-                .read(ReadRegister.EXPORT_LIMIT, unitId)
+                .readAsync(ReadRegister.EXPORT_LIMIT, unitId, ModbusRequestPriority.NORMAL, maxWait)
+                .thenApply(optLimit -> optLimit.map(limit -> limit * 10));
+    }
+
+    /**
+     * Export limit (W) known from recent reads or writes, without a Modbus round trip.
+     */
+    public Optional<Integer> getCachedExportLimit() {
+        return solaxClient.getHoldingCache()
+                .get(WriteRegister.EXPORT_LIMIT, unitId)
                 .map(limit -> limit * 10);
     }
 
     public Optional<Integer> getBatteryLevel() {
+        return solaxClient.await(getBatteryLevelAsync(solaxClient.syncDeadline()), Optional.empty(), "battery level read");
+    }
+
+    public CompletableFuture<Optional<Integer>> getBatteryLevelAsync() {
+        return getBatteryLevelAsync(null);
+    }
+
+    private CompletableFuture<Optional<Integer>> getBatteryLevelAsync(Duration maxWait) {
         log.debug("Requesting to read current battery level (unit ID: {})", unitId);
-        return solaxClient.read(ReadRegister.BATTERY_CAPACITY, unitId);
+        return solaxClient.readAsync(ReadRegister.BATTERY_CAPACITY, unitId, ModbusRequestPriority.NORMAL, maxWait);
+    }
+
+    public Optional<int[]> getInverterPower() {
+        return solaxClient.await(getInverterPowerAsync(solaxClient.syncDeadline()), Optional.empty(), "inverter power read");
     }
 
-    public Optional<Integer[]> getInverterPower() {
+    public CompletableFuture<Optional<int[]>> getInverterPowerAsync() {
+        return getInverterPowerAsync(null);
+    }
+
+    private CompletableFuture<Optional<int[]>> getInverterPowerAsync(Duration maxWait) {
         log.debug("Requesting to read current inverter power (unit ID: {})", unitId);
-        return solaxClient.read(ReadRegister.POWER_DC, unitId);
+        return solaxClient.readAsync(ReadRegister.POWER_DC, unitId, ModbusRequestPriority.NORMAL, maxWait);
+    }
+
+    public RegisterValues readAll(ReadRegister<?>... registers) {
+        return solaxClient.await(readAllAsync(ModbusRequestPriority.NORMAL, solaxClient.syncDeadline(), registers), new RegisterValues(), "planned read of " + registers.length + " registers");
+    }
+
+    public CompletableFuture<RegisterValues> readAllAsync(ReadRegister<?>... registers) {
+        return readAllAsync(ModbusRequestPriority.NORMAL, null, registers);
+    }
+
+    public CompletableFuture<RegisterValues> readAllAsync(ModbusRequestPriority priority, Duration maxWait, ReadRegister<?>... registers) {
+        log.debug("Requesting to read {} registers in planned blocks (unit ID: {}, priority: {})", registers.length, unitId, priority);
+        return solaxClient.readAllAsync(List.of(registers), unitId, priority, maxWait);
+    }
+
+    private WriteOutcome publishIfWritten(WriteOutcome outcome, WriteRegister<?> register, Object value) {
+        // A skipped write did not change anything on the inverter
+        if (outcome == WriteOutcome.WRITTEN) {
+            eventPublisher.publishEvent(new InverterWriteEvent(register, value));
+        }
+
+        return outcome;
     }
 }
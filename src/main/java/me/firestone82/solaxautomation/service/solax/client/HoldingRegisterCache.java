@@ -0,0 +1,130 @@
+package me.firestone82.solaxautomation.service.solax.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-through cache of holding register values, which only change when they are written.
+ * <p>
+ * Only registers with a read-back address are cached. Updated on every successful write and on every read
+ * of the read-back address. A write of the value
+ * the cache already holds is redundant and can be skipped without a round trip, which saves the hard write budget.
+ * Entries older than {@code solax.cache.maxAge} are not trusted, so a change made outside this application
+ * (inverter display, Solax cloud) is picked up by the next refresh.
+ */
+@Slf4j
+@Component
+public class HoldingRegisterCache {
+
+    @Getter
+    private final Duration maxAge;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> skippedWrites = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    public HoldingRegisterCache(
+            @Value("${solax.cache.maxAge:300000}") long maxAgeMillis,
+            @Autowired MeterRegistry meterRegistry,
+            @Autowired Clock clock
+    ) {
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    public <T> void onWritten(WriteRegister<T> register, int unitId, T value) {
+        // Without a read-back the cache could never notice an outside change
+        if (register.getReadBack() == null) {
+            return;
+        }
+
+        entries.put(new Key(register, unitId), new Entry(value, clock.instant()));
+    }
+
+    public <T> void onRead(ReadRegister<T> register, int unitId, T value) {
+        for (WriteRegister<?> writeRegister : WriteRegister.ALL) {
+            if (writeRegister.getReadBack() == register) {
+                entries.put(new Key(writeRegister, unitId), new Entry(value, clock.instant()));
+            }
+        }
+    }
+
+    public void invalidate(WriteRegister<?> register, int unitId) {
+        entries.remove(new Key(register, unitId));
+    }
+
+    /**
+     * Cached value of the register, if it was updated within the configured maximum age.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(WriteRegister<T> register, int unitId) {
+        Entry entry = entries.get(new Key(register, unitId));
+
+        if (entry == null || entry.updated().plus(maxAge).isBefore(clock.instant())) {
+            return Optional.empty();
+        }
+
+        return Optional.of((T) entry.value());
+    }
+
+    /**
+     * Whether writing {@code value} would not change the register; counted as a skipped write when it would not.
+     */
+    public <T> boolean isRedundant(WriteRegister<T> register, int unitId, T value) {
+        boolean redundant = get(register, unitId)
+                .map(cached -> Objects.equals(cached, value))
+                .orElse(false);
+
+        if (redundant) {
+            skippedWrites.computeIfAbsent(register.getName(), this::registerSkippedWrites).increment();
+        }
+
+        return redundant;
+    }
+
+    private LongAdder registerSkippedWrites(String name) {
+        LongAdder adder = new LongAdder();
+
+        FunctionCounter.builder("solax.modbus.writes.skipped", adder, LongAdder::sum)
+                .description("Writes skipped because the inverter already held the value")
+                .tag("register", name)
+                .register(meterRegistry);
+
+        return adder;
+    }
+
+    /**
+     * Number of writes skipped because the register already held the value, per register.
+     */
+    public Map<String, Long> getSkippedWriteCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        skippedWrites.forEach((name, adder) -> counts.put(name, adder.sum()));
+        return counts;
+    }
+
+    private record Key(WriteRegister<?> register, int unitId) {
+    }
+
+    private record Entry(Object value, Instant updated) {
+    }
+}
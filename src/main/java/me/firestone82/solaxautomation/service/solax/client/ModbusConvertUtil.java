@@ -1,55 +1,16 @@
 package me.firestone82.solaxautomation.service.solax.client;
 
-import net.solarnetwork.io.modbus.ModbusByteUtils;
+import me.firestone82.solaxautomation.service.solax.register.codec.RegisterCodec;
+import me.firestone82.solaxautomation.service.solax.register.codec.RegisterCodecs;
 
 public class ModbusConvertUtil {
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Decode a standalone response payload. Registers carry a precompiled {@link RegisterCodec},
+     * prefer {@code register.getCodec()} over resolving the codec on every call.
+     */
     public static <T> T convertResponse(byte[] data, Class<T> tClass, int count) {
-        if (tClass == String.class) {
-            StringBuilder result = new StringBuilder();
-
-            for (byte datum : data) {
-                char c = (char) datum;
-                result.append(c);
-            }
-
-            return (T) result.toString();
-        }
-
-        if (tClass == Byte.class) {
-            return (T) Byte.valueOf(data[0]);
-        }
-
-        if (tClass == Integer.class) {
-            short[] decoded = ModbusByteUtils.decode(data);
-            return (T) Integer.valueOf(decoded[0]);
-        }
-
-        if (tClass == Integer[].class) {
-            int[] decoded = ModbusByteUtils.decodeUnsigned(data);
-
-            Integer[] result = new Integer[count];
-            for (int i = 0; i < count; i++) {
-                result[i] = decoded[i];
-            }
-
-            return (T) result;
-        }
-
-        if (tClass.isEnum()) {
-            short[] decoded = ModbusByteUtils.decode(data);
-            int ordinal = decoded[0];
-
-            Object[] constants = tClass.getEnumConstants();
-            if (ordinal < 0 || ordinal >= constants.length) {
-                throw new IllegalArgumentException("Invalid ordinal " + ordinal + " for enum " + tClass.getName());
-            }
-
-            return (T) constants[ordinal];
-        }
-
-        throw new IllegalStateException("Unable to convert response data to type: " + tClass.getName());
+        return RegisterCodecs.forType(tClass, count).decode(data, 0);
     }
 
     public static <T> short[] convertRequest(T payload, int count) {
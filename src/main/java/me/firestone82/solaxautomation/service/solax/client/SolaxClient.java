@@ -1,32 +1,40 @@
 package me.firestone82.solaxautomation.service.solax.client;
 
-import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.client.plan.ReadBlock;
+import me.firestone82.solaxautomation.service.solax.client.plan.ReadPlanner;
+import me.firestone82.solaxautomation.service.solax.client.plan.RegisterValues;
+import me.firestone82.solaxautomation.service.solax.connection.SolaxConnectionManager;
+import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;
+import me.firestone82.solaxautomation.service.solax.model.WriteOutcome;
 import me.firestone82.solaxautomation.service.solax.queue.ModbusRequest;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
 import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestQueue;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestRejectedException;
 import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
 import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
-import net.solarnetwork.io.modbus.ModbusClient;
-import net.solarnetwork.io.modbus.ModbusException;
+import me.firestone82.solaxautomation.service.solax.scan.ScanRange;
+import me.firestone82.solaxautomation.service.solax.scan.TelemetrySample;
+import me.firestone82.solaxautomation.util.StringUtils;
 import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
-import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
-import net.solarnetwork.io.modbus.tcp.netty.TcpNettyModbusClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Deque;
-import java.util.Optional;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import static net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage.*;
 
@@ -34,13 +42,12 @@ import static net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage.*;
 @Getter
 @Component
 public class SolaxClient {
-    private final ApplicationContext applicationContext;
-
-    private final ModbusClient modbusClient;
+    private final SolaxConnectionManager connectionManager;
     private final ModbusRequestQueue requestQueue;
-
-    private long lastActivityTime = System.currentTimeMillis();
-    private final int CLIENT_CONNECTION_TIMEOUT = 5;
+    private final HoldingRegisterCache holdingCache;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
 
     private final AtomicInteger consecutiveReadWriteFailures = new AtomicInteger(0);
     private final int MAX_CONSECUTIVE_FAILURES = 5;
@@ -49,202 +56,426 @@ public class SolaxClient {
     private final int MAX_WRITES_PER_WINDOW = 10;
     private final int WRITE_WINDOW_HOURS = 12;
 
+    private final long timeoutMillis;
+
+    private final Map<ReadKey, InFlightRead> inFlightReads = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> savedReads = new ConcurrentHashMap<>();
+
     public SolaxClient(
-            @Value("${solax.modbus.host}") String hostName,
-            @Value("${solax.modbus.port}") int hostPort,
+            @Value("${solax.modbus.queue.timeout:30000}") long timeoutMillis,
+            @Autowired SolaxConnectionManager connectionManager,
             @Autowired ModbusRequestQueue requestQueue,
-            @Autowired ApplicationContext applicationContext
+            @Autowired HoldingRegisterCache holdingCache,
+            @Autowired ApplicationContext applicationContext,
+            @Autowired MeterRegistry meterRegistry,
+            @Autowired Clock clock
     ) {
-        log.info("Initializing Solax client with host: {} and port: {}", hostName, hostPort);
-
-        NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig(hostName, hostPort);
-        config.setAutoReconnect(false);
-        modbusClient = new TcpNettyModbusClient(config);
+        log.info("Initializing Solax client");
 
+        this.connectionManager = connectionManager;
         this.requestQueue = requestQueue;
+        this.holdingCache = holdingCache;
         this.applicationContext = applicationContext;
+        this.timeoutMillis = timeoutMillis;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        Gauge.builder("solax.modbus.failures.consecutive", consecutiveReadWriteFailures, AtomicInteger::get)
+                .description("Consecutive failed reads and writes, the session is reset at " + MAX_CONSECUTIVE_FAILURES)
+                .register(meterRegistry);
+        Gauge.builder("solax.modbus.writes.remaining", this, SolaxClient::getRemainingWriteBudget)
+                .description("Writes left in the current " + WRITE_WINDOW_HOURS + "h window before the application shuts down")
+                .register(meterRegistry);
 
         log.info("Solax client initialized successfully");
     }
 
-    @PreDestroy
-    private void destroy() {
-        if (!isConnected()) {
-            log.info("Solax client is not connected, no need to disconnect");
-            return;
-        }
-
-        if (disconnect()) {
-            log.info("Successfully disconnected from Solax inverter");
-        } else {
-            log.error("Failed to disconnect from Solax inverter");
-        }
+    public boolean isConnected() {
+        return connectionManager.isConnected();
     }
 
-    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.SECONDS)
-    private void timeout() {
-        if (!isConnected()) {
-            return;
-        }
+    public boolean connect() {
+        return connectionManager.connect();
+    }
 
-        if (lastActivityTime + (TimeUnit.MINUTES.toMillis(CLIENT_CONNECTION_TIMEOUT)) < System.currentTimeMillis()) {
-            if (disconnect()) {
-                log.info("Disconnected from Solax inverter due to inactivity");
-            } else {
-                log.error("Failed to disconnect from Solax inverter due to inactivity");
-            }
-        }
+    public boolean disconnect() {
+        return connectionManager.disconnect();
     }
 
-    public boolean isConnected() {
-        if (modbusClient != null) {
-            return modbusClient.isConnected();
-        }
+    public <T> Optional<T> read(ReadRegister<T> register, int unitId) {
+        return await(readAsync(register, unitId, ModbusRequestPriority.NORMAL, syncDeadline()), Optional.empty(), "read of " + register.getName());
+    }
 
-        return false;
+    public <T> CompletableFuture<Optional<T>> readAsync(ReadRegister<T> register, int unitId) {
+        return readAsync(register, unitId, ModbusRequestPriority.NORMAL, null);
     }
 
-    public boolean connect() {
-        log.trace("Attempting to connect to Solax inverter");
+    /**
+     * Read a single register without blocking.
+     *
+     * @param register register to read
+     * @param unitId   modbus unit ID
+     * @param priority queue lane of the request
+     * @param maxWait  maximum time the request may wait in the queue before it is dropped, or null for no limit
+     */
+    public <T> CompletableFuture<Optional<T>> readAsync(ReadRegister<T> register, int unitId, ModbusRequestPriority priority, Duration maxWait) {
+        String registerAddress = String.format("%4s", Integer.toHexString(register.getAddress())).replace(' ', '0');
+        log.trace("Reading from {} register '{}' at 0x{} with length {}", register.getType().name(), register.getName(), registerAddress, register.getCount());
 
-        if (modbusClient == null) {
-            log.error("Cannot connect to modbus server, client is null!");
-            return false;
-        }
+        ReadKey key = new ReadKey(register.getType(), register.getAddress(), register.getCount(), unitId);
+        String description = StringUtils.parseArgs("read {} (addr: 0x{}, count {})", register.getName(), registerAddress, register.getCount());
+
+        return readRawAsync(key, register.getName(), priority, maxWait, description)
+                .thenApply(data -> {
+                    T value = register.getCodec().decode(data, 0);
+                    holdingCache.onRead(register, unitId, value);
+                    return Optional.of(value);
+                })
+                .exceptionally(e -> {
+                    if (!(rootCause(e) instanceof ReadFailedException)) {
+                        log.error("Failed to decode {}: {}", register.getName(), rootCause(e).getMessage());
+                    }
+
+                    return Optional.empty();
+                });
+    }
 
-        if (modbusClient.isConnected()) {
-            return true;
-        }
+    /**
+     * Read several registers using as few Modbus transactions as possible.
+     * <p>
+     * Registers are merged into contiguous blocks by {@link ReadPlanner}, each block costs a single slot
+     * in the request queue. Registers of a failed block are missing from the result.
+     *
+     * @param registers registers to read
+     * @param unitId    modbus unit ID
+     * @return decoded values of all successfully read registers
+     */
+    public RegisterValues readAll(Collection<? extends ReadRegister<?>> registers, int unitId) {
+        return await(readAllAsync(registers, unitId, ModbusRequestPriority.NORMAL, syncDeadline()), new RegisterValues(), "planned read of " + registers.size() + " registers");
+    }
 
-        try {
-            modbusClient.start().get();
+    public CompletableFuture<RegisterValues> readAllAsync(Collection<? extends ReadRegister<?>> registers, int unitId) {
+        return readAllAsync(registers, unitId, ModbusRequestPriority.NORMAL, null);
+    }
 
-            lastActivityTime = System.currentTimeMillis();
-            consecutiveReadWriteFailures.set(0);
+    public CompletableFuture<RegisterValues> readAllAsync(Collection<? extends ReadRegister<?>> registers, int unitId, ModbusRequestPriority priority, Duration maxWait) {
+        List<CompletableFuture<RegisterValues>> blocks = new ArrayList<>();
 
-            return true;
-        } catch (ExecutionException e) {
-            log.error("Failed to connect to Solax inverter", e);
-        } catch (InterruptedException e) {
-            log.error("Thread interrupted while connecting to Solax inverter", e);
-            Thread.currentThread().interrupt();
+        for (ReadBlock block : ReadPlanner.plan(registers)) {
+            blocks.add(readBlockAsync(block, unitId, priority, maxWait));
         }
 
-        return false;
+        return CompletableFuture
+                .allOf(blocks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    RegisterValues values = new RegisterValues();
+                    blocks.forEach(block -> values.putAll(block.join()));
+                    return values;
+                });
     }
 
-    public boolean disconnect() {
-        log.trace("Attempting to disconnect from Solax inverter");
+    private CompletableFuture<RegisterValues> readBlockAsync(ReadBlock block, int unitId, ModbusRequestPriority priority, Duration maxWait) {
+        String blockAddress = String.format("%4s", Integer.toHexString(block.address())).replace(' ', '0');
+        log.trace("Reading {} block at 0x{} with length {} ({} registers)", block.type().name(), blockAddress, block.count(), block.registers().size());
 
-        if (modbusClient == null) {
-            log.error("Cannot disconnect from modbus server, client is null!");
-            return false;
+        ReadKey key = new ReadKey(block.type(), block.address(), block.count(), unitId);
+        String name = StringUtils.parseArgs("{}@0x{}+{}", block.type().name(), blockAddress, block.count());
+        String description = StringUtils.parseArgs("read block (addr: 0x{}, count {})", blockAddress, block.count());
+
+        return readRawAsync(key, name, priority, maxWait, description)
+                .thenApply(data -> splitBlock(block, unitId, data))
+                .exceptionally(e -> new RegisterValues());
+    }
+
+    /**
+     * Read whole register ranges as a few maximal block transactions and capture them as one sample.
+     * <p>
+     * The sample is completed once every block finished; addresses of failed blocks are left out of it
+     * and the sample is marked incomplete.
+     *
+     * @param ranges   register ranges to read, all of the same registry type
+     * @param unitId   modbus unit ID
+     * @param priority queue lane of the block reads
+     * @param maxWait  maximum time the reads may wait in the queue, or null for no limit
+     */
+    public CompletableFuture<TelemetrySample> scanAsync(Collection<ScanRange> ranges, int unitId, ModbusRequestPriority priority, Duration maxWait) {
+        // The sample is indexed by address only, input and holding addresses would collide
+        if (ranges.stream().map(ScanRange::type).distinct().count() > 1) {
+            throw new IllegalArgumentException("A scan must cover ranges of a single registry type");
         }
 
-        if (!modbusClient.isConnected()) {
-            return true;
+        List<ReadBlock> blocks = ReadPlanner.planRanges(ranges);
+        List<CompletableFuture<byte[]>> reads = new ArrayList<>();
+
+        int size = 0;
+        for (ReadBlock block : blocks) {
+            String blockAddress = String.format("%4s", Integer.toHexString(block.address())).replace(' ', '0');
+            ReadKey key = new ReadKey(block.type(), block.address(), block.count(), unitId);
+            String name = StringUtils.parseArgs("{}@0x{}+{}", block.type().name(), blockAddress, block.count());
+            String description = StringUtils.parseArgs("scan block (addr: 0x{}, count {})", blockAddress, block.count());
+
+            reads.add(readRawAsync(key, name, priority, maxWait, description).exceptionally(e -> null));
+            size = Math.max(size, block.endAddress());
         }
 
-        try {
-            modbusClient.stop().get();
-            return true;
-        } catch (ExecutionException e) {
-            log.error("Failed to disconnect from Solax inverter", e);
-        } catch (InterruptedException e) {
-            log.error("Thread interrupted while disconnecting from Solax inverter", e);
-            Thread.currentThread().interrupt();
+        int sampleSize = size;
+        Instant requested = clock.instant();
+
+        return CompletableFuture
+                .allOf(reads.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    byte[] data = new byte[sampleSize * 2];
+                    BitSet valid = new BitSet(sampleSize);
+                    boolean complete = true;
+
+                    for (int i = 0; i < blocks.size(); i++) {
+                        ReadBlock block = blocks.get(i);
+                        byte[] payload = reads.get(i).join();
+
+                        if (payload == null || payload.length < block.count() * 2) {
+                            complete = false;
+                            continue;
+                        }
+
+                        System.arraycopy(payload, 0, data, block.address() * 2, block.count() * 2);
+                        valid.set(block.address(), block.endAddress());
+                    }
+
+                    return new TelemetrySample(requested, data, valid, complete);
+                });
+    }
+
+    /**
+     * Read raw register words, attaching to an identical read already waiting or executing if there is one.
+     * <p>
+     * A read only joins an in-flight request of the same or a more urgent lane, so an urgent read never waits
+     * behind a background request. Joined callers share the original request's deadline.
+     *
+     * @param key         registry type, address range and unit ID of the read
+     * @param name        name the saved round trips are counted under
+     * @param description human-readable description of the request used in logs
+     */
+    private CompletableFuture<byte[]> readRawAsync(ReadKey key, String name, ModbusRequestPriority priority, Duration maxWait, String description) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        InFlightRead inFlight = new InFlightRead(priority, result);
+
+        InFlightRead winner = inFlightReads.merge(key, inFlight, (current, fresh) -> current.priority().compareTo(priority) <= 0 ? current : fresh);
+        if (winner != inFlight) {
+            savedReads.computeIfAbsent(name, this::registerSavedReads).increment();
+            log.trace("Joined in-flight {}", description);
+            return winner.future();
         }
 
-        return false;
+        Callable<byte[]> task = () -> ensureConnected(modbus -> modbus.send(switch (key.type()) {
+            case INPUT -> readInputsRequest(key.unitId(), key.address(), key.count());
+            case HOLDING -> readHoldingsRequest(key.unitId(), key.address(), key.count());
+        }).unwrap(RegistersModbusMessage.class).dataCopy());
+
+        requestQueue.submit(new ModbusRequest<>(name, task, priority, maxWait))
+                .whenComplete((data, e) -> {
+                    inFlightReads.remove(key, inFlight);
+
+                    if (e == null) {
+                        result.complete(data);
+                        return;
+                    }
+
+                    // Logged and counted once here, however many callers joined the read
+                    if (rootCause(e) instanceof ModbusRequestRejectedException rejected) {
+                        log.warn("Skipped {}: {}", description, rejected.getMessage());
+                    } else {
+                        log.error("Failed to {}: {}", description, rootCause(e).getMessage());
+                        recordConsecutiveFailureAndEnforceLimit();
+                    }
+
+                    result.completeExceptionally(new ReadFailedException(rootCause(e)));
+                });
+
+        return result;
     }
 
-    public <T> Optional<T> read(ReadRegister<T> register, int unitId) {
-        String registerAddress = String.format("%4s", Integer.toHexString(register.getAddress())).replace(' ', '0');
-        log.trace("Reading from {} register '{}' at 0x{} with length {}", register.getType().name(), register.getName(), registerAddress, register.getCount());
+    /**
+     * Number of Modbus round trips saved by joining in-flight reads, per register or block.
+     */
+    private LongAdder registerSavedReads(String name) {
+        LongAdder adder = new LongAdder();
 
-        Callable<Optional<T>> task = () -> {
-            try {
-                return ensureConnected(modbus -> {
-                    RegistersModbusMessage res = modbusClient.send(switch (register.getType()) {
-                        case INPUT -> readInputsRequest(unitId, register.getAddress(), register.getCount());
-                        case HOLDING -> readHoldingsRequest(unitId, register.getAddress(), register.getCount());
-                    }).unwrap(RegistersModbusMessage.class);
+        FunctionCounter.builder("solax.modbus.reads.saved", adder, LongAdder::sum)
+                .description("Reads served by joining an identical in-flight request")
+                .tag("register", name)
+                .register(meterRegistry);
 
-                    return Optional.of(ModbusConvertUtil.convertResponse(res.dataCopy(), register.getTClass(), register.getCount()));
-                });
-            } catch (ModbusException e) {
-                log.error("Failed to read {} (addr: {}, count {}): {}", register.getName(), register.getAddress(), register.getCount(), e.getMessage());
-                recordConsecutiveFailureAndEnforceLimit();
-                return Optional.empty();
-            }
-        };
+        return adder;
+    }
+
+    public Map<String, Long> getSavedReadCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        savedReads.forEach((name, adder) -> counts.put(name, adder.sum()));
+        return counts;
+    }
+
+    private RegisterValues splitBlock(ReadBlock block, int unitId, byte[] data) {
+        RegisterValues values = new RegisterValues();
+
+        for (ReadRegister<?> register : block.registers()) {
+            decodeInto(values, register, block, unitId, data);
+        }
+
+        return values;
+    }
 
+    private <T> void decodeInto(RegisterValues values, ReadRegister<T> register, ReadBlock block, int unitId, byte[] data) {
         try {
-            return requestQueue.submitAndWait(new ModbusRequest<>(task));
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            log.warn("Read interrupted for {}", register.getName());
-        } catch (ExecutionException ee) {
-            log.error("Read error for {}: {}", register.getName(), ee.getCause().getMessage());
-            recordConsecutiveFailureAndEnforceLimit();
+            T value = register.getCodec().decode(data, block.byteOffset(register));
+            values.put(register, value);
+            holdingCache.onRead(register, unitId, value);
+        } catch (RuntimeException e) {
+            log.error("Failed to decode {} from block at {}: {}", register.getName(), block.address(), e.getMessage());
         }
+    }
 
-        return Optional.empty();
+    public <T> WriteOutcome write(WriteRegister<T> register, int unitId, T value) {
+        return await(writeAsync(register, unitId, value, syncDeadline()), WriteOutcome.FAILED, "write of " + register.getName());
     }
 
-    public <T> boolean write(WriteRegister<T> register, int unitId, T value) {
-        recordWriteInvocationAndEnforceLimit();
+    public <T> CompletableFuture<WriteOutcome> writeAsync(WriteRegister<T> register, int unitId, T value) {
+        return writeAsync(register, unitId, value, null);
+    }
 
+    /**
+     * Write a register without blocking. Writes always use the {@link ModbusRequestPriority#CRITICAL} lane.
+     *
+     * @param register register to write
+     * @param unitId   modbus unit ID
+     * @param value    value to write
+     * @param maxWait  maximum time the request may wait in the queue before it is dropped, or null for no limit
+     */
+    public <T> CompletableFuture<WriteOutcome> writeAsync(WriteRegister<T> register, int unitId, T value, Duration maxWait) {
         String registerAddress = String.format("%4s", Integer.toHexString(register.getAddress())).replace(' ', '0');
+
+        // Already holds the value, don't spend a round trip and a slot of the write budget
+        if (holdingCache.isRedundant(register, unitId, value)) {
+            log.debug("Skipping write of {} to register '{}', inverter already holds it", value, register.getName());
+            return CompletableFuture.completedFuture(WriteOutcome.SKIPPED);
+        }
+
+        recordWriteInvocationAndEnforceLimit();
+
         log.trace("Writing to register '{}' at 0x{} with length {}", register.getName(), registerAddress, register.getCount());
 
-        Callable<Boolean> task = () -> {
-            try {
-                return ensureConnected(modbus -> {
-                    RegistersModbusMessage res = modbusClient.send(switch (value) {
-                        case Integer v -> writeHoldingRequest(unitId, register.getAddress(), v);
-                        case Boolean v -> writeHoldingRequest(unitId, register.getAddress(), v ? 1 : 0);
-                        case Enum<?> v -> writeHoldingRequest(unitId, register.getAddress(), v.ordinal());
-                        default -> {
-                            short[] values = ModbusConvertUtil.convertRequest(value, register.getCount());
-                            yield writeHoldingsRequest(unitId, register.getAddress(), values);
-                        }
-                    }).unwrap(RegistersModbusMessage.class);
+        Callable<Boolean> task = () -> ensureConnected(modbus -> {
+            RegistersModbusMessage res = modbus.send(switch (value) {
+                case Integer v -> writeHoldingRequest(unitId, register.getAddress(), v);
+                case Boolean v -> writeHoldingRequest(unitId, register.getAddress(), v ? 1 : 0);
+                case Enum<?> v -> writeHoldingRequest(unitId, register.getAddress(), v.ordinal());
+                default -> {
+                    short[] values = ModbusConvertUtil.convertRequest(value, register.getCount());
+                    yield writeHoldingsRequest(unitId, register.getAddress(), values);
+                }
+            }).unwrap(RegistersModbusMessage.class);
+
+            if (res.isException()) {
+                throw new IllegalStateException("Exception response from inverter");
+            }
 
-                    return !res.isException();
+            return true;
+        });
+
+        String description = StringUtils.parseArgs("write {} (addr: 0x{})", register.getName(), registerAddress);
+        return submit(new ModbusRequest<>(register.getName(), task, ModbusRequestPriority.CRITICAL, maxWait), false, description)
+                .thenApply(written -> {
+                    if (written) {
+                        holdingCache.onWritten(register, unitId, value);
+                        return WriteOutcome.WRITTEN;
+                    }
+
+                    // The write may or may not have reached the inverter
+                    holdingCache.invalidate(register, unitId);
+                    return WriteOutcome.FAILED;
                 });
-            } catch (ModbusException e) {
-                log.error("Failed to write {} (addr {}): {}", register.getName(), register.getAddress(), e.getMessage());
-                recordConsecutiveFailureAndEnforceLimit();
-                return false;
-            }
-        };
+    }
 
+    /**
+     * Submit the request and map any failure to {@code fallback}.
+     * <p>
+     * Requests rejected by the queue (saturated or past their deadline) never reached the inverter,
+     * so they are not counted as read/write failures.
+     */
+    private <T> CompletableFuture<T> submit(ModbusRequest<T> request, T fallback, String description) {
+        return requestQueue.submit(request)
+                .exceptionally(e -> {
+                    if (rootCause(e) instanceof ModbusRequestRejectedException rejected) {
+                        log.warn("Skipped {}: {}", description, rejected.getMessage());
+                    } else {
+                        log.error("Failed to {}: {}", description, rootCause(e).getMessage());
+                        recordConsecutiveFailureAndEnforceLimit();
+                    }
+
+                    return fallback;
+                });
+    }
+
+    /**
+     * Block until the future completes, at most for the configured request timeout.
+     * <p>
+     * Used by the synchronous API, whose requests carry the same timeout as their queue deadline,
+     * so a request the caller stopped waiting for is dropped instead of being executed late. The future is
+     * cancelled on timeout.
+     *
+     * @param future      future to wait for
+     * @param fallback    value returned when the future does not complete in time or fails
+     * @param description human-readable description of the request used in logs
+     */
+    public <T> T await(CompletableFuture<T> future, T fallback, String description) {
         try {
-            return requestQueue.submitAndWait(new ModbusRequest<>(task));
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
-            log.warn("Write interrupted for {}", register.getName());
-        } catch (ExecutionException ee) {
-            log.error("Error executing write for {}: {}", register.getName(), ee.getCause().getMessage());
-            recordConsecutiveFailureAndEnforceLimit();
+            log.warn("Interrupted while waiting for {}", description);
+        } catch (TimeoutException te) {
+            future.cancel(false);
+            log.error("Timed out after {}ms waiting for {}", timeoutMillis, description);
+        } catch (ExecutionException | CancellationException e) {
+            log.error("Error waiting for {}: {}", description, rootCause(e).getMessage());
         }
 
-        return false;
+        return fallback;
     }
 
-    private <V> V ensureConnected(SolaxCallable<V> callable) {
-        if (!isConnected() && !connect()) {
-            log.error("Unable to provide connection to Solax inverter, can't connect to modbus server");
-            System.exit(1);
+    /**
+     * Queue deadline of requests made by the synchronous API, equal to the time {@link #await} waits for them.
+     */
+    public Duration syncDeadline() {
+        return Duration.ofMillis(timeoutMillis);
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
 
-        lastActivityTime = System.currentTimeMillis();
-        return callable.call(modbusClient);
+        return cause;
+    }
+
+    private <V> V ensureConnected(SolaxCallable<V> callable) {
+        V result = connectionManager.execute(callable);
+        consecutiveReadWriteFailures.set(0);
+        return result;
+    }
+
+    /**
+     * Writes that can still be made before the write budget of the current window is exhausted.
+     */
+    public int getRemainingWriteBudget() {
+        long cutoff = clock.millis() - TimeUnit.HOURS.toMillis(WRITE_WINDOW_HOURS);
+        long used = writeTimestamps.stream().filter(ts -> ts >= cutoff).count();
+
+        return (int) Math.max(0, MAX_WRITES_PER_WINDOW - 1 - used);
     }
 
     private void recordWriteInvocationAndEnforceLimit() {
-        long now = System.currentTimeMillis();
+        long now = clock.millis();
         long cutoff = now - TimeUnit.HOURS.toMillis(WRITE_WINDOW_HOURS);
 
         // prune anything older than 12h
@@ -278,17 +509,24 @@ public class SolaxClient {
         int failures = consecutiveReadWriteFailures.incrementAndGet();
 
         if (failures >= MAX_CONSECUTIVE_FAILURES) {
-            log.error("Exceeded maximum consecutive read/write failures ({}) - shutting down application", failures);
+            // The session is likely stale, reconnect instead of restarting the application
+            consecutiveReadWriteFailures.set(0);
+            connectionManager.reset(failures + " consecutive read/write failures");
+        }
+    }
 
-            // Graceful shutdown if possible, otherwise force exit
-            try {
-                SpringApplication.exit(applicationContext, () -> 1);
+    private record ReadKey(ReadRegistryType type, int address, int count, int unitId) {
+    }
 
-                Thread.sleep(5000);
-                ((ConfigurableApplicationContext) applicationContext).close();
-            } catch (Exception e) {
-                System.exit(1);
-            }
+    private record InFlightRead(ModbusRequestPriority priority, CompletableFuture<byte[]> future) {
+    }
+
+    /**
+     * Marks a read whose failure was already logged and counted by {@link #readRawAsync}.
+     */
+    private static class ReadFailedException extends RuntimeException {
+        ReadFailedException(Throwable cause) {
+            super(cause.getMessage(), cause);
         }
     }
 }
@@ -0,0 +1,33 @@
+package me.firestone82.solaxautomation.service.solax.client.plan;
+
+import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+
+import java.util.List;
+
+/**
+ * One contiguous Modbus read covering several registers of the same registry type.
+ *
+ * @param type      registry type of every register in the block
+ * @param address   first address read by the block
+ * @param count     number of 16-bit words read by the block
+ * @param registers registers whose words are fully contained in the block
+ */
+public record ReadBlock(
+        ReadRegistryType type,
+        int address,
+        int count,
+        List<ReadRegister<?>> registers
+) {
+
+    public int endAddress() {
+        return address + count;
+    }
+
+    /**
+     * Byte offset of the register inside the response payload of this block.
+     */
+    public int byteOffset(ReadRegister<?> register) {
+        return (register.getAddress() - address) * 2;
+    }
+}
@@ -0,0 +1,122 @@
+package me.firestone82.solaxautomation.service.solax.client.plan;
+
+import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.scan.ScanRange;
+
+import java.util.*;
+
+/**
+ * Plans the smallest number of contiguous Modbus reads needed to fetch a set of registers.
+ * <p>
+ * Registers are grouped by {@link ReadRegistryType} (input and holding registers live in different tables),
+ * sorted by address and greedily merged while the resulting block stays within the protocol limit
+ * of {@value #MAX_REGISTERS_PER_READ} registers per request. Gaps between registers are read as well,
+ * which is cheaper than a separate transaction through the throttled request queue.
+ */
+public class ReadPlanner {
+
+    /**
+     * Maximum number of registers the Modbus protocol allows in a single read request.
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    public static List<ReadBlock> plan(Collection<? extends ReadRegister<?>> registers) {
+        return plan(registers, MAX_REGISTERS_PER_READ);
+    }
+
+    public static List<ReadBlock> plan(Collection<? extends ReadRegister<?>> registers, int maxCount) {
+        if (maxCount < 1 || maxCount > MAX_REGISTERS_PER_READ) {
+            throw new IllegalArgumentException("Block size must be between 1 and " + MAX_REGISTERS_PER_READ);
+        }
+
+        Map<ReadRegistryType, List<ReadRegister<?>>> byType = new EnumMap<>(ReadRegistryType.class);
+        for (ReadRegister<?> register : new LinkedHashSet<>(registers)) {
+            if (register.getCount() > maxCount) {
+                throw new IllegalArgumentException("Register " + register.getName() + " is larger than the block size " + maxCount);
+            }
+
+            byType.computeIfAbsent(register.getType(), k -> new ArrayList<>()).add(register);
+        }
+
+        List<ReadBlock> blocks = new ArrayList<>();
+        for (Map.Entry<ReadRegistryType, List<ReadRegister<?>>> entry : byType.entrySet()) {
+            List<ReadRegister<?>> sorted = entry.getValue();
+            sorted.sort(Comparator.comparingInt(ReadRegister::getAddress));
+
+            int start = -1;
+            int end = -1;
+            List<ReadRegister<?>> current = new ArrayList<>();
+
+            for (ReadRegister<?> register : sorted) {
+                int registerEnd = register.getAddress() + register.getCount();
+
+                if (!current.isEmpty() && Math.max(end, registerEnd) - start > maxCount) {
+                    blocks.add(new ReadBlock(entry.getKey(), start, end - start, List.copyOf(current)));
+                    current.clear();
+                }
+
+                if (current.isEmpty()) {
+                    start = register.getAddress();
+                    end = registerEnd;
+                } else {
+                    end = Math.max(end, registerEnd);
+                }
+
+                current.add(register);
+            }
+
+            if (!current.isEmpty()) {
+                blocks.add(new ReadBlock(entry.getKey(), start, end - start, List.copyOf(current)));
+            }
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Plan the reads of whole address ranges, merging ranges of the same type while the block stays within
+     * {@value #MAX_REGISTERS_PER_READ} registers and splitting longer ranges. The blocks carry no registers.
+     */
+    public static List<ReadBlock> planRanges(Collection<ScanRange> ranges) {
+        Map<ReadRegistryType, List<ScanRange>> byType = new EnumMap<>(ReadRegistryType.class);
+        for (ScanRange range : ranges) {
+            byType.computeIfAbsent(range.type(), k -> new ArrayList<>()).add(range);
+        }
+
+        List<ReadBlock> blocks = new ArrayList<>();
+        for (Map.Entry<ReadRegistryType, List<ScanRange>> entry : byType.entrySet()) {
+            List<ScanRange> sorted = entry.getValue();
+            sorted.sort(Comparator.comparingInt(ScanRange::address));
+
+            int start = -1;
+            int end = -1;
+
+            for (ScanRange range : sorted) {
+                if (start >= 0 && Math.max(end, range.endAddress()) - start > MAX_REGISTERS_PER_READ) {
+                    blocks.add(new ReadBlock(entry.getKey(), start, end - start, List.of()));
+                    start = -1;
+                }
+
+                if (start < 0) {
+                    start = range.address();
+                    end = range.endAddress();
+                } else {
+                    end = Math.max(end, range.endAddress());
+                }
+
+                // A single range longer than one request
+                while (end - start > MAX_REGISTERS_PER_READ) {
+                    blocks.add(new ReadBlock(entry.getKey(), start, MAX_REGISTERS_PER_READ, List.of()));
+                    start += MAX_REGISTERS_PER_READ;
+                }
+            }
+
+            if (start >= 0) {
+                blocks.add(new ReadBlock(entry.getKey(), start, end - start, List.of()));
+            }
+        }
+
+        return blocks;
+    }
+}
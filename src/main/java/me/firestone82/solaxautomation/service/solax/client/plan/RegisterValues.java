@@ -0,0 +1,42 @@
+package me.firestone82.solaxautomation.service.solax.client.plan;
+
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Typed values decoded from one or more planned register reads.
+ * <p>
+ * A register is missing when the block containing it failed to read or decode.
+ */
+public class RegisterValues {
+    private final Map<ReadRegister<?>, Object> values = new HashMap<>();
+
+    public <T> void put(ReadRegister<T> register, T value) {
+        values.put(register, value);
+    }
+
+    public void putAll(RegisterValues other) {
+        values.putAll(other.values);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(ReadRegister<T> register) {
+        return Optional.ofNullable((T) values.get(register));
+    }
+
+    public boolean contains(ReadRegister<?> register) {
+        return values.containsKey(register);
+    }
+
+    public Map<ReadRegister<?>, Object> asMap() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,17 @@
+package me.firestone82.solaxautomation.service.solax.connection;
+
+/**
+ * State of the Modbus TCP session with the inverter.
+ */
+public enum ConnectionState {
+    /**
+     * No session, a connection is attempted on the next request or maintenance tick.
+     */
+    DISCONNECTED,
+    CONNECTING,
+    CONNECTED,
+    /**
+     * Last attempt failed, requests fail fast until the backoff window passes.
+     */
+    BACKOFF
+}
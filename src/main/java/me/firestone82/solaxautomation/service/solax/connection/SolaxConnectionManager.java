@@ -0,0 +1,370 @@
+package me.firestone82.solaxautomation.service.solax.connection;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.client.SolaxCallable;
+import me.firestone82.solaxautomation.service.solax.model.InverterConnectionEvent;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequest;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestQueue;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.simulator.SolaxSimulator;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.TcpNettyModbusClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage.readInputsRequest;
+
+/**
+ * Owns the Modbus TCP session with the inverter and keeps it healthy.
+ * <p>
+ * The session is kept open: when idle, a cheap single register read goes through the request queue every
+ * {@code solax.modbus.connection.keepalive} ms. A lost link is detected by a maintenance tick and reconnected
+ * with jittered exponential backoff; while backing off, requests fail fast instead of blocking the queue.
+ * Shortly before each schedule registered with {@link #prewarmBefore(String)} fires, any pending backoff is cut
+ * short so the burst of requests finds an open session. State changes are logged and published as
+ * {@link InverterConnectionEvent}.
+ */
+@Slf4j
+@Component
+public class SolaxConnectionManager {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final ModbusClient modbusClient;
+    private final ModbusRequestQueue requestQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final int unitId;
+    private final Clock clock;
+
+    @Value("${solax.modbus.connection.timeout:5000}")
+    private long connectTimeoutMillis;
+
+    @Value("${solax.modbus.connection.keepalive:60000}")
+    private long keepaliveMillis;
+
+    @Value("${solax.modbus.connection.backoff.initial:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${solax.modbus.connection.backoff.max:60000}")
+    private long maxBackoffMillis;
+
+    @Value("${solax.modbus.connection.prewarm.lead:30000}")
+    private long prewarmLeadMillis;
+
+    private final List<CronExpression> prewarmCrons = new CopyOnWriteArrayList<>();
+    private final Map<CronExpression, LocalDateTime> prewarmed = new HashMap<>();
+
+    @Getter
+    private volatile ConnectionState state = ConnectionState.DISCONNECTED;
+    @Getter
+    private volatile int failedAttempts;
+    private volatile long nextAttemptMillis;
+    private final AtomicLong lastActivityMillis = new AtomicLong(System.currentTimeMillis());
+    private volatile boolean keepaliveInFlight;
+
+    private ScheduledExecutorService maintenance;
+
+    public SolaxConnectionManager(
+            @Value("${solax.modbus.host}") String hostName,
+            @Value("${solax.modbus.port}") int hostPort,
+            @Value("${solax.unitId}") int unitId,
+            @Autowired ModbusRequestQueue requestQueue,
+            @Autowired ApplicationEventPublisher eventPublisher,
+            @Autowired MeterRegistry meterRegistry,
+            @Autowired ObjectProvider<SolaxSimulator> simulator,
+            @Autowired Clock clock
+    ) {
+        // Make sure an enabled simulator listens before the first connection attempt
+        simulator.ifAvailable(s -> log.warn("Solax simulator enabled, inverter at {}:{} is simulated", hostName, hostPort));
+
+        // Reconnects are driven by this manager, with backoff and state reporting
+        NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig(hostName, hostPort);
+        config.setAutoReconnect(false);
+        this.modbusClient = new TcpNettyModbusClient(config);
+
+        this.requestQueue = requestQueue;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.unitId = unitId;
+        this.clock = clock;
+
+        Gauge.builder("solax.modbus.connection.connected", this, manager -> manager.isConnected() ? 1 : 0)
+                .description("Whether the Modbus session with the inverter is open")
+                .register(meterRegistry);
+        Gauge.builder("solax.modbus.connection.failed.attempts", this, SolaxConnectionManager::getFailedAttempts)
+                .description("Failed connection attempts since the last successful one")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SolaxConnection-Maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+
+        maintenance.scheduleWithFixedDelay(this::maintain, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("Solax connection manager started (keepalive {}ms, backoff {}-{}ms)", keepaliveMillis, initialBackoffMillis, maxBackoffMillis);
+    }
+
+    /**
+     * Open the session ahead of every firing of {@code cron}, e.g. the schedule of an enabled automation checker.
+     */
+    public void prewarmBefore(String cron) {
+        prewarmCrons.add(CronExpression.parse(cron));
+        log.debug("Pre-warming connection before schedule '{}'", cron);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+
+        if (!isConnected()) {
+            log.info("Solax client is not connected, no need to disconnect");
+            return;
+        }
+
+        if (disconnect()) {
+            log.info("Successfully disconnected from Solax inverter");
+        } else {
+            log.error("Failed to disconnect from Solax inverter");
+        }
+    }
+
+    public boolean isConnected() {
+        return modbusClient.isConnected();
+    }
+
+    /**
+     * Run a call on the open session, connecting first if needed.
+     *
+     * @throws IllegalStateException when no session can be provided, e.g. while backing off after a failed attempt
+     */
+    public <V> V execute(SolaxCallable<V> callable) {
+        if (!isConnected() && !connect()) {
+            throw new IllegalStateException("Not connected to Solax inverter (" + state + ")");
+        }
+
+        lastActivityMillis.set(System.currentTimeMillis());
+        return callable.call(modbusClient);
+    }
+
+    /**
+     * Open the session unless it is open already or a backoff window is still running.
+     *
+     * @return true if the session is open
+     */
+    public synchronized boolean connect() {
+        if (isConnected()) {
+            return true;
+        }
+
+        if (state == ConnectionState.BACKOFF && System.currentTimeMillis() < nextAttemptMillis) {
+            return false;
+        }
+
+        log.trace("Attempting to connect to Solax inverter");
+        transition(ConnectionState.CONNECTING);
+
+        try {
+            modbusClient.start().get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+
+            failedAttempts = 0;
+            lastActivityMillis.set(System.currentTimeMillis());
+            transition(ConnectionState.CONNECTED);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to connect to Solax inverter: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (InterruptedException e) {
+            log.error("Thread interrupted while connecting to Solax inverter", e);
+            Thread.currentThread().interrupt();
+        }
+
+        stopQuietly();
+        scheduleRetry();
+        return false;
+    }
+
+    public synchronized boolean disconnect() {
+        log.trace("Attempting to disconnect from Solax inverter");
+
+        if (!isConnected()) {
+            transition(ConnectionState.DISCONNECTED);
+            return true;
+        }
+
+        try {
+            modbusClient.stop().get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+            transition(ConnectionState.DISCONNECTED);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Failed to disconnect from Solax inverter", e);
+        } catch (InterruptedException e) {
+            log.error("Thread interrupted while disconnecting from Solax inverter", e);
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /**
+     * Drop a session that stopped answering, the next attempt happens after the backoff.
+     */
+    public synchronized void reset(String reason) {
+        log.warn("Resetting connection to Solax inverter: {}", reason);
+
+        stopQuietly();
+        scheduleRetry();
+    }
+
+    /**
+     * Make sure the session is open now, skipping any remaining backoff.
+     */
+    public synchronized void prewarm() {
+        if (isConnected()) {
+            return;
+        }
+
+        log.debug("Pre-warming connection to Solax inverter (state: {})", state);
+        nextAttemptMillis = 0;
+        connect();
+    }
+
+    private void maintain() {
+        try {
+            if (state == ConnectionState.CONNECTED && !isConnected()) {
+                log.warn("Connection to Solax inverter lost");
+                transition(ConnectionState.DISCONNECTED);
+            }
+
+            if (isPrewarmDue()) {
+                prewarm();
+            } else if (!isConnected() && System.currentTimeMillis() >= nextAttemptMillis) {
+                connect();
+            }
+
+            if (isConnected() && System.currentTimeMillis() - lastActivityMillis.get() >= keepaliveMillis) {
+                sendKeepalive();
+            }
+        } catch (Exception e) {
+            log.error("Error while maintaining connection to Solax inverter", e);
+        }
+    }
+
+    private boolean isPrewarmDue() {
+        // Schedules run on the application clock, connection timing stays on wall-clock time
+        LocalDateTime now = LocalDateTime.now(clock);
+        boolean due = false;
+
+        for (CronExpression cron : prewarmCrons) {
+            LocalDateTime next = cron.next(now);
+            if (next == null || next.equals(prewarmed.get(cron))) {
+                continue;
+            }
+
+            if (Duration.between(now, next).toMillis() <= prewarmLeadMillis) {
+                prewarmed.put(cron, next);
+                due = true;
+            }
+        }
+
+        return due;
+    }
+
+    private void sendKeepalive() {
+        if (keepaliveInFlight) {
+            return;
+        }
+
+        keepaliveInFlight = true;
+        lastActivityMillis.set(System.currentTimeMillis());
+
+        ReadRegister<Integer> register = ReadRegister.LOCK_STATE;
+        Callable<Boolean> task = () -> execute(modbus -> {
+            modbus.send(readInputsRequest(unitId, register.getAddress(), register.getCount()));
+            return true;
+        });
+
+        requestQueue.submit(new ModbusRequest<>("keepalive", task, ModbusRequestPriority.BACKGROUND, Duration.ofMillis(keepaliveMillis)))
+                .whenComplete((ok, e) -> {
+                    keepaliveInFlight = false;
+
+                    if (e != null) {
+                        log.debug("Keepalive read failed: {}", e.getMessage());
+                    }
+                });
+    }
+
+    private void scheduleRetry() {
+        int attempt = ++failedAttempts;
+
+        // Equal jitter: half of the exponential delay is fixed, the other half random
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+
+        nextAttemptMillis = System.currentTimeMillis() + delay;
+        transition(ConnectionState.BACKOFF);
+        log.info("Next connection attempt to Solax inverter in {}ms (attempt {})", delay, attempt + 1);
+    }
+
+    private void stopQuietly() {
+        try {
+            modbusClient.stop().get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.trace("Error while stopping Modbus client", e);
+        }
+    }
+
+    private void countEvent(String event) {
+        Counter.builder("solax.modbus.connection.events")
+                .description("Connects, disconnects and failed connection attempts")
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void transition(ConnectionState next) {
+        ConnectionState previous = state;
+        if (previous == next) {
+            return;
+        }
+
+        state = next;
+        log.debug("Solax connection state: {} -> {}", previous, next);
+
+        if (next == ConnectionState.CONNECTED) {
+            countEvent("connect");
+        } else if (previous == ConnectionState.CONNECTED) {
+            countEvent("disconnect");
+        } else if (next == ConnectionState.BACKOFF) {
+            countEvent("failure");
+        }
+
+        eventPublisher.publishEvent(new InverterConnectionEvent(previous, next));
+    }
+}
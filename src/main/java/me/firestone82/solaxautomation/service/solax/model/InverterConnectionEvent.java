@@ -0,0 +1,12 @@
+package me.firestone82.solaxautomation.service.solax.model;
+
+import me.firestone82.solaxautomation.service.solax.connection.ConnectionState;
+
+/**
+ * Published when the Modbus session with the inverter changes its state.
+ *
+ * @param previous state before the change
+ * @param state    new state
+ */
+public record InverterConnectionEvent(ConnectionState previous, ConnectionState state) {
+}
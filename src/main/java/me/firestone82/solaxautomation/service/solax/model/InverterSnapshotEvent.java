@@ -0,0 +1,11 @@
+package me.firestone82.solaxautomation.service.solax.model;
+
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+
+/**
+ * Published after every successfully sampled inverter snapshot.
+ *
+ * @param snapshot the new snapshot
+ */
+public record InverterSnapshotEvent(InverterSnapshot snapshot) {
+}
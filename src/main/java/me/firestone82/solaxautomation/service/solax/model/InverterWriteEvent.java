@@ -0,0 +1,12 @@
+package me.firestone82.solaxautomation.service.solax.model;
+
+import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
+
+/**
+ * Published after a value was successfully written to the inverter.
+ *
+ * @param register written register
+ * @param value    logical value written (e.g. export limit in W, not the raw register value)
+ */
+public record InverterWriteEvent(WriteRegister<?> register, Object value) {
+}
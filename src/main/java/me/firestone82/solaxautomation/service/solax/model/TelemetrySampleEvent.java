@@ -0,0 +1,11 @@
+package me.firestone82.solaxautomation.service.solax.model;
+
+import me.firestone82.solaxautomation.service.solax.scan.TelemetrySample;
+
+/**
+ * Published after every telemetry scan cycle.
+ *
+ * @param sample the captured sample
+ */
+public record TelemetrySampleEvent(TelemetrySample sample) {
+}
@@ -0,0 +1,26 @@
+package me.firestone82.solaxautomation.service.solax.model;
+
+/**
+ * Outcome of a register write.
+ */
+public enum WriteOutcome {
+    /**
+     * Written to the inverter.
+     */
+    WRITTEN,
+    /**
+     * Not sent, the inverter already holds the value according to the holding register cache.
+     */
+    SKIPPED,
+    /**
+     * Failed, rejected by the queue or timed out; the inverter may or may not hold the value.
+     */
+    FAILED;
+
+    /**
+     * Whether the inverter holds the value after the write.
+     */
+    public boolean isApplied() {
+        return this != FAILED;
+    }
+}
@@ -1,23 +1,77 @@
 package me.firestone82.solaxautomation.service.solax.queue;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
-@RequiredArgsConstructor
 public class ModbusRequest<T> {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String name;
     private final Callable<T> task;
+    private final ModbusRequestPriority priority;
+    private final long deadlineNanos;
+    private final long sequence = SEQUENCE.getAndIncrement();
+    private final long submittedNanos = System.nanoTime();
     private final CompletableFuture<T> future = new CompletableFuture<>();
+    private volatile boolean executed = false;
+
+    public ModbusRequest(Callable<T> task) {
+        this(task, ModbusRequestPriority.NORMAL, null);
+    }
+
+    public ModbusRequest(Callable<T> task, ModbusRequestPriority priority, Duration maxWait) {
+        this("unnamed", task, priority, maxWait);
+    }
+
+    /**
+     * @param name     name of the accessed register, used to tag request metrics
+     * @param task     task executed by the queue worker
+     * @param priority queue lane of the request
+     * @param maxWait  maximum time the request may wait in the queue, or null for no limit
+     */
+    public ModbusRequest(String name, Callable<T> task, ModbusRequestPriority priority, Duration maxWait) {
+        this.name = name;
+        this.task = task;
+        this.priority = priority;
+        this.deadlineNanos = maxWait == null ? Long.MAX_VALUE : submittedNanos + maxWait.toNanos();
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * Run the task and complete the future with its result.
+     *
+     * @return true if the task completed without throwing
+     */
+    public boolean execute() {
+        // Cancelled or timed out by the caller while waiting in the queue
+        if (future.isDone()) {
+            return false;
+        }
+
+        executed = true;
 
-    public void execute() {
         try {
             T result = task.call();
             future.complete(result);
+            return true;
         } catch (Throwable t) {
             future.completeExceptionally(t);
+            return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fail the request without executing it.
+     */
+    public void reject(String reason) {
+        future.completeExceptionally(new ModbusRequestRejectedException(reason));
+    }
+}
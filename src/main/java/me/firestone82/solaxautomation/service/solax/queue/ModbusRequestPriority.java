@@ -0,0 +1,20 @@
+package me.firestone82.solaxautomation.service.solax.queue;
+
+/**
+ * Queue lane of a Modbus request. Lanes are served strictly in declaration order, FIFO within a lane.
+ */
+public enum ModbusRequestPriority {
+    /**
+     * Writes and reads guarding the battery or the grid connection.
+     * Never rejected by a saturated queue, their volume is bounded by the write budget.
+     */
+    CRITICAL,
+    /**
+     * Regular reads issued by the automation.
+     */
+    NORMAL,
+    /**
+     * Periodic telemetry which can tolerate being delayed or dropped.
+     */
+    BACKGROUND;
+}
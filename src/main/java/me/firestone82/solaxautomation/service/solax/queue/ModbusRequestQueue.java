@@ -1,36 +1,100 @@
 package me.firestone82.solaxautomation.service.solax.queue;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
 import java.util.concurrent.*;
 
 /**
  * A Spring-managed queue for Modbus requests with built-in throttling.
+ * <p>
+ * A single worker blocks on the queue and executes requests one by one. Between two transactions it only
+ * enforces a minimum gap measured from the completion of the previous transaction, so a request arriving
+ * at an idle queue is sent immediately. The gap adapts to the inverter: it follows the average response
+ * time while requests succeed and backs off exponentially when they fail.
+ * <p>
+ * Requests are served by {@link ModbusRequestPriority} lane first, then in submission order. Requests whose
+ * deadline passed while waiting are failed fast instead of being executed late. The queue holds at most
+ * {@code solax.modbus.queue.capacity} non-critical requests and rejects new ones once full.
+ * <p>
+ * Every executed request records its time spent waiting in the queue and its time on the wire, tagged by register,
+ * lane and outcome, so a slow cycle can be attributed to either throttling or the inverter.
  */
 @Slf4j
 @Component
 public class ModbusRequestQueue {
 
+    // Weight of the newest response time in the moving average
+    private static final double RESPONSE_EWMA_WEIGHT = 0.2;
+
     @Value("${solax.modbus.time.delay:1000}")
     private long delayMillis;
 
-    private final BlockingQueue<ModbusRequest<?>> queue = new LinkedBlockingQueue<>();
-    private ScheduledExecutorService executor;
+    @Value("${solax.modbus.time.minDelay:100}")
+    private long minDelayMillis;
+
+    @Value("${solax.modbus.time.maxDelay:5000}")
+    private long maxDelayMillis;
+
+    private final BlockingQueue<ModbusRequest<?>> queue = new PriorityBlockingQueue<>(16, Comparator
+            .comparing((ModbusRequest<?> request) -> request.getPriority())
+            .thenComparingLong(ModbusRequest::getSequence)
+    );
+    private final Semaphore capacity;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    // Pacing state, only written by the worker thread
+    @Getter
+    private volatile long currentDelayMillis;
+    @Getter
+    private volatile double averageResponseMillis;
+    private long lastCompletionNanos;
+
+    public ModbusRequestQueue(
+            @Value("${solax.modbus.queue.capacity:64}") int capacity,
+            @Autowired MeterRegistry meterRegistry
+    ) {
+        this.capacity = new Semaphore(capacity);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("solax.modbus.queue.depth", queue, BlockingQueue::size)
+                .description("Requests waiting in the Modbus request queue")
+                .register(meterRegistry);
+        Gauge.builder("solax.modbus.queue.oldest.age", this, ModbusRequestQueue::oldestRequestAgeSeconds)
+                .description("Time the oldest waiting request has spent in the queue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("solax.modbus.queue.delay", this, ModbusRequestQueue::getCurrentDelayMillis)
+                .description("Current adaptive gap between two Modbus transactions")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void start() {
-        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        currentDelayMillis = Math.clamp(delayMillis, minDelayMillis, maxDelayMillis);
+        averageResponseMillis = currentDelayMillis;
+        lastCompletionNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(currentDelayMillis);
+
+        executor = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "ModbusRequestQueue-Worker");
             t.setDaemon(true);
             return t;
         });
 
-        executor.scheduleWithFixedDelay(this::processNext, 0, delayMillis, TimeUnit.MILLISECONDS);
-        log.info("ModbusRequestQueue started with {}ms delay", delayMillis);
+        executor.execute(this::run);
+        log.info("ModbusRequestQueue started with {}ms initial delay (min {}ms, max {}ms)", currentDelayMillis, minDelayMillis, maxDelayMillis);
     }
 
     @PreDestroy
@@ -51,27 +115,161 @@ public class ModbusRequestQueue {
         log.info("ModbusRequestQueue stopped");
     }
 
-    private void processNext() {
-        try {
-            ModbusRequest<?> request = queue.poll();
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long waitNanos = lastCompletionNanos + TimeUnit.MILLISECONDS.toNanos(currentDelayMillis) - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+
+                // Pick the request only after the gap, so a request submitted meanwhile can still overtake by priority
+                ModbusRequest<?> request = take();
+
+                // Cancelled by the caller while waiting, skip without spending a slot
+                if (request.getFuture().isDone()) {
+                    continue;
+                }
+
+                if (request.isExpired()) {
+                    log.debug("Dropping {} Modbus request, deadline passed after {}ms in queue", request.getPriority(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - request.getSubmittedNanos()));
+                    request.reject("deadline passed while waiting in queue");
+                    countRejected(request, "expired");
+                    continue;
+                }
 
-            if (request != null) {
-                request.execute();
+                processNext(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
+    }
+
+    private ModbusRequest<?> take() throws InterruptedException {
+        ModbusRequest<?> request = queue.take();
+
+        if (request.getPriority() != ModbusRequestPriority.CRITICAL) {
+            capacity.release();
+        }
+
+        return request;
+    }
+
+    private void processNext(ModbusRequest<?> request) {
+        long startNanos = System.nanoTime();
+        boolean success = false;
+
+        try {
+            success = request.execute();
         } catch (Exception e) {
             log.error("Error processing Modbus request", e);
+        } finally {
+            lastCompletionNanos = System.nanoTime();
+        }
+
+        // Cancelled requests were never sent, so there is nothing to learn from them
+        if (!request.isExecuted()) {
+            return;
+        }
+
+        recordTimings(request, startNanos, success);
+        adaptDelay(TimeUnit.NANOSECONDS.toMillis(lastCompletionNanos - startNanos), success);
+    }
+
+    private void recordTimings(ModbusRequest<?> request, long startNanos, boolean success) {
+        String[] tags = {
+                "register", request.getName(),
+                "priority", request.getPriority().name(),
+                "outcome", success ? "success" : "failure"
+        };
+
+        Timer.builder("solax.modbus.request.wait")
+                .description("Time a Modbus request waited in the queue before being sent")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(startNanos - request.getSubmittedNanos(), TimeUnit.NANOSECONDS);
+
+        Timer.builder("solax.modbus.request.wire")
+                .description("Time from sending a Modbus request until its response was processed")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(lastCompletionNanos - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void countRejected(ModbusRequest<?> request, String reason) {
+        Counter.builder("solax.modbus.request.rejected")
+                .description("Modbus requests failed without being sent")
+                .tags("register", request.getName(), "priority", request.getPriority().name(), "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private double oldestRequestAgeSeconds() {
+        long now = System.nanoTime();
+        long oldest = now;
+
+        for (ModbusRequest<?> request : queue) {
+            if (request.getSubmittedNanos() - oldest < 0) {
+                oldest = request.getSubmittedNanos();
+            }
         }
+
+        return (now - oldest) / 1e9;
+    }
+
+    /**
+     * Successful requests pull the gap towards the average response time, failed ones double it.
+     */
+    private void adaptDelay(long responseMillis, boolean success) {
+        long previousDelay = currentDelayMillis;
+
+        if (success) {
+            averageResponseMillis = averageResponseMillis * (1 - RESPONSE_EWMA_WEIGHT) + responseMillis * RESPONSE_EWMA_WEIGHT;
+
+            long target = Math.clamp(Math.round(averageResponseMillis), minDelayMillis, maxDelayMillis);
+            currentDelayMillis = previousDelay + (target - previousDelay) / 4;
+        } else {
+            currentDelayMillis = Math.min(maxDelayMillis, previousDelay * 2);
+            log.debug("Modbus request failed; backing off to {}ms between requests", currentDelayMillis);
+        }
+
+        log.trace("Modbus response took {}ms; delay {}ms -> {}ms", responseMillis, previousDelay, currentDelayMillis);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Submit a request without waiting for it to be executed.
+     *
+     * @param request the Modbus request
+     * @param <T>     response type
+     * @return future completed by the queue worker once the request was executed
+     */
+    public <T> CompletableFuture<T> submit(ModbusRequest<T> request) {
+        if (request.getPriority() != ModbusRequestPriority.CRITICAL && !capacity.tryAcquire()) {
+            log.warn("Modbus request queue is saturated ({} requests); rejecting {} request", queue.size(), request.getPriority());
+            request.reject("request queue is saturated");
+            countRejected(request, "saturated");
+            return request.getFuture();
+        }
+
+        queue.add(request);
+        return request.getFuture();
     }
 
     /**
      * Submit a request and block until completion.
      *
      * @param request the Modbus request
+     * @param timeout maximum time to wait in milliseconds
      * @param <T>     response type
      * @return the result of the request
      */
-    public <T> T submitAndWait(ModbusRequest<T> request) throws InterruptedException, ExecutionException {
-        queue.put(request);
-        return request.getFuture().get();
+    public <T> T submitAndWait(ModbusRequest<T> request, long timeout) throws InterruptedException, ExecutionException, TimeoutException {
+        return submit(request).get(timeout, TimeUnit.MILLISECONDS);
     }
 }
@@ -0,0 +1,12 @@
+package me.firestone82.solaxautomation.service.solax.queue;
+
+/**
+ * Thrown when a request was never sent to the inverter, because the queue was saturated
+ * or the request's deadline passed while it was waiting.
+ */
+public class ModbusRequestRejectedException extends RuntimeException {
+
+    public ModbusRequestRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,26 @@
 package me.firestone82.solaxautomation.service.solax.register;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import me.firestone82.solaxautomation.service.solax.register.codec.RegisterCodec;
+import me.firestone82.solaxautomation.service.solax.register.codec.RegisterCodecs;
 
 @Getter
-@RequiredArgsConstructor
 public abstract class Register<T> {
     protected final String name;
     protected final int address;
     protected final int count;
     protected final Class<T> tClass;
+    protected final RegisterCodec<T> codec;
+
+    protected Register(String name, int address, int count, Class<T> tClass) {
+        this(name, address, count, tClass, RegisterCodecs.forType(tClass, count));
+    }
+
+    protected Register(String name, int address, int count, Class<T> tClass, RegisterCodec<T> codec) {
+        this.name = name;
+        this.address = address;
+        this.count = count;
+        this.tClass = tClass;
+        this.codec = codec;
+    }
 }
@@ -1,17 +1,34 @@
 package me.firestone82.solaxautomation.service.solax.register;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import me.firestone82.solaxautomation.service.solax.model.InverterMode;
 import me.firestone82.solaxautomation.service.solax.model.ManualMode;
 
+import java.util.List;
+
 @Slf4j
+@Getter
 public class WriteRegister<T> extends Register<T> {
     public static WriteRegister<Integer> UNLOCK_PASSWORD = new WriteRegister<>("UnlockPassword", 0x0000, 1, Integer.class);
-    public static WriteRegister<InverterMode> USE_MODE = new WriteRegister<>("SolarChargerUseMode", 0x001F, 1, InverterMode.class);
+    public static WriteRegister<InverterMode> USE_MODE = new WriteRegister<>("SolarChargerUseMode", 0x001F, 1, InverterMode.class, ReadRegister.USE_MODE);
     public static WriteRegister<ManualMode> MANUAL_MODE = new WriteRegister<>("ManualMode", 0x0020, 1, ManualMode.class);
-    public static WriteRegister<Integer> EXPORT_LIMIT = new WriteRegister<>("ExportLimit", 0x0042, 1, Integer.class);
+    public static WriteRegister<Integer> EXPORT_LIMIT = new WriteRegister<>("ExportLimit", 0x0042, 1, Integer.class, ReadRegister.EXPORT_LIMIT);
+
+    public static List<WriteRegister<?>> ALL = List.of(UNLOCK_PASSWORD, USE_MODE, MANUAL_MODE, EXPORT_LIMIT);
+
+    /**
+     * Holding register reporting the current value of this register, or null if the inverter does not expose it.
+     * The inverter uses separate address ranges for writing and reading holding registers.
+     */
+    private final ReadRegister<T> readBack;
 
     public WriteRegister(String name, int address, int length, Class<T> tClass) {
+        this(name, address, length, tClass, null);
+    }
+
+    public WriteRegister(String name, int address, int length, Class<T> tClass, ReadRegister<T> readBack) {
         super(name, address, length, tClass);
+        this.readBack = readBack;
     }
 }
@@ -0,0 +1,22 @@
+package me.firestone82.solaxautomation.service.solax.register.catalog;
+
+import lombok.Getter;
+import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.register.codec.RegisterCodec;
+
+/**
+ * Register declared in the register catalog resource, with its physical unit and description.
+ * Instances are generated into {@link RegisterCatalog} at build time.
+ */
+@Getter
+public class CatalogRegister<T> extends ReadRegister<T> {
+    private final String unit;
+    private final String description;
+
+    public CatalogRegister(String name, int address, int count, Class<T> tClass, RegisterCodec<T> codec, ReadRegistryType registryType, String unit, String description) {
+        super(name, address, count, tClass, codec, registryType);
+        this.unit = unit;
+        this.description = description;
+    }
+}
@@ -0,0 +1,13 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+/**
+ * First byte of the register.
+ */
+public class ByteCodec implements RegisterCodec<Byte> {
+    public static final ByteCodec INSTANCE = new ByteCodec();
+
+    @Override
+    public Byte decode(byte[] data, int offset) {
+        return data[offset];
+    }
+}
@@ -0,0 +1,26 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+/**
+ * Maps an unsigned 16-bit value to the enum constant with that ordinal.
+ * The constants are resolved once, instead of calling {@code getEnumConstants()} per response.
+ */
+public class EnumCodec<E extends Enum<E>> implements RegisterCodec<E> {
+    private final Class<E> enumClass;
+    private final E[] constants;
+
+    public EnumCodec(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        this.constants = enumClass.getEnumConstants();
+    }
+
+    @Override
+    public E decode(byte[] data, int offset) {
+        int ordinal = IntegerCodec.word(data, offset);
+
+        if (ordinal >= constants.length) {
+            throw new IllegalArgumentException("Invalid ordinal " + ordinal + " for enum " + enumClass.getName());
+        }
+
+        return constants[ordinal];
+    }
+}
@@ -0,0 +1,19 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Binary layout of an integer register value.
+ */
+@Getter
+@AllArgsConstructor
+public enum NumberFormat {
+    U16(1, false),
+    S16(1, true),
+    U32(2, false),
+    S32(2, true);
+
+    private final int words;
+    private final boolean signed;
+}
@@ -0,0 +1,20 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+/**
+ * Decoder of a register value, resolved once when the register is declared.
+ * <p>
+ * Codecs read directly from the response payload at a byte offset, so one payload of a planned block read
+ * is decoded for all its registers without slicing or copying.
+ *
+ * @param <T> decoded value type
+ */
+public interface RegisterCodec<T> {
+
+    /**
+     * Decode the value starting at byte {@code offset} of {@code data}.
+     *
+     * @param data   response payload, big-endian 16-bit words
+     * @param offset byte offset of the register's first word
+     */
+    T decode(byte[] data, int offset);
+}
@@ -0,0 +1,32 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+/**
+ * Resolves the codec of a register from its value type, once at declaration.
+ */
+public class RegisterCodecs {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> RegisterCodec<T> forType(Class<T> tClass, int count) {
+        if (tClass == String.class) {
+            return (RegisterCodec<T>) new StringCodec(count);
+        }
+
+        if (tClass == Byte.class) {
+            return (RegisterCodec<T>) ByteCodec.INSTANCE;
+        }
+
+        if (tClass == Integer.class) {
+            return (RegisterCodec<T>) (count >= 2 ? IntegerCodec.U32 : IntegerCodec.S16);
+        }
+
+        if (tClass == int[].class) {
+            return (RegisterCodec<T>) new WordArrayCodec(count);
+        }
+
+        if (tClass.isEnum()) {
+            return (RegisterCodec<T>) new EnumCodec(tClass);
+        }
+
+        throw new IllegalStateException("No register codec for type: " + tClass.getName());
+    }
+}
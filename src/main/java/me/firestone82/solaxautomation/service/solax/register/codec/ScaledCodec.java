@@ -0,0 +1,21 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+import lombok.Getter;
+
+/**
+ * Integer register with a scale factor, decoded into its physical value (e.g. 0.1 V steps into volts).
+ * Use {@link IntegerCodec#decodeScaled} through {@link #getInteger()} on hot paths to avoid boxing.
+ */
+@Getter
+public class ScaledCodec implements RegisterCodec<Double> {
+    private final IntegerCodec integer;
+
+    public ScaledCodec(NumberFormat format, double scale) {
+        this.integer = new IntegerCodec(format, scale, true);
+    }
+
+    @Override
+    public Double decode(byte[] data, int offset) {
+        return integer.decodeScaled(data, offset);
+    }
+}
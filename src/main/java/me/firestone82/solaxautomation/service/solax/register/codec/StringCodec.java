@@ -0,0 +1,24 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ASCII string stored as two characters per register, trailing NUL padding removed.
+ */
+public class StringCodec implements RegisterCodec<String> {
+    private final int length;
+
+    public StringCodec(int words) {
+        this.length = words * 2;
+    }
+
+    @Override
+    public String decode(byte[] data, int offset) {
+        int end = offset + length;
+        while (end > offset && data[end - 1] == 0) {
+            end--;
+        }
+
+        return new String(data, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+}
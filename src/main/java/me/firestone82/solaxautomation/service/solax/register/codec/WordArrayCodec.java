@@ -0,0 +1,23 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+/**
+ * Consecutive unsigned 16-bit values decoded into a primitive array.
+ */
+public class WordArrayCodec implements RegisterCodec<int[]> {
+    private final int words;
+
+    public WordArrayCodec(int words) {
+        this.words = words;
+    }
+
+    @Override
+    public int[] decode(byte[] data, int offset) {
+        int[] result = new int[words];
+
+        for (int i = 0; i < words; i++) {
+            result[i] = IntegerCodec.word(data, offset + i * 2);
+        }
+
+        return result;
+    }
+}
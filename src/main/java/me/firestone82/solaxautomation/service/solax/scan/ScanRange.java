@@ -0,0 +1,41 @@
+package me.firestone82.solaxautomation.service.solax.scan;
+
+import me.firestone82.solaxautomation.service.solax.model.ReadRegistryType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contiguous register range read by every telemetry scan.
+ *
+ * @param type    registry type of the range
+ * @param address first address of the range
+ * @param count   number of 16-bit words in the range
+ */
+public record ScanRange(ReadRegistryType type, int address, int count) {
+
+    public int endAddress() {
+        return address + count;
+    }
+
+    /**
+     * Parse input register ranges written as {@code start-end} (inclusive, hex with 0x or decimal), separated by ';'.
+     */
+    public static List<ScanRange> parseInputRanges(String ranges) {
+        return Arrays.stream(ranges.split(";"))
+                .map(String::trim)
+                .filter(range -> !range.isEmpty())
+                .map(range -> {
+                    String[] bounds = range.split("-");
+                    int start = Integer.decode(bounds[0].trim());
+                    int end = bounds.length > 1 ? Integer.decode(bounds[1].trim()) : start;
+
+                    if (end < start) {
+                        throw new IllegalArgumentException("Invalid scan range: " + range);
+                    }
+
+                    return new ScanRange(ReadRegistryType.INPUT, start, end - start + 1);
+                })
+                .toList();
+    }
+}
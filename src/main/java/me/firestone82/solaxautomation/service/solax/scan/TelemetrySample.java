@@ -0,0 +1,80 @@
+package me.firestone82.solaxautomation.service.solax.scan;
+
+import lombok.Getter;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.register.codec.IntegerCodec;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Optional;
+
+/**
+ * One consistent set of raw register words captured by a telemetry scan.
+ * <p>
+ * Words are kept as the big-endian Modbus payload in a flat array indexed by address ({@code address * 2}),
+ * so any register codec decodes straight from it without copying. Only addresses covered by a successful block
+ * read are valid; a scan whose blocks partly failed is {@link #isComplete() incomplete}.
+ */
+public class TelemetrySample {
+
+    @Getter
+    private final Instant timestamp;
+    private final byte[] data;
+    private final BitSet valid;
+    @Getter
+    private final boolean complete;
+
+    public TelemetrySample(Instant timestamp, byte[] data, BitSet valid, boolean complete) {
+        this.timestamp = timestamp;
+        this.data = data;
+        this.valid = valid;
+        this.complete = complete;
+    }
+
+    public boolean contains(int address, int count) {
+        return address >= 0 && address + count <= data.length / 2 && valid.nextClearBit(address) >= address + count;
+    }
+
+    public boolean contains(ReadRegister<?> register) {
+        return contains(register.getAddress(), register.getCount());
+    }
+
+    /**
+     * Raw unsigned 16-bit word at the address.
+     *
+     * @throws IllegalArgumentException when the address was not read
+     */
+    public int word(int address) {
+        check(address, 1);
+        return ((data[address * 2] & 0xFF) << 8) | (data[address * 2 + 1] & 0xFF);
+    }
+
+    /**
+     * Decode an integer without boxing.
+     *
+     * @throws IllegalArgumentException when the address was not read
+     */
+    public long getLong(int address, IntegerCodec codec) {
+        check(address, codec.getFormat().getWords());
+        return codec.decodeLong(data, address * 2);
+    }
+
+    public double getScaled(int address, IntegerCodec codec) {
+        check(address, codec.getFormat().getWords());
+        return codec.decodeScaled(data, address * 2);
+    }
+
+    public <T> Optional<T> get(ReadRegister<T> register) {
+        if (!contains(register)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(register.getCodec().decode(data, register.getAddress() * 2));
+    }
+
+    private void check(int address, int count) {
+        if (!contains(address, count)) {
+            throw new IllegalArgumentException("Address 0x" + Integer.toHexString(address) + " is not part of the sample");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package me.firestone82.solaxautomation.service.solax.scan;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.SolaxService;
+import me.firestone82.solaxautomation.service.solax.model.TelemetrySampleEvent;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk telemetry scan mode: reads the configured input register ranges every cycle and publishes
+ * each capture as a {@link TelemetrySampleEvent}.
+ * <p>
+ * Enabled with {@code solax.scan.enabled}. The reads run in the background lane and expire after one interval,
+ * so a slow inverter skips cycles instead of piling them up.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "solax.scan", name = "enabled", havingValue = "true")
+public class TelemetryScanner {
+
+    private final SolaxService solaxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<ScanRange> ranges;
+    private final Duration interval;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<TelemetrySample> latest = new AtomicReference<>();
+
+    public TelemetryScanner(
+            @Autowired SolaxService solaxService,
+            @Autowired ApplicationEventPublisher eventPublisher,
+            @Value("${solax.scan.ranges}") String ranges,
+            @Value("${solax.scan.interval:10000}") long intervalMillis
+    ) {
+        this.solaxService = solaxService;
+        this.eventPublisher = eventPublisher;
+        this.ranges = ScanRange.parseInputRanges(ranges);
+        this.interval = Duration.ofMillis(intervalMillis);
+
+        log.info("Telemetry scan of {} input register ranges every {}ms", this.ranges.size(), intervalMillis);
+    }
+
+    @Scheduled(fixedRateString = "${solax.scan.interval:10000}")
+    public void scan() {
+        // Previous cycle still waiting in the queue
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous telemetry scan still running, skipping cycle");
+            return;
+        }
+
+        solaxService.getSolaxClient()
+                .scanAsync(ranges, solaxService.getUnitId(), ModbusRequestPriority.BACKGROUND, interval)
+                .whenComplete((sample, e) -> {
+                    running.set(false);
+
+                    if (e != null) {
+                        log.warn("Telemetry scan failed: {}", e.getMessage());
+                        return;
+                    }
+
+                    if (!sample.isComplete()) {
+                        log.debug("Telemetry scan incomplete, some blocks failed");
+                    }
+
+                    latest.set(sample);
+                    eventPublisher.publishEvent(new TelemetrySampleEvent(sample));
+                });
+    }
+
+    public Optional<TelemetrySample> getLatest() {
+        return Optional.ofNullable(latest.get());
+    }
+}
@@ -0,0 +1,172 @@
+package me.firestone82.solaxautomation.service.solax.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.model.ManualMode;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Register model of a Solax X1/X3 G4 hybrid inverter, following the G4 Modbus protocol document.
+ * <p>
+ * Covers the registers declared in {@link ReadRegister} and {@link WriteRegister}: serial number, lock state,
+ * use/manual mode, export limit, PV power and battery state. PV power follows a simple daylight curve and the
+ * battery charges or discharges according to the selected mode, so SOC based automation reacts over time.
+ * Unmodelled addresses read as zero, like gaps in the real register map.
+ */
+@Slf4j
+public class SimulatedInverter {
+
+    // Modbus exception codes
+    public static final int ILLEGAL_DATA_ADDRESS = 0x02;
+    public static final int ILLEGAL_DATA_VALUE = 0x03;
+    public static final int DEVICE_FAILURE = 0x04;
+
+    private static final String SERIAL_NUMBER = "H34A10SIMULATE";
+    private static final int BATTERY_CAPACITY_WH = 10000;
+    private static final int PV_PEAK_POWER_PER_STRING = 2500;
+    private static final int HOUSE_LOAD = 400;
+    private static final int MAX_BATTERY_POWER = 3000;
+
+    private final int password;
+
+    private final Map<Integer, Integer> inputs = new HashMap<>();
+    private final Map<Integer, Integer> holdings = new HashMap<>();
+
+    private boolean unlocked = false;
+    private InverterMode mode = InverterMode.SELF_USE;
+    private ManualMode manualMode = ManualMode.STOP_CHARGE_DISCHARGE;
+    private int exportLimit = 395;
+    private double batteryEnergyWh = BATTERY_CAPACITY_WH * 0.5;
+
+    public SimulatedInverter(int password, LocalTime time) {
+        this.password = password;
+
+        byte[] serial = SERIAL_NUMBER.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < ReadRegister.INVERTER_SN.getCount(); i++) {
+            holdings.put(ReadRegister.INVERTER_SN.getAddress() + i, ((serial[i * 2] & 0xFF) << 8) | (serial[i * 2 + 1] & 0xFF));
+        }
+
+        update(time, 0);
+    }
+
+    public synchronized int readInput(int address) {
+        return inputs.getOrDefault(address, 0);
+    }
+
+    public synchronized int readHolding(int address) {
+        return holdings.getOrDefault(address, 0);
+    }
+
+    /**
+     * Write a single holding register.
+     *
+     * @return 0 on success, otherwise the Modbus exception code
+     */
+    public synchronized int write(int address, int value) {
+        if (address == WriteRegister.UNLOCK_PASSWORD.getAddress()) {
+            if (value != password) {
+                return ILLEGAL_DATA_VALUE;
+            }
+
+            unlocked = true;
+            log.info("Simulator: inverter unlocked");
+            refresh();
+            return 0;
+        }
+
+        if (!unlocked) {
+            return DEVICE_FAILURE;
+        }
+
+        if (address == WriteRegister.USE_MODE.getAddress()) {
+            if (value >= InverterMode.values().length) {
+                return ILLEGAL_DATA_VALUE;
+            }
+
+            mode = InverterMode.values()[value];
+        } else if (address == WriteRegister.MANUAL_MODE.getAddress()) {
+            if (value >= ManualMode.values().length) {
+                return ILLEGAL_DATA_VALUE;
+            }
+
+            manualMode = ManualMode.values()[value];
+        } else if (address == WriteRegister.EXPORT_LIMIT.getAddress()) {
+            exportLimit = value;
+        } else {
+            return ILLEGAL_DATA_ADDRESS;
+        }
+
+        log.debug("Simulator: register 0x{} set to {}", Integer.toHexString(address), value);
+        refresh();
+        return 0;
+    }
+
+    /**
+     * Advance the battery model by {@code seconds} at time of day {@code time}.
+     */
+    public synchronized void update(LocalTime time, double seconds) {
+        int pv = pvPowerPerString(time);
+        inputs.put(ReadRegister.POWER_DC.getAddress(), pv);
+        inputs.put(ReadRegister.POWER_DC.getAddress() + 1, pv);
+
+        double batteryPower = batteryPower(pv * 2);
+        batteryEnergyWh = Math.clamp(batteryEnergyWh + batteryPower * seconds / 3600, 0, BATTERY_CAPACITY_WH);
+
+        refresh();
+    }
+
+    public synchronized int getSoc() {
+        return (int) Math.round(batteryEnergyWh * 100 / BATTERY_CAPACITY_WH);
+    }
+
+    /**
+     * Battery power in W, positive when charging.
+     */
+    private double batteryPower(int pvPower) {
+        int surplus = pvPower - HOUSE_LOAD;
+
+        return switch (mode) {
+            case SELF_USE -> Math.clamp(surplus, -MAX_BATTERY_POWER, MAX_BATTERY_POWER);
+            // Export up to the limit first, the rest goes to the battery
+            case FEED_IN_PRIORITY -> Math.clamp(surplus - exportLimit * 10L, 0, MAX_BATTERY_POWER);
+            case BACKUP -> Math.clamp(surplus, 0, MAX_BATTERY_POWER);
+            case MANUAL -> switch (manualMode) {
+                case STOP_CHARGE_DISCHARGE -> 0;
+                case FORCE_CHARGE -> MAX_BATTERY_POWER;
+                case FORCE_DISCHARGE -> -MAX_BATTERY_POWER;
+            };
+        };
+    }
+
+    private int pvPowerPerString(LocalTime time) {
+        double hour = time.toSecondOfDay() / 3600.0;
+        if (hour < 6 || hour > 20) {
+            return 0;
+        }
+
+        return (int) Math.round(PV_PEAK_POWER_PER_STRING * Math.sin(Math.PI * (hour - 6) / 14));
+    }
+
+    private void refresh() {
+        int soc = getSoc();
+        int capacity = BATTERY_CAPACITY_WH;
+
+        inputs.put(ReadRegister.BATTERY_CAPACITY.getAddress(), soc);
+        inputs.put(ReadRegister.BMS_USER_SOC.getAddress(), soc);
+        inputs.put(ReadRegister.BMS_USER_SOH.getAddress(), 100);
+        // 32-bit, low word first
+        inputs.put(ReadRegister.BMS_BATTERY_CAPACITY.getAddress(), capacity & 0xFFFF);
+        inputs.put(ReadRegister.BMS_BATTERY_CAPACITY.getAddress() + 1, capacity >>> 16);
+        inputs.put(ReadRegister.LOCK_STATE.getAddress(), unlocked ? 1 : 0);
+        inputs.put(ReadRegister.POWER_CONTROL.getAddress(), mode == InverterMode.MANUAL ? 1 : 0);
+
+        holdings.put(ReadRegister.USE_MODE.getAddress(), mode.ordinal());
+        holdings.put(ReadRegister.EXPORT_LIMIT.getAddress(), exportLimit);
+    }
+}
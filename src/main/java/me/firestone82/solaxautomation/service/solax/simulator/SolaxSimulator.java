@@ -0,0 +1,287 @@
+package me.firestone82.solaxautomation.service.solax.simulator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process Modbus TCP server backed by a {@link SimulatedInverter}, for local testing and benchmarking
+ * without a real inverter.
+ * <p>
+ * Enabled with {@code solax.simulator.enabled=true}; point {@code solax.modbus.host}/{@code port} at it.
+ * Every response is delayed by the configured latency plus random jitter, a share of requests can be dropped
+ * without an answer, and like the Solax Wi-Fi/LAN dongle it serves a limited number of clients at once,
+ * closing any extra connection immediately.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "solax.simulator", name = "enabled", havingValue = "true")
+public class SolaxSimulator {
+
+    private static final int FC_READ_HOLDINGS = 0x03;
+    private static final int FC_READ_INPUTS = 0x04;
+    private static final int FC_WRITE_HOLDING = 0x06;
+    private static final int FC_WRITE_HOLDINGS = 0x10;
+    private static final int ILLEGAL_FUNCTION = 0x01;
+    private static final int ILLEGAL_DATA_VALUE = 0x03;
+
+    // Register quantity limits of a single request, so the byte count fits its one byte field
+    private static final int MAX_READ = 125;
+    private static final int MAX_WRITE = 123;
+
+    @Getter
+    private final SimulatedInverter inverter;
+    private final int port;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double dropRate;
+    private final Semaphore clients;
+    private final Clock clock;
+
+    @Getter
+    private final AtomicLong servedRequests = new AtomicLong();
+    @Getter
+    private final AtomicLong droppedRequests = new AtomicLong();
+    @Getter
+    private final AtomicLong rejectedClients = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private ScheduledExecutorService ticker;
+    private Instant lastTick;
+
+    public SolaxSimulator(
+            @Value("${solax.simulator.port:5020}") int port,
+            @Value("${solax.simulator.latency:50}") long latencyMillis,
+            @Value("${solax.simulator.jitter:20}") long jitterMillis,
+            @Value("${solax.simulator.dropRate:0.0}") double dropRate,
+            @Value("${solax.simulator.maxClients:1}") int maxClients,
+            @Value("${solax.password}") int password,
+            @Autowired Clock clock
+    ) {
+        this.inverter = new SimulatedInverter(password, LocalTime.now(clock));
+        this.port = port;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.dropRate = dropRate;
+        this.clients = new Semaphore(maxClients);
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "SolaxSimulator-Worker");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SolaxSimulator-Clock");
+            t.setDaemon(true);
+            return t;
+        });
+
+        executor.execute(this::accept);
+        lastTick = clock.instant();
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+
+        log.info("Solax simulator listening on {}:{} (latency {}±{}ms, drop rate {}, max {} clients)", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), latencyMillis, jitterMillis, dropRate, clients.availablePermits());
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close simulator socket", e);
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+
+        log.info("Solax simulator stopped ({} requests served, {} dropped, {} clients rejected)", servedRequests.get(), droppedRequests.get(), rejectedClients.get());
+    }
+
+    /**
+     * Advance the inverter by the time passed on the clock, which runs faster than real time under virtual time.
+     */
+    private void tick() {
+        Instant now = clock.instant();
+        inverter.update(LocalTime.ofInstant(now, clock.getZone()), Duration.between(lastTick, now).toMillis() / 1000.0);
+        lastTick = now;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+
+                if (!clients.tryAcquire()) {
+                    log.debug("Simulator: rejecting client {}, connection limit reached", socket.getRemoteSocketAddress());
+                    rejectedClients.incrementAndGet();
+                    socket.close();
+                    continue;
+                }
+
+                executor.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                // Socket closed on shutdown
+                return;
+            } catch (IOException e) {
+                log.error("Simulator failed to accept a client", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        log.debug("Simulator: client {} connected", socket.getRemoteSocketAddress());
+
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+
+            while (!socket.isClosed()) {
+                // MBAP header: transaction, protocol, length, unit
+                int transactionId = in.readUnsignedShort();
+                int protocolId = in.readUnsignedShort();
+                int length = in.readUnsignedShort();
+                int unitId = in.readUnsignedByte();
+
+                // The length counts the unit id, a request without a function code is answered as malformed
+                byte[] pdu = new byte[Math.max(0, length - 1)];
+                in.readFully(pdu);
+
+                if (ThreadLocalRandom.current().nextDouble() < dropRate) {
+                    droppedRequests.incrementAndGet();
+                    continue;
+                }
+
+                byte[] response = handle(pdu);
+                delay();
+
+                out.writeShort(transactionId);
+                out.writeShort(protocolId);
+                out.writeShort(response.length + 1);
+                out.writeByte(unitId);
+                out.write(response);
+                out.flush();
+
+                servedRequests.incrementAndGet();
+            }
+        } catch (EOFException | SocketException e) {
+            log.debug("Simulator: client {} disconnected", socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            log.error("Simulator: error serving client {}", socket.getRemoteSocketAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.release();
+        }
+    }
+
+    private byte[] handle(byte[] pdu) {
+        if (pdu.length == 0) {
+            return exception(0, ILLEGAL_DATA_VALUE);
+        }
+
+        int function = pdu[0] & 0xFF;
+
+        return switch (function) {
+            case FC_READ_HOLDINGS, FC_READ_INPUTS -> {
+                if (pdu.length < 5 || word(pdu, 3) < 1 || word(pdu, 3) > MAX_READ) {
+                    yield exception(function, ILLEGAL_DATA_VALUE);
+                }
+
+                int address = word(pdu, 1);
+                int count = word(pdu, 3);
+
+                byte[] response = new byte[2 + count * 2];
+                response[0] = (byte) function;
+                response[1] = (byte) (count * 2);
+
+                for (int i = 0; i < count; i++) {
+                    int value = function == FC_READ_HOLDINGS ? inverter.readHolding(address + i) : inverter.readInput(address + i);
+                    response[2 + i * 2] = (byte) (value >> 8);
+                    response[3 + i * 2] = (byte) value;
+                }
+
+                yield response;
+            }
+            case FC_WRITE_HOLDING -> {
+                if (pdu.length < 5) {
+                    yield exception(function, ILLEGAL_DATA_VALUE);
+                }
+
+                int error = inverter.write(word(pdu, 1), word(pdu, 3));
+                yield error == 0 ? pdu : exception(function, error);
+            }
+            case FC_WRITE_HOLDINGS -> {
+                if (pdu.length < 6 || word(pdu, 3) < 1 || word(pdu, 3) > MAX_WRITE || pdu.length < 6 + word(pdu, 3) * 2) {
+                    yield exception(function, ILLEGAL_DATA_VALUE);
+                }
+
+                int address = word(pdu, 1);
+                int count = word(pdu, 3);
+
+                for (int i = 0; i < count; i++) {
+                    int error = inverter.write(address + i, word(pdu, 6 + i * 2));
+                    if (error != 0) {
+                        yield exception(function, error);
+                    }
+                }
+
+                byte[] response = new byte[5];
+                System.arraycopy(pdu, 0, response, 0, 5);
+                yield response;
+            }
+            default -> exception(function, ILLEGAL_FUNCTION);
+        };
+    }
+
+    private void delay() throws InterruptedException {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        long delay = Math.max(0, latencyMillis + jitter);
+
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private static byte[] exception(int function, int code) {
+        return new byte[]{(byte) (function | 0x80), (byte) code};
+    }
+
+    private static int word(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+}
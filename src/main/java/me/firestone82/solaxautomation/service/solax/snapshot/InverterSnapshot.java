@@ -0,0 +1,47 @@
+package me.firestone82.solaxautomation.service.solax.snapshot;
+
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable view of the inverter telemetry used by the automation, sampled at a single point in time.
+ *
+ * @param timestamp    time the sample was requested
+ * @param batteryLevel battery state of charge (%)
+ * @param mode         current inverter use mode
+ * @param exportLimit  current export limit (W)
+ * @param pv1Power     DC power of PV string 1 (W)
+ * @param pv2Power     DC power of PV string 2 (W)
+ */
+public record InverterSnapshot(
+        Instant timestamp,
+        int batteryLevel,
+        InverterMode mode,
+        int exportLimit,
+        int pv1Power,
+        int pv2Power
+) {
+
+    public int pvPower() {
+        return pv1Power + pv2Power;
+    }
+
+    public Duration age(Clock clock) {
+        return Duration.between(timestamp, clock.instant());
+    }
+
+    public boolean isOlderThan(Duration maxAge, Clock clock) {
+        return age(clock).compareTo(maxAge) > 0;
+    }
+
+    public InverterSnapshot withMode(InverterMode mode) {
+        return new InverterSnapshot(timestamp, batteryLevel, mode, exportLimit, pv1Power, pv2Power);
+    }
+
+    public InverterSnapshot withExportLimit(int exportLimit) {
+        return new InverterSnapshot(timestamp, batteryLevel, mode, exportLimit, pv1Power, pv2Power);
+    }
+}
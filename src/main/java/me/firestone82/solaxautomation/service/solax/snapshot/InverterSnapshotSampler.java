@@ -0,0 +1,164 @@
+package me.firestone82.solaxautomation.service.solax.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.SolaxService;
+import me.firestone82.solaxautomation.service.solax.client.plan.RegisterValues;
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import me.firestone82.solaxautomation.service.solax.model.InverterSnapshotEvent;
+import me.firestone82.solaxautomation.service.solax.model.InverterWriteEvent;
+import me.firestone82.solaxautomation.service.solax.queue.ModbusRequestPriority;
+import me.firestone82.solaxautomation.service.solax.register.ReadRegister;
+import me.firestone82.solaxautomation.service.solax.register.WriteRegister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Periodically samples all inverter telemetry used by the automation and publishes it as one {@link InverterSnapshot}.
+ * <p>
+ * Checkers read the latest snapshot instead of issuing their own Modbus reads, so the single-worker
+ * request queue only sees one planned batch of reads per interval. Mode and export limit are taken from the
+ * {@link me.firestone82.solaxautomation.service.solax.client.HoldingRegisterCache} and only re-read once it expires.
+ * Successful writes are folded into the current snapshot, so a mode change is visible to the next check
+ * without waiting for the next sample.
+ */
+@Slf4j
+@Component
+public class InverterSnapshotSampler {
+
+    private final SolaxService solaxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration interval;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private final AtomicReference<InverterSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean sampling = new AtomicBoolean(false);
+
+    public InverterSnapshotSampler(
+            @Autowired SolaxService solaxService,
+            @Autowired ApplicationEventPublisher eventPublisher,
+            @Value("${solax.snapshot.interval:30000}") long intervalMillis,
+            @Value("${solax.snapshot.maxAge:90000}") long maxAgeMillis,
+            @Autowired Clock clock
+    ) {
+        this.solaxService = solaxService;
+        this.eventPublisher = eventPublisher;
+        this.interval = Duration.ofMillis(intervalMillis);
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+        this.clock = clock;
+
+        log.info("Inverter snapshot sampler initialized | maxAge={}", maxAge);
+    }
+
+    @Scheduled(fixedRateString = "${solax.snapshot.interval:30000}")
+    public void sample() {
+        // Previous sample still waiting in the request queue
+        if (!sampling.compareAndSet(false, true)) {
+            log.debug("Previous inverter sample still in progress; skipping.");
+            return;
+        }
+
+        List<ReadRegister<?>> registers = new ArrayList<>(List.of(ReadRegister.BATTERY_CAPACITY, ReadRegister.POWER_DC));
+
+        // Holding registers only change when written, re-read them once the holding cache expired
+        if (solaxService.getCachedMode().isEmpty()) {
+            registers.add(ReadRegister.USE_MODE);
+        }
+
+        if (solaxService.getCachedExportLimit().isEmpty()) {
+            registers.add(ReadRegister.EXPORT_LIMIT);
+        }
+
+        // Stamped with the request time, the values are read at some point after it
+        Instant requested = clock.instant();
+
+        solaxService
+                // A sample still queued when the next one is due is worthless
+                .readAllAsync(ModbusRequestPriority.BACKGROUND, interval, registers.toArray(ReadRegister[]::new))
+                .thenAccept(values -> publish(values, requested))
+                .whenComplete((ignored, e) -> {
+                    sampling.set(false);
+
+                    if (e != null) {
+                        log.error("Failed to sample inverter telemetry: {}", e.getMessage());
+                    }
+                });
+    }
+
+    private void publish(RegisterValues values, Instant requested) {
+        Optional<Integer> battery = values.get(ReadRegister.BATTERY_CAPACITY);
+        Optional<int[]> power = values.get(ReadRegister.POWER_DC);
+        // Freshly read holding registers were already put into the holding cache
+        Optional<InverterMode> mode = solaxService.getCachedMode();
+        Optional<Integer> exportLimit = solaxService.getCachedExportLimit();
+
+        if (battery.isEmpty() || power.isEmpty() || mode.isEmpty() || exportLimit.isEmpty()) {
+            log.warn("Incomplete inverter telemetry sample; keeping previous snapshot.");
+            return;
+        }
+
+        InverterSnapshot sample = new InverterSnapshot(
+                requested,
+                battery.get(),
+                mode.get(),
+                exportLimit.get(),
+                power.get()[0],
+                power.get()[1]
+        );
+
+        snapshot.set(sample);
+        log.debug("Published inverter snapshot: {}", sample);
+
+        eventPublisher.publishEvent(new InverterSnapshotEvent(sample));
+    }
+
+    /**
+     * Latest snapshot, if it is not older than the configured maximum age.
+     */
+    public Optional<InverterSnapshot> getSnapshot() {
+        return getSnapshot(maxAge);
+    }
+
+    /**
+     * Latest snapshot, if it is not older than {@code maxAge}.
+     *
+     * @param maxAge maximum accepted age of the snapshot
+     */
+    public Optional<InverterSnapshot> getSnapshot(Duration maxAge) {
+        InverterSnapshot current = snapshot.get();
+
+        if (current == null) {
+            log.warn("No inverter snapshot sampled yet.");
+            return Optional.empty();
+        }
+
+        if (current.isOlderThan(maxAge, clock)) {
+            log.warn("Inverter snapshot is stale ({}s old, max {}s).", current.age(clock).toSeconds(), maxAge.toSeconds());
+            return Optional.empty();
+        }
+
+        return Optional.of(current);
+    }
+
+    @EventListener
+    public void onInverterWrite(InverterWriteEvent event) {
+        if (event.register() == WriteRegister.USE_MODE && event.value() instanceof InverterMode mode) {
+            snapshot.updateAndGet(current -> current == null ? null : current.withMode(mode));
+        } else if (event.register() == WriteRegister.EXPORT_LIMIT && event.value() instanceof Integer limit) {
+            snapshot.updateAndGet(current -> current == null ? null : current.withExportLimit(limit));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import lombok.Getter;
+import me.firestone82.solaxautomation.service.telemetry.gorilla.*;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sealed day of telemetry compressed with the Gorilla encoding: the timestamp column as delta-of-deltas and every
+ * value column as XORs of consecutive doubles, each column an independent bit stream in a single file.
+ * <p>
+ * File layout: magic, row count, first and last timestamp, column count, then per column its name, byte offset and
+ * byte length, followed by the column streams. A scan decodes all columns in lockstep straight from the mapped file,
+ * so like {@link DaySegment} it never materializes the day on the heap, but it has to decode from the first row.
+ */
+class CompressedSegment implements TelemetrySegment {
+    static final String FILE = "segment.gor";
+
+    private static final int MAGIC = 0x474F5231; // "GOR1"
+
+    @Getter
+    private final LocalDate day;
+    private final FileChannel file;
+    private final int rows;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final ByteBuffer timestamps;
+    private final ByteBuffer[] columns;
+
+    private CompressedSegment(LocalDate day, Path path) throws IOException {
+        this.day = day;
+        this.file = FileChannel.open(path, StandardOpenOption.READ);
+        this.columns = new ByteBuffer[TelemetryChannel.VALUES.length];
+
+        MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        if (data.getInt() != MAGIC) {
+            file.close();
+            throw new IOException("Not a compressed telemetry segment: " + path);
+        }
+
+        this.rows = data.getInt();
+        this.firstTimestamp = data.getLong();
+        this.lastTimestamp = data.getLong();
+
+        ByteBuffer timestampColumn = null;
+        int columnCount = data.getShort();
+
+        for (int i = 0; i < columnCount; i++) {
+            byte[] name = new byte[data.getShort()];
+            data.get(name);
+            ByteBuffer stream = data.slice((int) data.getLong(), (int) data.getLong());
+
+            String column = new String(name, StandardCharsets.UTF_8);
+            if (column.equals(DaySegment.TIMESTAMP_COLUMN)) {
+                timestampColumn = stream;
+                continue;
+            }
+
+            // Channels removed since are ignored, channels added since stay NaN
+            for (TelemetryChannel channel : TelemetryChannel.VALUES) {
+                if (channel.getColumn().equals(column)) {
+                    columns[channel.ordinal()] = stream;
+                }
+            }
+        }
+
+        if (timestampColumn == null) {
+            file.close();
+            throw new IOException("Compressed telemetry segment without timestamps: " + path);
+        }
+
+        this.timestamps = timestampColumn;
+    }
+
+    /**
+     * Open the compressed segment of {@code day}, or null if the day was not compacted.
+     */
+    static CompressedSegment open(Path root, LocalDate day) throws IOException {
+        Path path = root.resolve(day.toString()).resolve(FILE);
+        return Files.exists(path) ? new CompressedSegment(day, path) : null;
+    }
+
+    /**
+     * Compress the raw column files of {@code day} into a single segment file and remove them.
+     * <p>
+     * The file is written under a temporary name and moved into place only when complete; the column files are
+     * deleted afterwards, so a crash at any point leaves one readable copy of the day.
+     *
+     * @return size of the compressed file in bytes, or -1 if the day has no raw segment
+     */
+    static long compact(Path root, LocalDate day) throws IOException {
+        DaySegment source = DaySegment.openReadOnly(root, day);
+        if (source == null) {
+            return -1;
+        }
+
+        Path directory = root.resolve(day.toString());
+        Path target = directory.resolve(FILE);
+        Path temporary = directory.resolve(FILE + ".tmp");
+
+        long size;
+        try (source; FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            size = write(source, channel);
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        try (var files = Files.list(directory)) {
+            for (Path column : files.filter(p -> p.getFileName().toString().endsWith(DaySegment.COLUMN_SUFFIX)).toList()) {
+                Files.delete(column);
+            }
+        }
+
+        return size;
+    }
+
+    private static long write(DaySegment source, FileChannel channel) throws IOException {
+        int rows = source.size();
+
+        List<TelemetryChannel> recorded = new ArrayList<>();
+        for (TelemetryChannel column : TelemetryChannel.VALUES) {
+            if (source.hasColumn(column)) {
+                recorded.add(column);
+            }
+        }
+
+        int headerSize = Integer.BYTES * 2 + Long.BYTES * 2 + Short.BYTES + columnHeaderSize(DaySegment.TIMESTAMP_COLUMN);
+        for (TelemetryChannel column : recorded) {
+            headerSize += columnHeaderSize(column.getColumn());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize)
+                .putInt(MAGIC)
+                .putInt(rows)
+                .putLong(rows == 0 ? 0 : source.timestamp(0))
+                .putLong(rows == 0 ? 0 : source.lastTimestamp())
+                .putShort((short) (recorded.size() + 1));
+
+        channel.position(headerSize);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        long offset = headerSize;
+
+        BitOutput bits = new BitOutput(out);
+        TimestampEncoder timestampEncoder = new TimestampEncoder(bits);
+        for (int i = 0; i < rows; i++) {
+            timestampEncoder.add(source.timestamp(i));
+        }
+        offset = putColumn(header, DaySegment.TIMESTAMP_COLUMN, offset, bits);
+
+        for (TelemetryChannel column : recorded) {
+            bits = new BitOutput(out);
+            ValueEncoder valueEncoder = new ValueEncoder(bits);
+            for (int i = 0; i < rows; i++) {
+                valueEncoder.add(source.value(column, i));
+            }
+            offset = putColumn(header, column.getColumn(), offset, bits);
+        }
+
+        channel.write(header.flip(), 0);
+        return offset;
+    }
+
+    private static int columnHeaderSize(String name) {
+        return Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length + Long.BYTES * 2;
+    }
+
+    /**
+     * Finish a column stream and record its position in the header.
+     *
+     * @return offset of the next column
+     */
+    private static long putColumn(ByteBuffer header, String name, long offset, BitOutput bits) throws IOException {
+        bits.flush();
+        long length = (bits.getBitsWritten() + 7) / 8;
+
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        header.putShort((short) encodedName.length).put(encodedName).putLong(offset).putLong(length);
+
+        return offset + length;
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public long scan(long from, long to, double[] row, TelemetryVisitor visitor) {
+        if (rows == 0 || from > lastTimestamp || to <= firstTimestamp) {
+            return 0;
+        }
+
+        // Decoders keep their own buffer positions, so concurrent scans do not interfere
+        TimestampDecoder timestampDecoder = new TimestampDecoder(new BitInput(timestamps.duplicate()));
+        ValueDecoder[] valueDecoders = new ValueDecoder[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] != null) {
+                valueDecoders[c] = new ValueDecoder(new BitInput(columns[c].duplicate()));
+            }
+        }
+
+        long visited = 0;
+        for (int i = 0; i < rows; i++) {
+            long timestamp = timestampDecoder.next();
+            if (timestamp >= to) {
+                break;
+            }
+
+            // Every stream has to advance, even for rows before the range
+            for (int c = 0; c < valueDecoders.length; c++) {
+                row[c] = valueDecoders[c] == null ? Double.NaN : valueDecoders[c].next();
+            }
+
+            if (timestamp >= from) {
+                visitor.visit(timestamp, row);
+                visited++;
+            }
+        }
+
+        return visited;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
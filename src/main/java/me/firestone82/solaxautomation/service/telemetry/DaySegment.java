@@ -0,0 +1,205 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One day of telemetry stored column by column: a timestamp column and one value column per channel,
+ * each a memory-mapped file of fixed-width 8 byte slots.
+ * <p>
+ * Rows are only appended, in time order. The row count is kept in the header of the timestamp column and
+ * updated after the row's values, so a row torn by a crash is simply not visible after restart. Reads go
+ * straight to the mapped pages; nothing but the visited row is ever copied onto the heap.
+ */
+@Slf4j
+class DaySegment implements TelemetrySegment {
+    static final String TIMESTAMP_COLUMN = "timestamp";
+    static final String COLUMN_SUFFIX = ".col";
+
+    private static final int HEADER = Long.BYTES;
+    private static final int SLOT = Long.BYTES;
+
+    @Getter
+    private final LocalDate day;
+    private final boolean writable;
+    private final int capacity;
+    private final MappedByteBuffer timestamps;
+    private final MappedByteBuffer[] columns;
+    private final List<FileChannel> files = new ArrayList<>();
+
+    private volatile int count;
+
+    private DaySegment(LocalDate day, Path directory, boolean writable, int capacity) throws IOException {
+        this.day = day;
+        this.writable = writable;
+        this.columns = new MappedByteBuffer[TelemetryChannel.VALUES.length];
+
+        Path timestampFile = directory.resolve(TIMESTAMP_COLUMN + COLUMN_SUFFIX);
+        int rows = writable ? capacity : (int) ((Files.size(timestampFile) - HEADER) / SLOT);
+
+        this.timestamps = map(timestampFile, HEADER + (long) rows * SLOT);
+        this.count = Math.min((int) timestamps.getLong(0), rows);
+        this.capacity = rows;
+
+        for (TelemetryChannel channel : TelemetryChannel.VALUES) {
+            Path file = directory.resolve(channel.getColumn() + COLUMN_SUFFIX);
+
+            // Recorded before the channel existed
+            if (!writable && !Files.exists(file)) {
+                continue;
+            }
+
+            columns[channel.ordinal()] = map(file, (long) rows * SLOT);
+        }
+    }
+
+    /**
+     * Open the segment of {@code day} for appending, creating its files when needed.
+     */
+    static DaySegment openWritable(Path root, LocalDate day, int capacity) throws IOException {
+        Path directory = root.resolve(day.toString());
+        Files.createDirectories(directory);
+
+        return new DaySegment(day, directory, true, capacity);
+    }
+
+    /**
+     * Open an existing segment for reading, or null if nothing was recorded that day.
+     */
+    static DaySegment openReadOnly(Path root, LocalDate day) throws IOException {
+        Path directory = root.resolve(day.toString());
+        if (!Files.exists(directory.resolve(TIMESTAMP_COLUMN + COLUMN_SUFFIX))) {
+            return null;
+        }
+
+        return new DaySegment(day, directory, false, 0);
+    }
+
+    private MappedByteBuffer map(Path file, long size) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        files.add(channel);
+
+        return channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public long lastTimestamp() {
+        int rows = count;
+        return rows == 0 ? Long.MIN_VALUE : timestamp(rows - 1);
+    }
+
+    /**
+     * Append a row; only the single writer of the store calls this.
+     *
+     * @return false when the segment is full or the row is not newer than the last one
+     */
+    boolean append(long epochMillis, double[] values) {
+        int row = count;
+
+        if (!writable || row >= capacity || epochMillis <= lastTimestamp()) {
+            return false;
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].putDouble(row * SLOT, i < values.length ? values[i] : Double.NaN);
+        }
+
+        timestamps.putLong(HEADER + row * SLOT, epochMillis);
+        timestamps.putLong(0, row + 1);
+        count = row + 1;
+
+        return true;
+    }
+
+    long timestamp(int row) {
+        return timestamps.getLong(HEADER + row * SLOT);
+    }
+
+    boolean hasColumn(TelemetryChannel channel) {
+        return columns[channel.ordinal()] != null;
+    }
+
+    double value(TelemetryChannel channel, int row) {
+        MappedByteBuffer column = columns[channel.ordinal()];
+        return column == null ? Double.NaN : column.getDouble(row * SLOT);
+    }
+
+    /**
+     * Index of the first row at or after {@code epochMillis}, or {@link #size()} if there is none.
+     */
+    int lowerBound(long epochMillis) {
+        int low = 0;
+        int high = count;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (timestamp(mid) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public long scan(long from, long to, double[] row, TelemetryVisitor visitor) {
+        int rows = count;
+        long visited = 0;
+
+        for (int i = lowerBound(from); i < rows; i++) {
+            long timestamp = timestamp(i);
+            if (timestamp >= to) {
+                break;
+            }
+
+            for (TelemetryChannel channel : TelemetryChannel.VALUES) {
+                row[channel.ordinal()] = value(channel, i);
+            }
+
+            visitor.visit(timestamp, row);
+            visited++;
+        }
+
+        return visited;
+    }
+
+    void force() {
+        if (!writable) {
+            return;
+        }
+
+        for (MappedByteBuffer column : columns) {
+            column.force();
+        }
+
+        timestamps.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+
+        for (FileChannel file : files) {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import me.firestone82.solaxautomation.service.solax.register.catalog.CatalogRegister;
+import me.firestone82.solaxautomation.service.solax.register.catalog.RegisterCatalog;
+
+import java.util.Arrays;
+
+/**
+ * Column of the telemetry store. The ordinal is the index of the value in a stored row.
+ * <p>
+ * Channels with a catalog register are taken from bulk telemetry scans, the others only from inverter snapshots.
+ * New channels must be appended at the end; days recorded before a channel existed read it as missing.
+ */
+@Getter
+@AllArgsConstructor
+public enum TelemetryChannel {
+    BATTERY_LEVEL("battery_level", "%", RegisterCatalog.BATTERY_CAPACITY),
+    PV1_POWER("pv1_power", "W", RegisterCatalog.PV1_POWER),
+    PV2_POWER("pv2_power", "W", RegisterCatalog.PV2_POWER),
+    INVERTER_MODE("inverter_mode", "", null),
+    EXPORT_LIMIT("export_limit", "W", null),
+    GRID_POWER("grid_power", "W", RegisterCatalog.FEED_IN_POWER),
+    BATTERY_POWER("battery_power", "W", RegisterCatalog.BATTERY_POWER),
+    INVERTER_POWER("inverter_power", "W", RegisterCatalog.INVERTER_POWER),
+    INVERTER_TEMPERATURE("inverter_temperature", "°C", RegisterCatalog.INVERTER_TEMPERATURE),
+    BATTERY_TEMPERATURE("battery_temperature", "°C", RegisterCatalog.BATTERY_TEMPERATURE);
+
+    public static final TelemetryChannel[] VALUES = values();
+
+    /**
+     * Name of the column file.
+     */
+    private final String column;
+    private final String unit;
+    private final CatalogRegister<?> register;
+
+    /**
+     * Row with every value missing.
+     */
+    public static double[] emptyRow() {
+        double[] row = new double[VALUES.length];
+        Arrays.fill(row, Double.NaN);
+        return row;
+    }
+}
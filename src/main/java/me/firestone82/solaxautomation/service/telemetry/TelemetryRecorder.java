@@ -0,0 +1,179 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.solax.model.InverterSnapshotEvent;
+import me.firestone82.solaxautomation.service.solax.model.TelemetrySampleEvent;
+import me.firestone82.solaxautomation.service.solax.scan.TelemetrySample;
+import me.firestone82.solaxautomation.service.solax.snapshot.InverterSnapshot;
+import me.firestone82.solaxautomation.service.telemetry.rollup.TelemetryRollups;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds inverter snapshots and bulk telemetry scans into the {@link TelemetryStore} and the rows it accepts into
+ * the {@link TelemetryRollups}.
+ * <p>
+ * The events are published on the Modbus queue worker, so the rows are built and written on a thread of their own.
+ * Snapshot and scan rows falling into the same second are merged into one row before it is stored, as the store
+ * keeps only one row per second; a row is stored once no further row joined it for a second.
+ */
+@Slf4j
+@Component
+public class TelemetryRecorder {
+
+    private static final long MERGE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TelemetryStore store;
+    private final TelemetryRollups rollups;
+
+    private ScheduledExecutorService executor;
+
+    // Only touched on the executor thread
+    private double[] pending;
+    private Instant pendingTimestamp;
+    private long pendingSince;
+
+    public TelemetryRecorder(
+            @Autowired TelemetryStore store,
+            @Autowired TelemetryRollups rollups
+    ) {
+        this.store = store;
+        this.rollups = rollups;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TelemetryRecorder");
+            t.setDaemon(true);
+            return t;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flushExpired();
+            } catch (RuntimeException e) {
+                log.error("Failed to record telemetry row: {}", e.getMessage(), e);
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.execute(this::flush);
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("TelemetryRecorder executor did not terminate within timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted during TelemetryRecorder shutdown", e);
+        }
+    }
+
+    @EventListener
+    public void onSnapshot(InverterSnapshotEvent event) {
+        InverterSnapshot snapshot = event.snapshot();
+
+        submit(() -> {
+            double[] row = TelemetryChannel.emptyRow();
+
+            row[TelemetryChannel.BATTERY_LEVEL.ordinal()] = snapshot.batteryLevel();
+            row[TelemetryChannel.PV1_POWER.ordinal()] = snapshot.pv1Power();
+            row[TelemetryChannel.PV2_POWER.ordinal()] = snapshot.pv2Power();
+            row[TelemetryChannel.INVERTER_MODE.ordinal()] = snapshot.mode().ordinal();
+            row[TelemetryChannel.EXPORT_LIMIT.ordinal()] = snapshot.exportLimit();
+
+            merge(snapshot.timestamp(), row);
+        });
+    }
+
+    @EventListener
+    public void onTelemetrySample(TelemetrySampleEvent event) {
+        TelemetrySample sample = event.sample();
+
+        submit(() -> {
+            double[] row = TelemetryChannel.emptyRow();
+
+            for (TelemetryChannel channel : TelemetryChannel.VALUES) {
+                if (channel.getRegister() == null) {
+                    continue;
+                }
+
+                sample.get(channel.getRegister())
+                        .filter(Number.class::isInstance)
+                        .ifPresent(value -> row[channel.ordinal()] = ((Number) value).doubleValue());
+            }
+
+            merge(sample.getTimestamp(), row);
+        });
+    }
+
+    private void submit(Runnable task) {
+        if (executor == null || executor.isShutdown()) {
+            log.debug("TelemetryRecorder is not running, dropping telemetry row");
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to record telemetry row: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Merge a row into the pending row of the same second, or store the pending row and start a new one.
+     */
+    private void merge(Instant timestamp, double[] row) {
+        if (pending != null && timestamp.getEpochSecond() == pendingTimestamp.getEpochSecond()) {
+            for (int i = 0; i < row.length; i++) {
+                if (!Double.isNaN(row[i])) {
+                    pending[i] = row[i];
+                }
+            }
+
+            return;
+        }
+
+        flush();
+        pending = row;
+        pendingTimestamp = timestamp;
+        pendingSince = System.nanoTime();
+    }
+
+    private void flushExpired() {
+        if (pending != null && System.nanoTime() - pendingSince >= MERGE_WINDOW_NANOS) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (pending == null) {
+            return;
+        }
+
+        if (store.append(pendingTimestamp, pending)) {
+            rollups.add(pendingTimestamp, pending);
+        }
+
+        pending = null;
+        pendingTimestamp = null;
+    }
+}
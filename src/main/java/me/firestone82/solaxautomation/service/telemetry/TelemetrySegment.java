@@ -0,0 +1,21 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+
+/**
+ * One day of telemetry, readable as a stream of rows in time order.
+ */
+interface TelemetrySegment extends Closeable {
+
+    LocalDate getDay();
+
+    int size();
+
+    /**
+     * Visit rows with {@code from <= timestamp < to}.
+     *
+     * @return number of visited rows
+     */
+    long scan(long from, long to, double[] row, TelemetryVisitor visitor);
+}
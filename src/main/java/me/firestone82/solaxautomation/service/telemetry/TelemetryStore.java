@@ -0,0 +1,256 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Embedded append-only time-series store of inverter telemetry.
+ * <p>
+ * Data is partitioned into one {@link DaySegment} per local day under {@code telemetry.store.path}; each segment
+ * stores every {@link TelemetryChannel} as its own memory-mapped column file. At most one row per second is kept,
+ * which bounds a day to a fixed number of slots. Range scans binary-search the timestamp column and stream rows
+ * from the mapped pages to a {@link TelemetryVisitor}, so a day is never loaded into the heap. Dirty pages are
+ * forced to disk every {@code telemetry.store.flushInterval} ms, not per row, to spare the SD card.
+ * <p>
+ * With {@code telemetry.store.compress} enabled, a day is compacted into a {@link CompressedSegment} once it is
+ * closed, which shrinks the fixed-size column files to a few bits per unchanged value.
+ */
+@Slf4j
+@Component
+public class TelemetryStore {
+
+    // One row per second for the longest (DST) day
+    private static final int ROWS_PER_DAY = 25 * 3600;
+    private static final int MAX_OPEN_READERS = 7;
+
+    @Getter
+    private final Path root;
+    private final Clock clock;
+    private final ZoneId zone;
+
+    private final boolean compress;
+
+    private DaySegment current;
+    private final Map<LocalDate, TelemetrySegment> readers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, TelemetrySegment> eldest) {
+            if (size() > MAX_OPEN_READERS) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    public TelemetryStore(
+            @Value("${telemetry.store.path:data/telemetry}") String path,
+            @Value("${telemetry.store.compress:true}") boolean compress,
+            @Autowired Clock clock
+    ) throws IOException {
+        this.root = Path.of(path);
+        this.compress = compress;
+        this.clock = clock;
+        this.zone = clock.getZone();
+        Files.createDirectories(root);
+
+        List<LocalDate> days = days();
+        log.info("Telemetry store at {} ({} recorded days)", root.toAbsolutePath(), days.size());
+
+        // Days left uncompressed by a crash or while compression was disabled
+        if (compress) {
+            LocalDate today = LocalDate.now(clock);
+            days.stream().filter(today::isAfter).forEach(this::compact);
+        }
+    }
+
+    /**
+     * Append a row of values indexed by {@link TelemetryChannel#ordinal()}; missing values are NaN.
+     *
+     * @return false if the row was dropped, because a row was already stored within the same second
+     */
+    public synchronized boolean append(Instant timestamp, double[] values) {
+        long epochMillis = timestamp.toEpochMilli();
+        LocalDate day = LocalDate.ofInstant(timestamp, zone);
+
+        try {
+            DaySegment segment = writableSegment(day);
+            if (segment == null) {
+                return false;
+            }
+
+            // At most one row per second
+            if (segment.size() > 0 && epochMillis / 1000 <= segment.lastTimestamp() / 1000) {
+                log.trace("Dropping telemetry row at {}, previous row is from the same second", timestamp);
+                return false;
+            }
+
+            return segment.append(epochMillis, values);
+        } catch (IOException e) {
+            log.error("Failed to append telemetry row: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stream all rows with {@code from <= timestamp < to} in time order.
+     *
+     * @return number of visited rows
+     */
+    public long scan(Instant from, Instant to, TelemetryVisitor visitor) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        double[] row = TelemetryChannel.emptyRow();
+        long visited = 0;
+
+        for (LocalDate day = LocalDate.ofInstant(from, zone); !day.isAfter(LocalDate.ofInstant(to, zone)); day = day.plusDays(1)) {
+            TelemetrySegment segment = readableSegment(day);
+
+            if (segment != null) {
+                visited += segment.scan(fromMillis, toMillis, row, visitor);
+            }
+        }
+
+        return visited;
+    }
+
+    /**
+     * Days with recorded telemetry, oldest first.
+     */
+    public List<LocalDate> days() {
+        try (Stream<Path> entries = Files.list(root)) {
+            return entries
+                    .filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .filter(name -> name.matches("\\d{4}-\\d{2}-\\d{2}"))
+                    .map(LocalDate::parse)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.error("Failed to list telemetry days: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${telemetry.store.flushInterval:60000}")
+    public synchronized void flush() {
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (current != null) {
+            closeQuietly(current);
+            current = null;
+        }
+
+        readers.values().forEach(TelemetryStore::closeQuietly);
+        readers.clear();
+    }
+
+    private DaySegment writableSegment(LocalDate day) throws IOException {
+        if (current != null && current.getDay().equals(day)) {
+            return current;
+        }
+
+        // Late row of a day already rolled over
+        if (current != null && day.isBefore(current.getDay())) {
+            return null;
+        }
+
+        if (current != null) {
+            log.info("Closing telemetry segment of {} with {} rows", current.getDay(), current.size());
+            closeQuietly(current);
+
+            if (compress) {
+                compact(current.getDay());
+            }
+        }
+
+        synchronized (readers) {
+            closeQuietly(readers.remove(day));
+        }
+
+        current = DaySegment.openWritable(root, day, ROWS_PER_DAY);
+        return current;
+    }
+
+    private void compact(LocalDate day) {
+        // Readers must not open the raw columns while they are replaced
+        synchronized (readers) {
+            closeQuietly(readers.remove(day));
+            compactSegment(day);
+        }
+    }
+
+    private void compactSegment(LocalDate day) {
+        try {
+            long size = CompressedSegment.compact(root, day);
+            if (size >= 0) {
+                log.info("Compressed telemetry segment of {} to {} kB", day, size / 1024);
+            }
+        } catch (IOException e) {
+            log.error("Failed to compress telemetry segment of {}, keeping raw columns: {}", day, e.getMessage());
+        }
+    }
+
+    private TelemetrySegment readableSegment(LocalDate day) {
+        synchronized (this) {
+            if (current != null && current.getDay().equals(day)) {
+                return current;
+            }
+        }
+
+        synchronized (readers) {
+            TelemetrySegment segment = readers.get(day);
+            if (segment != null) {
+                return segment;
+            }
+
+            try {
+                segment = CompressedSegment.open(root, day);
+                if (segment == null) {
+                    segment = DaySegment.openReadOnly(root, day);
+                }
+            } catch (IOException e) {
+                log.error("Failed to open telemetry segment of {}: {}", day, e.getMessage());
+                return null;
+            }
+
+            if (segment != null) {
+                readers.put(day, segment);
+            }
+
+            return segment;
+        }
+    }
+
+    private static void closeQuietly(TelemetrySegment segment) {
+        if (segment == null) {
+            return;
+        }
+
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Failed to close telemetry segment of {}: {}", segment.getDay(), e.getMessage());
+        }
+    }
+}
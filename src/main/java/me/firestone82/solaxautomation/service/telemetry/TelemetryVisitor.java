@@ -0,0 +1,15 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+/**
+ * Receives rows of a telemetry range scan in time order.
+ */
+@FunctionalInterface
+public interface TelemetryVisitor {
+
+    /**
+     * @param epochMillis time of the sample
+     * @param values      values indexed by {@link TelemetryChannel#ordinal()}, NaN when missing; the array is reused
+     *                    for the next row and must not be kept
+     */
+    void visit(long epochMillis, double[] values);
+}
@@ -0,0 +1,48 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a stream of bits, most significant bit first, from a {@link ByteBuffer} (typically a mapped file region).
+ */
+public class BitInput {
+    private final ByteBuffer buffer;
+    private int current;
+    private int available;
+
+    public BitInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public long readBits(int count) {
+        long result = 0;
+
+        while (count > 0) {
+            if (available == 0) {
+                current = buffer.get() & 0xFF;
+                available = 8;
+            }
+
+            int take = Math.min(available, count);
+            int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+
+            result = (result << take) | chunk;
+            available -= take;
+            count -= take;
+        }
+
+        return result;
+    }
+
+    public boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    /**
+     * Read a two's complement value of {@code count} bits in the Gorilla range {@code [-(2^(n-1) - 1), 2^(n-1)]}.
+     */
+    public long readSigned(int count) {
+        long value = readBits(count);
+        return value > (1L << (count - 1)) ? value - (1L << count) : value;
+    }
+}
@@ -0,0 +1,61 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a stream of bits, most significant bit first, to an {@link OutputStream}.
+ */
+public class BitOutput {
+    private final OutputStream out;
+    private int current;
+    private int filled;
+
+    @Getter
+    private long bitsWritten;
+
+    public BitOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Write the lowest {@code count} bits of {@code value}.
+     */
+    public void writeBits(long value, int count) throws IOException {
+        bitsWritten += count;
+
+        while (count > 0) {
+            int take = Math.min(8 - filled, count);
+            int chunk = (int) (value >>> (count - take)) & ((1 << take) - 1);
+
+            current = (current << take) | chunk;
+            filled += take;
+            count -= take;
+
+            if (filled == 8) {
+                out.write(current);
+                current = 0;
+                filled = 0;
+            }
+        }
+    }
+
+    public void writeBit(boolean bit) throws IOException {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Pad the last byte with zero bits and write it.
+     */
+    public void flush() throws IOException {
+        if (filled > 0) {
+            out.write(current << (8 - filled));
+            current = 0;
+            filled = 0;
+        }
+
+        out.flush();
+    }
+}
@@ -0,0 +1,40 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+/**
+ * Decoder of a {@link TimestampEncoder} stream, one timestamp at a time.
+ */
+public class TimestampDecoder {
+    private final BitInput in;
+    private long previous;
+    private long previousDelta;
+    private boolean first = true;
+
+    public TimestampDecoder(BitInput in) {
+        this.in = in;
+    }
+
+    public long next() {
+        if (first) {
+            previous = in.readBits(64);
+            first = false;
+            return previous;
+        }
+
+        long deltaOfDelta;
+        if (!in.readBit()) {
+            deltaOfDelta = 0;
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(7);
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(9);
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(12);
+        } else {
+            deltaOfDelta = in.readBits(64);
+        }
+
+        previousDelta += deltaOfDelta;
+        previous += previousDelta;
+        return previous;
+    }
+}
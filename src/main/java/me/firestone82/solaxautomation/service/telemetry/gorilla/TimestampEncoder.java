@@ -0,0 +1,51 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import java.io.IOException;
+
+/**
+ * Delta-of-delta encoder of increasing timestamps, as in Facebook's Gorilla paper.
+ * <p>
+ * The first timestamp is written in full. Every next one is written as the change of its delta to the previous
+ * delta: a single 0 bit when samples keep their pace, otherwise a prefix selecting a 7, 9, 12 or 64 bit value.
+ */
+public class TimestampEncoder {
+    private final BitOutput out;
+    private long previous;
+    private long previousDelta;
+    private boolean first = true;
+
+    public TimestampEncoder(BitOutput out) {
+        this.out = out;
+    }
+
+    public void add(long timestamp) throws IOException {
+        if (first) {
+            out.writeBits(timestamp, 64);
+            previous = timestamp;
+            first = false;
+            return;
+        }
+
+        long delta = timestamp - previous;
+        long deltaOfDelta = delta - previousDelta;
+
+        if (deltaOfDelta == 0) {
+            out.writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+            out.writeBits(0b10, 2);
+            out.writeBits(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+            out.writeBits(0b110, 3);
+            out.writeBits(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(deltaOfDelta, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(deltaOfDelta, 64);
+        }
+
+        previous = timestamp;
+        previousDelta = delta;
+    }
+}
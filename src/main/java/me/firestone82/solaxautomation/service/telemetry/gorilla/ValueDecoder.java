@@ -0,0 +1,37 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+/**
+ * Decoder of a {@link ValueEncoder} stream, one value at a time.
+ */
+public class ValueDecoder {
+    private final BitInput in;
+    private long previous;
+    private int previousLeading;
+    private int previousTrailing;
+    private boolean first = true;
+
+    public ValueDecoder(BitInput in) {
+        this.in = in;
+    }
+
+    public double next() {
+        if (first) {
+            previous = in.readBits(64);
+            first = false;
+            return Double.longBitsToDouble(previous);
+        }
+
+        if (in.readBit()) {
+            if (in.readBit()) {
+                previousLeading = (int) in.readBits(5);
+                int length = (int) in.readBits(6);
+                previousTrailing = 64 - previousLeading - (length == 0 ? 64 : length);
+            }
+
+            long meaningful = in.readBits(64 - previousLeading - previousTrailing);
+            previous ^= meaningful << previousTrailing;
+        }
+
+        return Double.longBitsToDouble(previous);
+    }
+}
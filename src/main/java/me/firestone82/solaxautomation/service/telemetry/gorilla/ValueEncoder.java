@@ -0,0 +1,61 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import java.io.IOException;
+
+/**
+ * XOR encoder of double values, as in Facebook's Gorilla paper.
+ * <p>
+ * Each value is XORed with the previous one. An unchanged value costs a single bit; otherwise only the meaningful
+ * bits of the XOR are written, reusing the previous leading/trailing zero window when they fit into it.
+ * Slowly changing telemetry such as SOC or integer power readings compresses to a few bits per sample.
+ */
+public class ValueEncoder {
+    private final BitOutput out;
+    private long previous;
+    private int previousLeading = -1;
+    private int previousTrailing;
+    private boolean first = true;
+
+    public ValueEncoder(BitOutput out) {
+        this.out = out;
+    }
+
+    public void add(double value) throws IOException {
+        long bits = Double.doubleToRawLongBits(value);
+
+        if (first) {
+            out.writeBits(bits, 64);
+            previous = bits;
+            first = false;
+            return;
+        }
+
+        long xor = bits ^ previous;
+        previous = bits;
+
+        if (xor == 0) {
+            out.writeBits(0b0, 1);
+            return;
+        }
+
+        // Leading zeros are stored in 5 bits
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            out.writeBits(0b10, 2);
+            out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            return;
+        }
+
+        int length = 64 - leading - trailing;
+        out.writeBits(0b11, 2);
+        out.writeBits(leading, 5);
+        // 64 meaningful bits do not fit into 6 bits, 0 never occurs otherwise
+        out.writeBits(length == 64 ? 0 : length, 6);
+        out.writeBits(xor >>> trailing, length);
+
+        previousLeading = leading;
+        previousTrailing = trailing;
+    }
+}
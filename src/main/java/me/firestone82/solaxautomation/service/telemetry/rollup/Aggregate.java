@@ -0,0 +1,71 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+/**
+ * Summary of the values of one telemetry channel over a time range.
+ * <p>
+ * The integral is the sum of each value multiplied by the time until the next sample, in value-seconds, skipping
+ * gaps longer than {@code telemetry.rollup.maxGap}. For power channels {@link #getIntegralHours()} is the energy in Wh.
+ */
+public class Aggregate {
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double integral;
+
+    void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void addIntegral(double valueSeconds) {
+        integral += valueSeconds;
+    }
+
+    void merge(long count, double sum, double min, double max, double integral) {
+        this.count += count;
+        this.sum += sum;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+        this.integral += integral;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getIntegral() {
+        return integral;
+    }
+
+    public double getIntegralHours() {
+        return integral / 3600;
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate{count=%d, min=%s, max=%s, avg=%s, sum=%s, integral=%s}".formatted(count, getMin(), getMax(), getAverage(), sum, integral);
+    }
+}
@@ -0,0 +1,100 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+import me.firestone82.solaxautomation.service.telemetry.TelemetryChannel;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Day, hour and minute aggregates of one local day.
+ * <p>
+ * Hour and minute buckets count elapsed time from local midnight, so on DST days they are shifted against the
+ * wall clock. The minute table is the largest part and can be dropped when the day is no longer queried often.
+ * <p>
+ * The integral of each step between two samples is split at minute boundaries, so every bucket gets the part of
+ * the step inside it. Rows just before and after the day are accepted too; they only contribute the part of the
+ * steps to and from them inside the day, so the steps across midnight are not lost.
+ */
+class DayRollup {
+    static final long HOUR = 3_600_000;
+    static final long MINUTE = 60_000;
+
+    final LocalDate day;
+    final long start;
+    final long end;
+    final RollupTable total = new RollupTable(1);
+    // Up to 25 hours on the DST day
+    final RollupTable hours = new RollupTable(25);
+    RollupTable minutes = new RollupTable(25 * 60);
+
+    private final double[] previous = TelemetryChannel.emptyRow();
+    private long previousTimestamp = Long.MIN_VALUE;
+
+    DayRollup(LocalDate day, ZoneId zone) {
+        this.day = day;
+        this.start = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        this.end = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Add a row; rows not newer than the last one are ignored, rows outside the day only close or open a step.
+     */
+    void add(long timestamp, double[] row, long maxGapMillis) {
+        if (timestamp <= previousTimestamp) {
+            return;
+        }
+
+        // The previous value held until this sample, unless the recording was interrupted
+        if (previousTimestamp != Long.MIN_VALUE && timestamp - previousTimestamp <= maxGapMillis) {
+            integrate(Math.max(previousTimestamp, start), Math.min(timestamp, end));
+        }
+
+        // Outside the day the row only provides the values held into the day
+        boolean inside = timestamp >= start && timestamp < end;
+        int hour = (int) ((timestamp - start) / HOUR);
+        int minute = (int) ((timestamp - start) / MINUTE);
+
+        for (int c = 0; c < previous.length; c++) {
+            double value = c < row.length ? row[c] : Double.NaN;
+            previous[c] = value;
+
+            if (!inside || Double.isNaN(value)) {
+                continue;
+            }
+
+            total.add(0, c, value);
+            hours.add(hour, c, value);
+            if (minutes != null) {
+                minutes.add(minute, c, value);
+            }
+        }
+
+        previousTimestamp = timestamp;
+    }
+
+    /**
+     * Add the previous values held over {@code from <= t < to} to the integrals, minute by minute.
+     */
+    private void integrate(long from, long to) {
+        for (long t = from; t < to; ) {
+            int minute = (int) ((t - start) / MINUTE);
+            int hour = (int) ((t - start) / HOUR);
+            long until = Math.min(to, start + (minute + 1L) * MINUTE);
+
+            for (int c = 0; c < previous.length; c++) {
+                if (Double.isNaN(previous[c])) {
+                    continue;
+                }
+
+                double valueSeconds = previous[c] * (until - t) / 1000.0;
+                total.addIntegral(0, c, valueSeconds);
+                hours.addIntegral(hour, c, valueSeconds);
+                if (minutes != null) {
+                    minutes.addIntegral(minute, c, valueSeconds);
+                }
+            }
+
+            t = until;
+        }
+    }
+}
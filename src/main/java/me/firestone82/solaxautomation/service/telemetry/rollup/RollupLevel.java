@@ -0,0 +1,17 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+import lombok.AllArgsConstructor;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket width of the pre-aggregated telemetry, finest first.
+ */
+@AllArgsConstructor
+public enum RollupLevel {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    final ChronoUnit unit;
+}
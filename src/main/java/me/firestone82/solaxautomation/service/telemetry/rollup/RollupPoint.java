@@ -0,0 +1,9 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+import java.time.Instant;
+
+/**
+ * One bucket of a rollup series.
+ */
+public record RollupPoint(Instant start, Aggregate aggregate) {
+}
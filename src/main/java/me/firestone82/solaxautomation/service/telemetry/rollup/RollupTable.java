@@ -0,0 +1,58 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+import me.firestone82.solaxautomation.service.telemetry.TelemetryChannel;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates of every channel for a fixed number of buckets, stored as flat primitive arrays indexed by
+ * {@code bucket * channels + channel}.
+ */
+class RollupTable {
+    private static final int CHANNELS = TelemetryChannel.VALUES.length;
+
+    private final int buckets;
+    private final long[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+    private final double[] integral;
+
+    RollupTable(int buckets) {
+        this.buckets = buckets;
+        this.count = new long[buckets * CHANNELS];
+        this.sum = new double[buckets * CHANNELS];
+        this.min = new double[buckets * CHANNELS];
+        this.max = new double[buckets * CHANNELS];
+        this.integral = new double[buckets * CHANNELS];
+
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    void add(int bucket, int channel, double value) {
+        int i = bucket * CHANNELS + channel;
+        count[i]++;
+        sum[i] += value;
+        min[i] = Math.min(min[i], value);
+        max[i] = Math.max(max[i], value);
+    }
+
+    void addIntegral(int bucket, int channel, double valueSeconds) {
+        integral[bucket * CHANNELS + channel] += valueSeconds;
+    }
+
+    /**
+     * Merge buckets {@code from <= bucket < to} of a channel into the target.
+     */
+    void mergeInto(int from, int to, int channel, Aggregate target) {
+        for (int bucket = Math.max(from, 0); bucket < Math.min(to, buckets); bucket++) {
+            int i = bucket * CHANNELS + channel;
+            target.merge(count[i], sum[i], min[i], max[i], integral[i]);
+        }
+    }
+}
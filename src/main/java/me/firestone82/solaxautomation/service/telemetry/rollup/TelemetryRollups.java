@@ -0,0 +1,228 @@
+package me.firestone82.solaxautomation.service.telemetry.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import me.firestone82.solaxautomation.service.telemetry.TelemetryChannel;
+import me.firestone82.solaxautomation.service.telemetry.TelemetryStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Pre-aggregated minute, hour and day rollups (count, sum, min, max, time integral) of the telemetry history.
+ * <p>
+ * Rows accepted by the {@link TelemetryStore} are added to the rollups of their day as they arrive. Days recorded
+ * earlier are rolled up from the store on first use and kept; only the minute tables of the
+ * {@code telemetry.rollup.minuteDays} most recently used days stay in memory.
+ * <p>
+ * A range query is answered from the coarsest buckets lying fully inside the range, falling back to finer levels
+ * for the edges and to raw rows only for the seconds before the first and after the last whole minute. Queries
+ * spanning whole hours or days therefore touch a handful of buckets instead of scanning samples.
+ */
+@Slf4j
+@Component
+public class TelemetryRollups {
+
+    private final TelemetryStore store;
+    private final long maxGapMillis;
+    private final int minuteDays;
+    private final Clock clock;
+    private final ZoneId zone;
+
+    private final Map<LocalDate, DayRollup> days = new HashMap<>();
+    private final LinkedHashMap<LocalDate, DayRollup> withMinutes = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TelemetryRollups(
+            @Autowired TelemetryStore store,
+            @Value("${telemetry.rollup.maxGap:300000}") long maxGapMillis,
+            @Value("${telemetry.rollup.minuteDays:7}") int minuteDays,
+            @Autowired Clock clock
+    ) {
+        this.store = store;
+        this.maxGapMillis = maxGapMillis;
+        this.minuteDays = minuteDays;
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    /**
+     * Add a row already accepted by the store.
+     */
+    public synchronized void add(Instant timestamp, double[] row) {
+        LocalDate day = LocalDate.ofInstant(timestamp, zone);
+        DayRollup rollup = days.get(day);
+
+        // Closes the step of the previous day across midnight
+        DayRollup previousDay = days.get(day.minusDays(1));
+        if (previousDay != null) {
+            previousDay.add(timestamp.toEpochMilli(), row, maxGapMillis);
+        }
+
+        // Loading rolls up the store, which already contains this row
+        if (rollup == null || rollup.minutes == null) {
+            load(day);
+            return;
+        }
+
+        withMinutes.get(day);
+        rollup.add(timestamp.toEpochMilli(), row, maxGapMillis);
+    }
+
+    /**
+     * Aggregate of a channel over {@code from <= timestamp < to}.
+     */
+    public synchronized Aggregate aggregate(TelemetryChannel channel, Instant from, Instant to) {
+        Aggregate result = new Aggregate();
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+
+        if (fromMillis >= toMillis) {
+            return result;
+        }
+
+        // Nothing to roll up after today
+        LocalDate last = LocalDate.ofInstant(to.minusMillis(1), zone);
+        if (last.isAfter(LocalDate.now(clock))) {
+            last = LocalDate.now(clock);
+        }
+
+        for (LocalDate day = LocalDate.ofInstant(from, zone); !day.isAfter(last); day = day.plusDays(1)) {
+            DayRollup rollup = days.containsKey(day) ? days.get(day) : load(day);
+            long start = Math.max(fromMillis, rollup.start);
+            long end = Math.min(toMillis, rollup.end);
+
+            if (start == rollup.start && end == rollup.end) {
+                rollup.total.mergeInto(0, 1, channel.ordinal(), result);
+            } else {
+                collect(rollup, RollupLevel.HOUR, channel, start, end, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Aggregates of a channel per local minute, hour or day bucket of {@code from <= timestamp < to}; the first
+     * and last bucket only cover the part inside the range.
+     */
+    public List<RollupPoint> series(TelemetryChannel channel, Instant from, Instant to, RollupLevel level) {
+        List<RollupPoint> points = new ArrayList<>();
+        ZonedDateTime bucket = from.atZone(zone).truncatedTo(level.unit);
+
+        while (bucket.toInstant().isBefore(to)) {
+            ZonedDateTime next = bucket.plus(1, level.unit);
+            Instant start = bucket.toInstant().isBefore(from) ? from : bucket.toInstant();
+            Instant end = next.toInstant().isAfter(to) ? to : next.toInstant();
+
+            points.add(new RollupPoint(bucket.toInstant(), aggregate(channel, start, end)));
+            bucket = next;
+        }
+
+        return points;
+    }
+
+    /**
+     * Merge the whole buckets of {@code level} inside the range and hand the remaining edges to the finer level.
+     */
+    private void collect(DayRollup rollup, RollupLevel level, TelemetryChannel channel, long from, long to, Aggregate result) {
+        if (level == RollupLevel.MINUTE && rollup.minutes == null) {
+            rollup = load(rollup.day);
+        }
+
+        long width = level == RollupLevel.HOUR ? DayRollup.HOUR : DayRollup.MINUTE;
+        RollupTable table = level == RollupLevel.HOUR ? rollup.hours : rollup.minutes;
+
+        int first = (int) Math.ceilDiv(from - rollup.start, width);
+        int last = (int) Math.floorDiv(to - rollup.start, width);
+
+        if (first >= last) {
+            collectFiner(rollup, level, channel, from, to, result);
+            return;
+        }
+
+        table.mergeInto(first, last, channel.ordinal(), result);
+
+        long wholeStart = rollup.start + first * width;
+        long wholeEnd = rollup.start + last * width;
+
+        if (from < wholeStart) {
+            collectFiner(rollup, level, channel, from, wholeStart, result);
+        }
+
+        if (wholeEnd < to) {
+            collectFiner(rollup, level, channel, wholeEnd, to, result);
+        }
+    }
+
+    private void collectFiner(DayRollup rollup, RollupLevel level, TelemetryChannel channel, long from, long to, Aggregate result) {
+        if (level == RollupLevel.HOUR) {
+            collect(rollup, RollupLevel.MINUTE, channel, from, to, result);
+            return;
+        }
+
+        // Less than a minute at either edge of the range, with the steps reaching into it from outside
+        int index = channel.ordinal();
+        long[] previous = {Long.MIN_VALUE};
+        double[] previousValue = {Double.NaN};
+
+        store.scan(Instant.ofEpochMilli(from - maxGapMillis), Instant.ofEpochMilli(to + maxGapMillis), (timestamp, row) -> {
+            if (previous[0] != Long.MIN_VALUE && timestamp - previous[0] <= maxGapMillis && !Double.isNaN(previousValue[0])) {
+                long stepFrom = Math.max(previous[0], from);
+                long stepTo = Math.min(timestamp, to);
+
+                if (stepFrom < stepTo) {
+                    result.addIntegral(previousValue[0] * (stepTo - stepFrom) / 1000.0);
+                }
+            }
+
+            if (timestamp >= from && timestamp < to && !Double.isNaN(row[index])) {
+                result.add(row[index]);
+            }
+
+            previous[0] = timestamp;
+            previousValue[0] = row[index];
+        });
+    }
+
+    /**
+     * Roll up a day from the store, including its minute table and the steps across both midnights.
+     */
+    private DayRollup load(LocalDate day) {
+        long started = System.nanoTime();
+        DayRollup rollup = new DayRollup(day, zone);
+
+        Instant from = Instant.ofEpochMilli(rollup.start - maxGapMillis);
+        Instant to = Instant.ofEpochMilli(rollup.end + maxGapMillis);
+        long rows = store.scan(from, to, (timestamp, row) -> rollup.add(timestamp, row, maxGapMillis));
+        log.debug("Rolled up {} telemetry rows of {} in {}ms", rows, day, (System.nanoTime() - started) / 1_000_000);
+
+        days.put(day, rollup);
+        withMinutes.put(day, rollup);
+        evictMinutes();
+
+        return rollup;
+    }
+
+    private void evictMinutes() {
+        LocalDate today = LocalDate.now(clock);
+        Iterator<Map.Entry<LocalDate, DayRollup>> iterator = withMinutes.entrySet().iterator();
+
+        while (withMinutes.size() > minuteDays && iterator.hasNext()) {
+            Map.Entry<LocalDate, DayRollup> eldest = iterator.next();
+
+            // The live day keeps adding to its minutes
+            if (eldest.getKey().equals(today)) {
+                continue;
+            }
+
+            eldest.getValue().minutes = null;
+            iterator.remove();
+        }
+    }
+}
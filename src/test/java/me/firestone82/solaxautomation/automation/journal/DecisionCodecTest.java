@@ -0,0 +1,89 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionCodecTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:15:30.123Z");
+
+    @Test
+    void roundTripsDecisions() {
+        Decision full = new Decision(NOW, CheckerType.BATTERY_LEVEL,
+                new DecisionInputs(-0.75, 87, InverterMode.FEED_IN_PRIORITY, 0.42, true, 3900),
+                DecisionAction.SET_EXPORT_LIMIT, 3900, WriteResult.SUCCESS, "Battery above 85 %, přetok povolen");
+        Decision empty = new Decision(NOW.plusSeconds(1), CheckerType.FORCE_DISCHARGE, DecisionInputs.NONE,
+                DecisionAction.SKIPPED, -1, WriteResult.NOT_ATTEMPTED, "");
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * DecisionCodec.MAX_RECORD);
+        DecisionCodec.encode(full, buffer);
+        DecisionCodec.encode(empty, buffer);
+        buffer.flip();
+
+        assertEquals(full, DecisionCodec.decode(buffer));
+        assertEquals(empty, DecisionCodec.decode(buffer));
+        assertEquals(0, buffer.remaining());
+        assertNull(DecisionCodec.decode(buffer));
+    }
+
+    @Test
+    void truncatesLongReasonOnCharacterBoundary() {
+        // Two-byte characters, the cut at 255 bytes would split one
+        String reason = "ř".repeat(200);
+        ByteBuffer buffer = ByteBuffer.allocate(DecisionCodec.MAX_RECORD);
+        DecisionCodec.encode(decision(reason), buffer);
+        buffer.flip();
+
+        String decoded = DecisionCodec.decode(buffer).reason();
+        assertEquals("ř".repeat(127), decoded);
+        assertTrue(decoded.getBytes(StandardCharsets.UTF_8).length <= DecisionCodec.MAX_REASON);
+    }
+
+    @Test
+    void rejectsRecordWithBadChecksum() {
+        ByteBuffer buffer = encode(decision("mode changed"));
+
+        // Flip a bit in every byte covered by the checksum, one at a time
+        for (int i = Integer.BYTES; i < buffer.limit(); i++) {
+            ByteBuffer corrupt = ByteBuffer.allocate(buffer.limit()).put(buffer.duplicate()).flip();
+            corrupt.put(i, (byte) (corrupt.get(i) ^ 0x10));
+
+            assertNull(DecisionCodec.decode(corrupt), "corrupt byte " + i);
+            assertEquals(0, corrupt.position());
+        }
+    }
+
+    @Test
+    void rejectsIncompleteOrInvalidRecord() {
+        ByteBuffer buffer = encode(decision("mode changed"));
+
+        for (int length = 0; length < buffer.limit(); length++) {
+            assertNull(DecisionCodec.decode(buffer.duplicate().limit(length)), "length " + length);
+        }
+
+        // Length prefix out of range
+        ByteBuffer zeroes = ByteBuffer.allocate(DecisionCodec.MAX_RECORD);
+        assertNull(DecisionCodec.decode(zeroes));
+        ByteBuffer huge = ByteBuffer.allocate(DecisionCodec.MAX_RECORD * 2).putInt(0, DecisionCodec.MAX_RECORD);
+        assertNull(DecisionCodec.decode(huge));
+    }
+
+    private static Decision decision(String reason) {
+        return new Decision(NOW, CheckerType.NEGATIVE_EXPORT, DecisionInputs.NONE.withPrice(-0.1),
+                DecisionAction.SET_MODE, InverterMode.MANUAL.ordinal(), WriteResult.FAILURE, reason);
+    }
+
+    private static ByteBuffer encode(Decision decision) {
+        ByteBuffer buffer = ByteBuffer.allocate(DecisionCodec.MAX_RECORD);
+        DecisionCodec.encode(decision, buffer);
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,122 @@
+package me.firestone82.solaxautomation.automation.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecisionJournalTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysDecisionsAfterReopen() throws IOException {
+        Path file = directory.resolve("decisions.bin");
+        List<Decision> recorded = decisions(0, 10);
+
+        DecisionJournal journal = open(file);
+        recorded.forEach(journal::record);
+        journal.close();
+
+        assertEquals(recorded, replay(open(file)));
+        assertEquals(recorded.subList(2, 5), new DecisionJournalReader(file).query(NOW.plusSeconds(2), NOW.plusSeconds(5), null));
+    }
+
+    @Test
+    void cutsTornTailOnReopen() throws IOException {
+        Path file = directory.resolve("decisions.bin");
+        List<Decision> recorded = decisions(0, 5);
+
+        DecisionJournal journal = open(file);
+        recorded.forEach(journal::record);
+        journal.close();
+        long valid = Files.size(file);
+
+        // A crash in the middle of writing the next record leaves only a part of it
+        ByteBuffer next = ByteBuffer.allocate(DecisionCodec.MAX_RECORD);
+        DecisionCodec.encode(decisions(5, 6).getFirst(), next);
+        next.flip().limit(next.limit() - 7);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(next);
+        }
+
+        assertEquals(valid, new DecisionJournalReader(file).forEach(decision -> {
+        }));
+
+        journal = open(file);
+        assertEquals(valid, Files.size(file));
+
+        // New decisions continue right after the last intact one
+        List<Decision> more = decisions(6, 8);
+        more.forEach(journal::record);
+        journal.close();
+
+        List<Decision> expected = new ArrayList<>(recorded);
+        expected.addAll(more);
+        assertEquals(expected, replay(open(file)));
+    }
+
+    @Test
+    void stopsAtRecordWithBadChecksum() throws IOException {
+        Path file = directory.resolve("decisions.bin");
+        List<Decision> recorded = decisions(0, 6);
+
+        DecisionJournal journal = open(file);
+        recorded.forEach(journal::record);
+        journal.close();
+
+        // Corrupt a byte of the reason of the fourth record
+        long recordSize = Files.size(file) / recorded.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long position = 3 * recordSize + recordSize - Integer.BYTES - 1;
+            channel.read(b, position);
+            channel.write(b.put(0, (byte) (b.get(0) ^ 0x01)).rewind(), position);
+        }
+
+        assertEquals(recorded.subList(0, 3), new DecisionJournalReader(file).query(Instant.MIN, Instant.MAX, null));
+
+        open(file).close();
+        assertEquals(3 * recordSize, Files.size(file));
+    }
+
+    private static DecisionJournal open(Path file) throws IOException {
+        return new DecisionJournal(file.toString(), 4, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static List<Decision> replay(DecisionJournal journal) throws IOException {
+        List<Decision> decisions = new ArrayList<>();
+        journal.replay(decisions::add);
+        journal.close();
+        return decisions;
+    }
+
+    /**
+     * Decisions one second apart, all of the same encoded size.
+     */
+    private static List<Decision> decisions(int from, int to) {
+        List<Decision> decisions = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            decisions.add(new Decision(NOW.plusSeconds(i), CheckerType.values()[i % CheckerType.values().length],
+                    DecisionInputs.NONE.withPrice(i * 0.5 - 1), DecisionAction.NO_CHANGE, -1, WriteResult.NOT_ATTEMPTED,
+                    "decision " + (char) ('a' + i)));
+        }
+
+        return decisions;
+    }
+}
@@ -0,0 +1,78 @@
+package me.firestone82.solaxautomation.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronTrigger;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VirtualTimeSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Prague");
+
+    @Test
+    void runsSpringForwardDay() {
+        LocalDate day = LocalDate.of(2025, 3, 30);
+        DayRun run = runDay(day);
+
+        // 02:00 does not exist, the day has 23 hours
+        assertEquals(23, run.hourly.size());
+        assertEquals(LocalTime.of(3, 0), run.hourly.get(1));
+        assertEquals(List.of(), run.night);
+        assertEquals(23 * 4 + 1, run.fixedDelay.get());
+        assertEquals(1, run.oneShot.get());
+        assertEquals(23 + 23 * 4 + 1 + 1, run.executed);
+        assertEquals(day.plusDays(1).atStartOfDay(ZONE).toInstant(), run.clock.instant());
+    }
+
+    @Test
+    void runsFallBackDay() {
+        LocalDate day = LocalDate.of(2025, 10, 26);
+        DayRun run = runDay(day);
+
+        // 02:00 happens twice, the day has 25 hours
+        assertEquals(25, run.hourly.size());
+        assertEquals(LocalTime.of(2, 0), run.hourly.get(1));
+        assertEquals(LocalTime.of(2, 0), run.hourly.get(2));
+        assertEquals(2, run.night.size());
+        assertEquals(25 * 4 + 1, run.fixedDelay.get());
+        assertEquals(1, run.oneShot.get());
+        assertEquals(25 + 2 + 25 * 4 + 1 + 1, run.executed);
+        assertEquals(day.plusDays(1).atStartOfDay(ZONE).toInstant(), run.clock.instant());
+    }
+
+    /**
+     * Run an hourly cron, a 02:30 cron, a 15 minute fixed delay task and a one-shot task at noon from local midnight
+     * to the next one.
+     */
+    private DayRun runDay(LocalDate day) {
+        VirtualClock clock = new VirtualClock(day.atStartOfDay(ZONE).toInstant(), ZONE);
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(clock);
+        DayRun run = new DayRun(clock);
+
+        scheduler.schedule(() -> run.hourly.add(LocalTime.now(clock)), new CronTrigger("0 0 * * * *", ZONE));
+        scheduler.schedule(() -> run.night.add(clock.instant()), new CronTrigger("0 30 2 * * *", ZONE));
+        scheduler.scheduleWithFixedDelay(run.fixedDelay::incrementAndGet, Duration.ofMinutes(15));
+        scheduler.schedule(run.oneShot::incrementAndGet, day.atTime(12, 0).atZone(ZONE).toInstant());
+
+        run.executed = scheduler.runUntil(day.plusDays(1).atStartOfDay(ZONE).toInstant());
+        return run;
+    }
+
+    private static class DayRun {
+        private final VirtualClock clock;
+        private final List<LocalTime> hourly = new ArrayList<>();
+        private final List<Instant> night = new ArrayList<>();
+        private final AtomicInteger fixedDelay = new AtomicInteger();
+        private final AtomicInteger oneShot = new AtomicInteger();
+        private int executed;
+
+        private DayRun(VirtualClock clock) {
+            this.clock = clock;
+        }
+    }
+}
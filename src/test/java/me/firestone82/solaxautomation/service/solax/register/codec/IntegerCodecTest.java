@@ -0,0 +1,83 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IntegerCodecTest {
+
+    @Test
+    void decodesSixteenBitWords() {
+        byte[] data = words(0x0000, 0x7FFF, 0x8000, 0xFFFF);
+
+        assertEquals(0, IntegerCodec.U16.decodeLong(data, 0));
+        assertEquals(0x7FFF, IntegerCodec.U16.decodeLong(data, 2));
+        assertEquals(0x8000, IntegerCodec.U16.decodeLong(data, 4));
+        assertEquals(0xFFFF, IntegerCodec.U16.decodeLong(data, 6));
+
+        assertEquals(0, IntegerCodec.S16.decodeLong(data, 0));
+        assertEquals(Short.MAX_VALUE, IntegerCodec.S16.decodeLong(data, 2));
+        assertEquals(Short.MIN_VALUE, IntegerCodec.S16.decodeLong(data, 4));
+        assertEquals(-1, IntegerCodec.S16.decodeLong(data, 6));
+    }
+
+    @Test
+    void decodesLowWordFirst() {
+        // 0x00012345 stored as 0x2345 0x0001
+        byte[] data = words(0x2345, 0x0001);
+
+        assertEquals(0x00012345L, IntegerCodec.U32.decodeLong(data, 0));
+        assertEquals(0x00012345L, IntegerCodec.S32.decodeLong(data, 0));
+        assertEquals(0x23450001L, new IntegerCodec(NumberFormat.U32, 1.0, false).decodeLong(data, 0));
+    }
+
+    @Test
+    void signExtendsThirtyTwoBitValues() {
+        // -2 stored as 0xFFFE 0xFFFF, 0x80000000 as 0x0000 0x8000
+        byte[] data = words(0xFFFE, 0xFFFF, 0x0000, 0x8000, 0xFFFF, 0x7FFF);
+
+        assertEquals(-2, IntegerCodec.S32.decodeLong(data, 0));
+        assertEquals(0xFFFFFFFEL, IntegerCodec.U32.decodeLong(data, 0));
+        assertEquals(Integer.MIN_VALUE, IntegerCodec.S32.decodeLong(data, 4));
+        assertEquals(0x80000000L, IntegerCodec.U32.decodeLong(data, 4));
+        assertEquals(Integer.MAX_VALUE, IntegerCodec.S32.decodeLong(data, 8));
+        assertEquals(Integer.MAX_VALUE, IntegerCodec.U32.decodeLong(data, 8));
+
+        assertEquals(-2, (int) IntegerCodec.S32.decode(data, 0));
+    }
+
+    @Test
+    void decodesAtOffset() {
+        // Registers of a block read are decoded in place
+        byte[] data = words(0x1111, 0x0064, 0xFF9C, 0x0002, 0x0000);
+
+        assertEquals(100, IntegerCodec.S16.decodeInt(data, 2));
+        assertEquals(-100, IntegerCodec.S16.decodeInt(data, 4));
+        assertEquals(2, IntegerCodec.U32.decodeInt(data, 6));
+    }
+
+    @Test
+    void decodesScaledValues() {
+        byte[] data = words(2305, 0xFFF6, 0x86A0, 0x0001);
+
+        assertEquals(230.5, IntegerCodec.U16.withScale(0.1).decodeScaled(data, 0), 1e-9);
+        assertEquals(-1.0, IntegerCodec.S16.withScale(0.1).decodeScaled(data, 2), 1e-9);
+        assertEquals(1000.0, IntegerCodec.U32.withScale(0.01).decodeScaled(data, 4), 1e-9);
+
+        assertEquals(-0.1, new ScaledCodec(NumberFormat.S16, 0.01).decode(data, 2), 1e-9);
+        assertEquals(100.0, new ScaledCodec(NumberFormat.U32, 0.001).decode(data, 4), 1e-9);
+
+        // The scale is not applied to the integer result
+        assertEquals(2305, IntegerCodec.U16.withScale(0.1).decodeInt(data, 0));
+    }
+
+    static byte[] words(int... words) {
+        byte[] data = new byte[words.length * 2];
+        for (int i = 0; i < words.length; i++) {
+            data[i * 2] = (byte) (words[i] >> 8);
+            data[i * 2 + 1] = (byte) words[i];
+        }
+
+        return data;
+    }
+}
@@ -0,0 +1,60 @@
+package me.firestone82.solaxautomation.service.solax.register.codec;
+
+import me.firestone82.solaxautomation.service.solax.model.InverterMode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static me.firestone82.solaxautomation.service.solax.register.codec.IntegerCodecTest.words;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RegisterCodecsTest {
+
+    @Test
+    void resolvesIntegerCodecByWordCount() {
+        assertSame(IntegerCodec.S16, RegisterCodecs.forType(Integer.class, 1));
+        assertSame(IntegerCodec.U32, RegisterCodecs.forType(Integer.class, 2));
+
+        byte[] data = words(0xFFFF, 0x0001);
+        assertEquals(-1, (int) RegisterCodecs.forType(Integer.class, 1).decode(data, 0));
+        assertEquals(0x0001FFFF, (int) RegisterCodecs.forType(Integer.class, 2).decode(data, 0));
+    }
+
+    @Test
+    void decodesStringRegisters() {
+        RegisterCodec<String> codec = RegisterCodecs.forType(String.class, 7);
+
+        // Serial number of 14 characters fills all registers
+        assertEquals("H34B10H1234567", codec.decode("H34B10H1234567".getBytes(StandardCharsets.US_ASCII), 0));
+
+        // Shorter values are padded with NUL, including an odd length ending in the middle of a register
+        byte[] padded = new byte[2 + 14 + 2];
+        byte[] value = "X3-HYB".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(value, 0, padded, 2, value.length);
+        padded[2 + value.length] = 'G';
+        padded[padded.length - 1] = 'Z';
+        assertEquals("X3-HYBG", codec.decode(padded, 2));
+
+        assertEquals("", codec.decode(new byte[14], 0));
+    }
+
+    @Test
+    void decodesOtherTypes() {
+        byte[] data = words(0x0003, 0x0102, 0xFFFF);
+
+        assertEquals(InverterMode.MANUAL, RegisterCodecs.forType(InverterMode.class, 1).decode(data, 0));
+        assertEquals((byte) 0x01, (byte) RegisterCodecs.forType(Byte.class, 1).decode(data, 2));
+        assertArrayEquals(new int[]{0x0003, 0x0102, 0xFFFF}, RegisterCodecs.forType(int[].class, 3).decode(data, 0));
+
+        RegisterCodec<InverterMode> modes = RegisterCodecs.forType(InverterMode.class, 1);
+        assertThrows(IllegalArgumentException.class, () -> modes.decode(data, 4));
+    }
+
+    @Test
+    void rejectsUnknownType() {
+        assertThrows(IllegalStateException.class, () -> RegisterCodecs.forType(Long.class, 2));
+    }
+}
@@ -0,0 +1,134 @@
+package me.firestone82.solaxautomation.service.telemetry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedSegmentTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+    private static final long START = DAY.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    @TempDir
+    Path root;
+
+    @Test
+    void reopensCompactedSegmentFromDisk() throws IOException {
+        List<Row> written = writeRawSegment(2000);
+
+        assertTrue(CompressedSegment.compact(root, DAY) > 0);
+
+        // Column files are gone, only the compressed copy remains
+        try (var files = Files.list(root.resolve(DAY.toString()))) {
+            assertEquals(List.of(CompressedSegment.FILE), files.map(p -> p.getFileName().toString()).toList());
+        }
+        assertNull(DaySegment.openReadOnly(root, DAY));
+
+        try (CompressedSegment segment = CompressedSegment.open(root, DAY)) {
+            assertEquals(written.size(), segment.size());
+            assertEquals(written, scan(segment, Long.MIN_VALUE, Long.MAX_VALUE));
+
+            // A range in the middle still decodes the rows before it
+            long from = written.get(500).timestamp();
+            long to = written.get(1500).timestamp();
+            assertEquals(written.subList(500, 1500), scan(segment, from, to));
+
+            assertEquals(List.of(), scan(segment, written.getLast().timestamp() + 1, Long.MAX_VALUE));
+            assertEquals(List.of(), scan(segment, Long.MIN_VALUE, START));
+        }
+    }
+
+    @Test
+    void skipsDayWithoutRawSegment() throws IOException {
+        assertEquals(-1, CompressedSegment.compact(root, DAY));
+        assertNull(CompressedSegment.open(root, DAY));
+    }
+
+    @Test
+    void reopensEmptySegment() throws IOException {
+        writeRawSegment(0);
+
+        CompressedSegment.compact(root, DAY);
+
+        try (CompressedSegment segment = CompressedSegment.open(root, DAY)) {
+            assertEquals(0, segment.size());
+            assertEquals(List.of(), scan(segment, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Write {@code rows} rows of mostly one second pace with gaps, negative values and missing channels.
+     */
+    private List<Row> writeRawSegment(int rows) throws IOException {
+        List<Row> written = new ArrayList<>();
+
+        try (DaySegment segment = DaySegment.openWritable(root, DAY, 4096)) {
+            long timestamp = START;
+            for (int i = 0; i < rows; i++) {
+                timestamp += i % 100 == 0 ? 61_000 : i % 10 == 0 ? 1003 : 1000;
+
+                double[] values = TelemetryChannel.emptyRow();
+                values[TelemetryChannel.BATTERY_LEVEL.ordinal()] = 20 + i / 100;
+                values[TelemetryChannel.GRID_POWER.ordinal()] = i % 3 == 0 ? Double.NaN : -2500 + i * 3.5;
+                values[TelemetryChannel.BATTERY_POWER.ordinal()] = Math.sin(i / 30.0) * 4000;
+                values[TelemetryChannel.BATTERY_TEMPERATURE.ordinal()] = i % 2 == 0 ? -0.0 : -12.3;
+
+                assertTrue(segment.append(timestamp, values));
+                written.add(new Row(timestamp, values.clone()));
+            }
+
+            segment.force();
+        }
+
+        return written;
+    }
+
+    private static List<Row> scan(CompressedSegment segment, long from, long to) {
+        List<Row> rows = new ArrayList<>();
+        long visited = segment.scan(from, to, TelemetryChannel.emptyRow(), (timestamp, values) -> {
+            assertFalse(rows.size() > 0 && rows.getLast().timestamp() >= timestamp);
+            rows.add(new Row(timestamp, values.clone()));
+        });
+
+        assertEquals(rows.size(), visited);
+        return rows;
+    }
+
+    private record Row(long timestamp, double[] values) {
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Row other) || timestamp != other.timestamp) {
+                return false;
+            }
+
+            // Bitwise, so NaN and -0.0 have to survive as written
+            long[] bits = new long[values.length];
+            long[] otherBits = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                bits[i] = Double.doubleToRawLongBits(values[i]);
+                otherBits[i] = Double.doubleToRawLongBits(other.values[i]);
+            }
+
+            return Arrays.equals(bits, otherBits);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(timestamp);
+        }
+    }
+}
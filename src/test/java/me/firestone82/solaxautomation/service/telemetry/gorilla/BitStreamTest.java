@@ -0,0 +1,66 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitStreamTest {
+
+    @Test
+    void writesMostSignificantBitFirst() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitOutput out = new BitOutput(bytes);
+
+        out.writeBit(true);
+        out.writeBits(0b01, 2);
+        out.writeBits(0xABCD, 16);
+        out.flush();
+
+        // 1 01 1010101111001101, padded with zeros
+        assertArrayEquals(new byte[]{(byte) 0b1011_0101, (byte) 0b0111_1001, (byte) 0b1010_0000}, bytes.toByteArray());
+        assertEquals(19, out.getBitsWritten());
+    }
+
+    @Test
+    void roundTripsMixedWidths() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitOutput out = new BitOutput(bytes);
+
+        out.writeBit(false);
+        out.writeBits(-1L, 64);
+        out.writeBits(0x5, 3);
+        out.writeBits(Long.MIN_VALUE, 64);
+        out.writeBit(true);
+        out.writeBits(0x1234_5678_9ABCL, 48);
+        out.flush();
+
+        BitInput in = new BitInput(ByteBuffer.wrap(bytes.toByteArray()));
+        assertFalse(in.readBit());
+        assertEquals(-1L, in.readBits(64));
+        assertEquals(0x5, in.readBits(3));
+        assertEquals(Long.MIN_VALUE, in.readBits(64));
+        assertTrue(in.readBit());
+        assertEquals(0x1234_5678_9ABCL, in.readBits(48));
+    }
+
+    @Test
+    void readsSignedRangeEdges() throws IOException {
+        long[][] cases = {{7, -63}, {7, 64}, {7, 0}, {7, -1}, {9, -255}, {9, 256}, {12, -2047}, {12, 2048}};
+
+        for (long[] c : cases) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BitOutput out = new BitOutput(bytes);
+            out.writeBits(c[1], (int) c[0]);
+            out.flush();
+
+            assertEquals(c[1], new BitInput(ByteBuffer.wrap(bytes.toByteArray())).readSigned((int) c[0]));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimestampCodecTest {
+
+    private static final long START = 1_760_000_000_000L;
+
+    @Test
+    void roundTripsRegularPace() throws IOException {
+        long[] timestamps = new long[100];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = START + i * 1000L;
+        }
+
+        assertArrayEquals(timestamps, roundTrip(timestamps));
+    }
+
+    @Test
+    void roundTripsBucketEdges() throws IOException {
+        // Delta-of-delta of every step is the value listed, relative to a 1 s pace
+        long[] deltaOfDeltas = {0, -63, 63, 64, -64, -65, 65, -255, 255, 256, -256, -257, 257, -2047, 2048, -2048, 2049};
+        long[] timestamps = new long[deltaOfDeltas.length + 2];
+        timestamps[0] = START;
+        timestamps[1] = START + 1000;
+
+        long delta = 1000;
+        for (int i = 0; i < deltaOfDeltas.length; i++) {
+            delta += deltaOfDeltas[i];
+            timestamps[i + 2] = timestamps[i + 1] + delta;
+        }
+
+        assertArrayEquals(timestamps, roundTrip(timestamps));
+    }
+
+    @Test
+    void usesSmallestBucket() throws IOException {
+        // 64 bits for the first timestamp, 4 + 12 for the first delta, then 1, 2 + 7, 3 + 9, 4 + 12 and 4 + 64 bits
+        assertEquals(64 + 16 + 1 + 9 + 12 + 16 + 68,
+                bitsWritten(START, START + 1000, START + 2000, START + 3064, START + 4384, START + 7752, START + 13169));
+        assertEquals(64 + 16 + 1 + 9 + 12 + 16 + 68,
+                bitsWritten(START, START + 1000, START + 2000, START + 2937, START + 3619, START + 2254, START - 1160));
+    }
+
+    @Test
+    void roundTripsLargeGaps() throws IOException {
+        // Gaps above the 12 bit bucket take the 64 bit escape, including a step back in time
+        long[] timestamps = {START, START + 1000, START + 3_601_000, START + 3_602_000, START + 3_000, 0, Long.MAX_VALUE / 2};
+        assertArrayEquals(timestamps, roundTrip(timestamps));
+    }
+
+    private static long[] roundTrip(long... timestamps) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitOutput out = new BitOutput(bytes);
+        TimestampEncoder encoder = new TimestampEncoder(out);
+        for (long timestamp : timestamps) {
+            encoder.add(timestamp);
+        }
+        out.flush();
+
+        TimestampDecoder decoder = new TimestampDecoder(new BitInput(ByteBuffer.wrap(bytes.toByteArray())));
+        long[] decoded = new long[timestamps.length];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = decoder.next();
+        }
+
+        return decoded;
+    }
+
+    private static long bitsWritten(long... timestamps) throws IOException {
+        BitOutput out = new BitOutput(new ByteArrayOutputStream());
+        TimestampEncoder encoder = new TimestampEncoder(out);
+        for (long timestamp : timestamps) {
+            encoder.add(timestamp);
+        }
+
+        return out.getBitsWritten();
+    }
+}
@@ -0,0 +1,95 @@
+package me.firestone82.solaxautomation.service.telemetry.gorilla;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ValueCodecTest {
+
+    @Test
+    void writesSingleBitForIdenticalValues() throws IOException {
+        double[] values = {42.5, 42.5, 42.5, 42.5};
+
+        assertRoundTrip(values);
+        assertEquals(64 + 3, bitsWritten(values));
+    }
+
+    @Test
+    void roundTripsNaNAndNegativeValues() throws IOException {
+        assertRoundTrip(Double.NaN, Double.NaN, -1.5, -2500, Double.NaN, 0.0, -0.0, -0.0, 3.25, Double.NaN);
+        assertRoundTrip(-4200, -4100, -4000, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -Double.MAX_VALUE);
+    }
+
+    @Test
+    void roundTripsFullWidthXor() throws IOException {
+        // XOR with no leading and no trailing zeros has 64 meaningful bits, written as a length of 0
+        double full = Double.longBitsToDouble(0x8000_0000_0000_0001L);
+        double[] values = {0.0, full, 0.0, full};
+
+        assertRoundTrip(values);
+        // First value in full, then a new window of 2 + 5 + 6 + 64 bits, reused twice with 2 + 64 bits
+        assertEquals(64 + 77 + 66 + 66, bitsWritten(values));
+    }
+
+    @Test
+    void roundTripsLeadingAndTrailingZeroEdges() throws IOException {
+        double lowestBit = Double.longBitsToDouble(1L);
+        double highestBit = Double.longBitsToDouble(Long.MIN_VALUE);
+
+        // Only the lowest bit differs, leading zeros are capped at 31
+        assertRoundTrip(0.0, lowestBit, 0.0, lowestBit, Double.longBitsToDouble(3L));
+        // Only the highest bit differs, 63 trailing zeros
+        assertRoundTrip(0.0, highestBit, 0.0, -1.0, 1.0, highestBit);
+        // Window shrinks and grows again
+        assertRoundTrip(1.0, 1.5, 1.25, 1.0000000000000002, 1.0, 1024.0, 1.0);
+    }
+
+    @Test
+    void reusesPreviousWindow() throws IOException {
+        // 1.0 -> 1.5 -> 1.0 differ in the same single bit, the second XOR reuses the window
+        double[] values = {1.0, 1.5, 1.0};
+
+        assertRoundTrip(values);
+        assertEquals(64 + (2 + 5 + 6 + 1) + (2 + 1), bitsWritten(values));
+    }
+
+    @Test
+    void roundTripsSlowlyChangingSeries() throws IOException {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 7 == 0 ? Double.NaN : Math.round(Math.sin(i / 50.0) * 3000) + (i / 100) * 0.1;
+        }
+
+        assertRoundTrip(values);
+    }
+
+    private static void assertRoundTrip(double... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BitOutput out = new BitOutput(bytes);
+        ValueEncoder encoder = new ValueEncoder(out);
+        for (double value : values) {
+            encoder.add(value);
+        }
+        out.flush();
+
+        ValueDecoder decoder = new ValueDecoder(new BitInput(ByteBuffer.wrap(bytes.toByteArray())));
+        for (int i = 0; i < values.length; i++) {
+            // Compare raw bits so NaN and -0.0 have to survive exactly
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoder.next()), "value " + i);
+        }
+    }
+
+    private static long bitsWritten(double... values) throws IOException {
+        BitOutput out = new BitOutput(new ByteArrayOutputStream());
+        ValueEncoder encoder = new ValueEncoder(out);
+        for (double value : values) {
+            encoder.add(value);
+        }
+
+        return out.getBitsWritten();
+    }
+}